@@ -28,6 +28,11 @@ public abstract class AbstractGitHubConfiguration extends AbstractConfiguration
     private int connectionTimeoutInMilliseconds = 10000; // 10s
     private int readTimeoutInMilliseconds = 10000; // 10s
     private int writeTimeoutInMilliseconds = 10000; // 10s
+    private boolean rateLimitPacing = false;
+    private int httpCacheSize = 0;
+    private String httpCacheDirectory;
+    private int httpCacheDirectoryMaxSizeInMegabytes = 50;
+    private boolean coalesceConcurrentRequests = false;
 
     @ConfigurationProperty(
             order = 5,
@@ -141,4 +146,74 @@ public abstract class AbstractGitHubConfiguration extends AbstractConfiguration
     public void setHttpProxyPassword(GuardedString httpProxyPassword) {
         this.httpProxyPassword = httpProxyPassword;
     }
+
+    @ConfigurationProperty(
+            order = 30,
+            displayMessageKey = "Rate Limit Pacing",
+            helpMessageKey = "If true, pace the requests by the rate limit budget reported by GitHub to spread them across the reset window (Default: false)",
+            required = false,
+            confidential = false)
+    public boolean isRateLimitPacing() {
+        return rateLimitPacing;
+    }
+
+    public void setRateLimitPacing(boolean rateLimitPacing) {
+        this.rateLimitPacing = rateLimitPacing;
+    }
+
+    @ConfigurationProperty(
+            order = 31,
+            displayMessageKey = "HTTP Cache Size",
+            helpMessageKey = "Set the max number of GET responses cached in memory. The cached responses are revalidated by ETag, and GitHub doesn't count the not modified responses against the rate limit. 0 means no cache (Default: 0)",
+            required = false,
+            confidential = false)
+    public int getHttpCacheSize() {
+        return httpCacheSize;
+    }
+
+    public void setHttpCacheSize(int httpCacheSize) {
+        this.httpCacheSize = httpCacheSize;
+    }
+
+    @ConfigurationProperty(
+            order = 32,
+            displayMessageKey = "HTTP Cache Directory",
+            helpMessageKey = "Set the directory to cache GET responses on disk. The cached responses are revalidated by ETag. If not set, no disk cache is used",
+            required = false,
+            confidential = false)
+    public String getHttpCacheDirectory() {
+        return httpCacheDirectory;
+    }
+
+    public void setHttpCacheDirectory(String httpCacheDirectory) {
+        this.httpCacheDirectory = httpCacheDirectory;
+    }
+
+    @ConfigurationProperty(
+            order = 33,
+            displayMessageKey = "HTTP Cache Directory Max Size",
+            helpMessageKey = "Set the max size of the HTTP cache directory in megabytes (Default: 50)",
+            required = false,
+            confidential = false)
+    public int getHttpCacheDirectoryMaxSizeInMegabytes() {
+        return httpCacheDirectoryMaxSizeInMegabytes;
+    }
+
+    public void setHttpCacheDirectoryMaxSizeInMegabytes(int httpCacheDirectoryMaxSizeInMegabytes) {
+        this.httpCacheDirectoryMaxSizeInMegabytes = httpCacheDirectoryMaxSizeInMegabytes;
+    }
+
+    @ConfigurationProperty(
+            order = 34,
+            displayMessageKey = "Coalesce Concurrent Requests",
+            helpMessageKey = "If true, the identical GET requests sent concurrently by multiple threads share one HTTP call and its response (Default: false)",
+            required = false,
+            confidential = false)
+    public boolean isCoalesceConcurrentRequests() {
+        return coalesceConcurrentRequests;
+    }
+
+    public void setCoalesceConcurrentRequests(boolean coalesceConcurrentRequests) {
+        this.coalesceConcurrentRequests = coalesceConcurrentRequests;
+    }
 }
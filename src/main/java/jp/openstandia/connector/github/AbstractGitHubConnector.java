@@ -90,7 +90,7 @@ public abstract class AbstractGitHubConnector<T extends AbstractGitHubConfigurat
         return schema;
     }
 
-    private ObjectHandler getSchemaHandler(ObjectClass objectClass) {
+    protected ObjectHandler getSchemaHandler(ObjectClass objectClass) {
         if (objectClass == null) {
             throw new InvalidAttributeValueException("ObjectClass value not provided");
         }
@@ -211,6 +211,10 @@ public abstract class AbstractGitHubConnector<T extends AbstractGitHubConfigurat
                     total = schemaHandler.getByMembers(filter.attributeValue, countableResultHandler, options,
                             returnAttributesSet, fetchFieldSet,
                             allowPartialAttributeValues, pageSize, pageOffset);
+                } else if (filter.isBySCIMFilter()) {
+                    total = schemaHandler.getBySCIMFilter(filter.scimAttributePath, filter.scimAttributeValue, countableResultHandler, options,
+                            returnAttributesSet, fetchFieldSet,
+                            allowPartialAttributeValues, pageSize, pageOffset);
                 }
                 // No result
             } else {
@@ -15,7 +15,14 @@
  */
 package jp.openstandia.connector.github;
 
+import jp.openstandia.connector.util.FileSnapshotStore;
+import jp.openstandia.connector.util.MemorySnapshotStore;
 import jp.openstandia.connector.util.SchemaDefinition;
+import jp.openstandia.connector.util.SnapshotStore;
+import org.identityconnectors.common.StringUtil;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+
+import java.nio.file.Paths;
 
 /**
  * Base class for GitHub object handlers.
@@ -31,6 +38,29 @@ public abstract class AbstractGitHubEMUHandler extends AbstractGitHubHandler<Git
         this.schemaDefinition = schemaDefinition;
     }
 
+    /**
+     * Returns the key of the sync snapshot, it's unique per enterprise and object class.
+     *
+     * @param objectClass object class
+     * @return the snapshot key
+     */
+    protected String getSnapshotKey(ObjectClass objectClass) {
+        return String.join("|", String.valueOf(configuration.getEndpointURL()), configuration.getEnterpriseSlug(),
+                objectClass.getObjectClassValue());
+    }
+
+    /**
+     * Returns the store of the sync snapshot. It's persisted into the snapshot directory if configured.
+     *
+     * @return the snapshot store
+     */
+    protected SnapshotStore getSnapshotStore() {
+        if (StringUtil.isBlank(configuration.getSnapshotDirectory())) {
+            return MemorySnapshotStore.getInstance();
+        }
+        return FileSnapshotStore.getInstance(Paths.get(configuration.getSnapshotDirectory()));
+    }
+
     @Override
     public SchemaDefinition getSchemaDefinition() {
         return schemaDefinition;
@@ -0,0 +1,221 @@
+/*
+ *  Copyright Nomura Research Institute, Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package jp.openstandia.connector.github;
+
+import okhttp3.*;
+import org.identityconnectors.common.logging.Log;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * In-memory LRU cache of GET responses which revalidates them by ETag.
+ * <p>
+ * The cached body is kept with its ETag keyed by the credential and the URL, and the next GET of the same URL
+ * is sent with "If-None-Match". GitHub returns "304 Not Modified" without the body if the resource isn't changed,
+ * which doesn't count against the primary rate limit, then the cached body is returned as "200 OK".
+ * The cached responses are always revalidated, so they are never stale. Still, any other request to the URL
+ * (e.g. PATCH or DELETE) or under it drops the cached responses because they will be changed anyway.
+ * The GraphQL queries are sent by POST, but they don't change anything, so they don't drop them.
+ *
+ * @author Hiroyuki Wada
+ */
+public class ConditionalRequestCache implements Interceptor {
+
+    private static final Log LOGGER = Log.getLog(ConditionalRequestCache.class);
+
+    static final String HEADER_ETAG = "ETag";
+    static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+
+    // Don't cache large responses such as list pages
+    static final int MAX_BODY_SIZE = 64 * 1024;
+
+    private final Map<CacheKey, CachedResponse> cache;
+    // Host and path => cached keys, sorted to find the keys under a path without scanning the cache
+    private final NavigableMap<String, Set<CacheKey>> keysByPath = new TreeMap<>();
+
+    public ConditionalRequestCache(int maxEntries) {
+        this.cache = new LinkedHashMap<CacheKey, CachedResponse>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, CachedResponse> eldest) {
+                if (size() > maxEntries) {
+                    unindex(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+
+        if (RequestCoalescer.isGraphQL(request)) {
+            return chain.proceed(request);
+        }
+        if (!request.method().equals("GET")) {
+            invalidate(request.url());
+            return chain.proceed(request);
+        }
+        if (request.header(HEADER_IF_NONE_MATCH) != null) {
+            // The caller handles the conditional request itself
+            return chain.proceed(request);
+        }
+
+        CacheKey key = new CacheKey(request);
+        CachedResponse cached = get(key);
+        if (cached != null) {
+            request = request.newBuilder()
+                    .header(HEADER_IF_NONE_MATCH, cached.etag)
+                    .build();
+        }
+
+        Response response = chain.proceed(request);
+
+        if (cached != null && response.code() == 304) {
+            LOGGER.ok("Not modified, returning the cached response: {0}", request.url());
+            response.close();
+            return cached.toResponse(response);
+        }
+
+        return store(key, response);
+    }
+
+    private Response store(CacheKey key, Response response) throws IOException {
+        if (response.code() == 404) {
+            remove(key);
+            return response;
+        }
+        String etag = response.header(HEADER_ETAG);
+        if (response.code() != 200 || etag == null || response.body() == null) {
+            return response;
+        }
+
+        // The content length is unknown for gzipped responses, so peek the body up to the limit
+        ResponseBody peeked = response.peekBody(MAX_BODY_SIZE + 1);
+        if (peeked.contentLength() > MAX_BODY_SIZE) {
+            return response;
+        }
+        put(key, new CachedResponse(etag, response.headers(), peeked.contentType(), peeked.bytes()));
+
+        return response;
+    }
+
+    private synchronized CachedResponse get(CacheKey key) {
+        return cache.get(key);
+    }
+
+    private synchronized void put(CacheKey key, CachedResponse cached) {
+        if (cache.put(key, cached) == null) {
+            keysByPath.computeIfAbsent(key.hostPath, k -> new HashSet<>()).add(key);
+        }
+    }
+
+    private synchronized void remove(CacheKey key) {
+        if (cache.remove(key) != null) {
+            unindex(key);
+        }
+    }
+
+    private synchronized void invalidate(HttpUrl url) {
+        String hostPath = url.host() + url.encodedPath();
+        List<Set<CacheKey>> affected = new ArrayList<>();
+        Set<CacheKey> exact = keysByPath.remove(hostPath);
+        if (exact != null) {
+            affected.add(exact);
+        }
+        // The paths starting with "<path>/", '0' is the next character of '/'
+        Map<String, Set<CacheKey>> under = keysByPath.subMap(hostPath + "/", true, hostPath + "0", false);
+        affected.addAll(under.values());
+        under.clear();
+
+        for (Set<CacheKey> keys : affected) {
+            for (CacheKey key : keys) {
+                cache.remove(key);
+            }
+        }
+    }
+
+    private void unindex(CacheKey key) {
+        Set<CacheKey> keys = keysByPath.get(key.hostPath);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            keysByPath.remove(key.hostPath);
+        }
+    }
+
+    synchronized int size() {
+        return cache.size();
+    }
+
+    private static class CachedResponse {
+        final String etag;
+        final Headers headers;
+        final MediaType contentType;
+        final byte[] body;
+
+        CachedResponse(String etag, Headers headers, MediaType contentType, byte[] body) {
+            this.etag = etag;
+            this.headers = headers;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        Response toResponse(Response notModified) {
+            Headers.Builder merged = headers.newBuilder();
+            // Use the latest rate limit headers and so on
+            for (String name : notModified.headers().names()) {
+                if (name.equalsIgnoreCase("Content-Length")) {
+                    continue;
+                }
+                merged.set(name, notModified.header(name));
+            }
+            return notModified.newBuilder()
+                    .code(200)
+                    .message("OK")
+                    .headers(merged.build())
+                    .body(ResponseBody.create(body, contentType))
+                    .build();
+        }
+    }
+
+    private static class CacheKey {
+        // Don't keep the credential itself as the key
+        private final byte[] authorizationDigest;
+        private final String hostPath;
+        private final String url;
+
+        CacheKey(Request request) {
+            String authorization = request.header("Authorization");
+            this.authorizationDigest = authorization != null ? GitHubHttpClientRegistry.sha256(authorization) : null;
+            this.hostPath = request.url().host() + request.url().encodedPath();
+            this.url = request.url().toString();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            CacheKey that = (CacheKey) o;
+            return Objects.equals(url, that.url) && Arrays.equals(authorizationDigest, that.authorizationDigest);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hash(url) + Arrays.hashCode(authorizationDigest);
+        }
+    }
+}
@@ -16,28 +16,22 @@
 package jp.openstandia.connector.github;
 
 import jp.openstandia.connector.util.QueryHandler;
-import okhttp3.Credentials;
-import okhttp3.OkHttpClient;
-import okhttp3.Response;
-import okhttp3.Route;
-import org.identityconnectors.common.StringUtil;
 import org.identityconnectors.framework.common.exceptions.AlreadyExistsException;
 import org.identityconnectors.framework.common.exceptions.UnknownUidException;
 import org.identityconnectors.framework.common.objects.Name;
 import org.identityconnectors.framework.common.objects.OperationOptions;
 import org.identityconnectors.framework.common.objects.ResultsHandler;
+import org.identityconnectors.framework.common.objects.SyncResultsHandler;
+import org.identityconnectors.framework.common.objects.SyncToken;
 import org.identityconnectors.framework.common.objects.Uid;
 import org.kohsuke.github.SCIMEMUGroup;
 import org.kohsuke.github.SCIMEMUUser;
 import org.kohsuke.github.SCIMPatchOperations;
 import org.kohsuke.github.SCIMUser;
 
-import java.net.InetSocketAddress;
-import java.net.Proxy;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
 
 /**
  * GitHubClient interface.
@@ -46,32 +40,9 @@ import java.util.concurrent.TimeUnit;
  */
 public interface GitHubClient<T extends AbstractGitHubSchema<? extends AbstractGitHubConfiguration>> {
 
-    default OkHttpClient createClient(AbstractGitHubConfiguration configuration) {
-        OkHttpClient.Builder okHttpBuilder = new OkHttpClient.Builder();
-        okHttpBuilder.connectTimeout(configuration.getConnectionTimeoutInMilliseconds(), TimeUnit.MILLISECONDS);
-        okHttpBuilder.readTimeout(configuration.getReadTimeoutInMilliseconds(), TimeUnit.MILLISECONDS);
-        okHttpBuilder.writeTimeout(configuration.getWriteTimeoutInMilliseconds(), TimeUnit.MILLISECONDS);
-
-        // Setup http proxy aware httpClient
-        if (StringUtil.isNotEmpty(configuration.getHttpProxyHost())) {
-            okHttpBuilder.proxy(new Proxy(Proxy.Type.HTTP,
-                    new InetSocketAddress(configuration.getHttpProxyHost(), configuration.getHttpProxyPort())));
-
-            if (StringUtil.isNotEmpty(configuration.getHttpProxyUser()) && configuration.getHttpProxyPassword() != null) {
-                configuration.getHttpProxyPassword().access(c -> {
-                    okHttpBuilder.proxyAuthenticator((Route route, Response response) -> {
-                        String credential = Credentials.basic(configuration.getHttpProxyUser(), String.valueOf(c));
-                        return response.request().newBuilder()
-                                .header("Proxy-Authorization", credential)
-                                .build();
-                    });
-                });
-            }
-        }
-
-        OkHttpClient httpClient = okHttpBuilder.build();
-
-        return httpClient;
+    default GitHubHttpClientRegistry.Lease acquireHttpClient(AbstractGitHubConfiguration configuration) {
+        // Share the HTTP client (and its connection pool) with other connector instances
+        return GitHubHttpClientRegistry.acquire(configuration);
     }
 
     void setInstanceName(String instanceName);
@@ -130,6 +101,13 @@ public interface GitHubClient<T extends AbstractGitHubSchema<? extends AbstractG
         throw new UnsupportedOperationException();
     }
 
+    default void updateTeamMemberships(String login, Collection<String> removeTeams, Collection<String> addTeams,
+                                       Collection<String> addMaintainerTeams) {
+        unassignTeams(login, removeTeams);
+        assignTeams(login, "member", addTeams);
+        assignTeams(login, "maintainer", addMaintainerTeams);
+    }
+
     default Uid createTeam(T schema, String teamName, String description, String privacy, Long parentTeamDatabaseId) throws AlreadyExistsException {
         throw new UnsupportedOperationException();
     }
@@ -154,6 +132,20 @@ public interface GitHubClient<T extends AbstractGitHubSchema<? extends AbstractG
         throw new UnsupportedOperationException();
     }
 
+    // Live Synchronization
+
+    default SyncToken getLatestAuditLogSyncToken() {
+        throw new UnsupportedOperationException();
+    }
+
+    default void syncUsers(T schema, SyncToken token, SyncResultsHandler handler, OperationOptions options, Set<String> attributesToGet, boolean allowPartialAttributeValues, int queryPageSize) {
+        throw new UnsupportedOperationException();
+    }
+
+    default void syncTeams(T schema, SyncToken token, SyncResultsHandler handler, OperationOptions options, Set<String> attributesToGet, boolean allowPartialAttributeValues, int queryPageSize) {
+        throw new UnsupportedOperationException();
+    }
+
     // EMU User
 
     default Uid createEMUUser(SCIMEMUUser user) throws AlreadyExistsException {
@@ -172,6 +164,14 @@ public interface GitHubClient<T extends AbstractGitHubSchema<? extends AbstractG
         throw new UnsupportedOperationException();
     }
 
+    default int getEMUUsers(String scimAttributePath, String scimAttributeValue, QueryHandler<SCIMEMUUser> handler, Set<String> fetchFieldsSet, int pageSize, int pageOffset) {
+        throw new UnsupportedOperationException();
+    }
+
+    default int getEMUUsersModifiedSince(String lastModified, QueryHandler<SCIMEMUUser> handler, int pageSize) {
+        throw new UnsupportedOperationException();
+    }
+
     default SCIMEMUUser getEMUUser(Uid uid, OperationOptions options, Set<String> attributesToGet) {
         throw new UnsupportedOperationException();
     }
@@ -198,6 +198,14 @@ public interface GitHubClient<T extends AbstractGitHubSchema<? extends AbstractG
         throw new UnsupportedOperationException();
     }
 
+    default int getEMUGroups(String scimAttributePath, String scimAttributeValue, QueryHandler<SCIMEMUGroup> handler, Set<String> fetchFieldsSet, int pageSize, int pageOffset) {
+        throw new UnsupportedOperationException();
+    }
+
+    default int getEMUGroupsModifiedSince(String lastModified, QueryHandler<SCIMEMUGroup> handler, int pageSize) {
+        throw new UnsupportedOperationException();
+    }
+
     default SCIMEMUGroup getEMUGroup(Uid uid, OperationOptions options, Set<String> attributesToGet) {
         throw new UnsupportedOperationException();
     }
@@ -29,6 +29,12 @@ public class GitHubConfiguration extends AbstractGitHubConfiguration {
     private String appId;
     private long installationId;
     private String organizationName;
+    private int graphQLReadAheadPages = 0;
+    private boolean adaptiveQueryPageSize = false;
+    private int teamLookupBatchSize = 1;
+    private boolean teamMembershipIndex = false;
+    private int teamMembershipConcurrency = 1;
+    private int teamDirectoryCacheTTLSeconds = 0;
 
     @ConfigurationProperty(
             order = 1,
@@ -86,6 +92,90 @@ public class GitHubConfiguration extends AbstractGitHubConfiguration {
         this.organizationName = organizationName;
     }
 
+    @ConfigurationProperty(
+            order = 13,
+            displayMessageKey = "GraphQL Read-ahead Pages",
+            helpMessageKey = "Set the max number of GraphQL pages fetched in background while processing the current page when listing all users. 0 means no read-ahead (Default: 0)",
+            required = false,
+            confidential = false)
+    public int getGraphQLReadAheadPages() {
+        return graphQLReadAheadPages;
+    }
+
+    public void setGraphQLReadAheadPages(int graphQLReadAheadPages) {
+        this.graphQLReadAheadPages = graphQLReadAheadPages;
+    }
+
+    @ConfigurationProperty(
+            order = 14,
+            displayMessageKey = "Adaptive Query Page Size",
+            helpMessageKey = "If true, adapt the page size of GraphQL queries between 1 and 100 by the observed cost and response time. The default query page size is used for the first page (Default: false)",
+            required = false,
+            confidential = false)
+    public boolean isAdaptiveQueryPageSize() {
+        return adaptiveQueryPageSize;
+    }
+
+    public void setAdaptiveQueryPageSize(boolean adaptiveQueryPageSize) {
+        this.adaptiveQueryPageSize = adaptiveQueryPageSize;
+    }
+
+    @ConfigurationProperty(
+            order = 15,
+            displayMessageKey = "Team Lookup Batch Size",
+            helpMessageKey = "Set the number of users whose teams are fetched in one GraphQL request when listing all users with teams. 1 or less means fetching them per user (Default: 1)",
+            required = false,
+            confidential = false)
+    public int getTeamLookupBatchSize() {
+        return teamLookupBatchSize;
+    }
+
+    public void setTeamLookupBatchSize(int teamLookupBatchSize) {
+        this.teamLookupBatchSize = teamLookupBatchSize;
+    }
+
+    @ConfigurationProperty(
+            order = 16,
+            displayMessageKey = "Team Membership Index",
+            helpMessageKey = "If true, fetch the memberships of all teams once when listing all users with teams, instead of fetching teams per user. It's efficient when most users are returned (Default: false)",
+            required = false,
+            confidential = false)
+    public boolean isTeamMembershipIndex() {
+        return teamMembershipIndex;
+    }
+
+    public void setTeamMembershipIndex(boolean teamMembershipIndex) {
+        this.teamMembershipIndex = teamMembershipIndex;
+    }
+
+    @ConfigurationProperty(
+            order = 17,
+            displayMessageKey = "Team Membership Concurrency",
+            helpMessageKey = "Set the max number of team memberships of a user added/removed concurrently when updating or deleting the user. GitHub may apply the secondary rate limit to many concurrent requests (Default: 1, Max: 10)",
+            required = false,
+            confidential = false)
+    public int getTeamMembershipConcurrency() {
+        return teamMembershipConcurrency;
+    }
+
+    public void setTeamMembershipConcurrency(int teamMembershipConcurrency) {
+        this.teamMembershipConcurrency = teamMembershipConcurrency;
+    }
+
+    @ConfigurationProperty(
+            order = 18,
+            displayMessageKey = "Team Directory Cache TTL",
+            helpMessageKey = "Set the time to live in seconds of the in-memory directory of all teams. If set, the teams are looked up by Uid and name from the directory, and the teams created/deleted by others may not be seen until it expires. 0 means no cache (Default: 0)",
+            required = false,
+            confidential = false)
+    public int getTeamDirectoryCacheTTLSeconds() {
+        return teamDirectoryCacheTTLSeconds;
+    }
+
+    public void setTeamDirectoryCacheTTLSeconds(int teamDirectoryCacheTTLSeconds) {
+        this.teamDirectoryCacheTTLSeconds = teamDirectoryCacheTTLSeconds;
+    }
+
     @Override
     public void validate() {
     }
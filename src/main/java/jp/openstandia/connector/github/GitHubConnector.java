@@ -16,10 +16,20 @@
 package jp.openstandia.connector.github;
 
 import jp.openstandia.connector.github.rest.GitHubRESTClient;
+import jp.openstandia.connector.util.ObjectHandler;
+import jp.openstandia.connector.util.Utils;
 import org.identityconnectors.common.logging.Log;
 import org.identityconnectors.framework.common.exceptions.InvalidAttributeValueException;
+import org.identityconnectors.framework.common.objects.AttributeInfo;
 import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.framework.common.objects.OperationOptions;
+import org.identityconnectors.framework.common.objects.SyncResultsHandler;
+import org.identityconnectors.framework.common.objects.SyncToken;
 import org.identityconnectors.framework.spi.ConnectorClass;
+import org.identityconnectors.framework.spi.operations.SyncOp;
+
+import java.util.Map;
+import java.util.Set;
 
 import static jp.openstandia.connector.github.GitHubTeamHandler.TEAM_OBJECT_CLASS;
 import static jp.openstandia.connector.github.GitHubUserHandler.USER_OBJECT_CLASS;
@@ -30,7 +40,7 @@ import static jp.openstandia.connector.github.GitHubUserHandler.USER_OBJECT_CLAS
  * @author Hiroyuki Wada
  */
 @ConnectorClass(configurationClass = GitHubConfiguration.class, displayNameKey = "NRI OpenStandia GitHub Connector")
-public class GitHubConnector extends AbstractGitHubConnector<GitHubConfiguration, GitHubSchema> {
+public class GitHubConnector extends AbstractGitHubConnector<GitHubConfiguration, GitHubSchema> implements SyncOp {
 
     private static final Log LOG = Log.getLog(GitHubConnector.class);
 
@@ -43,4 +53,42 @@ public class GitHubConnector extends AbstractGitHubConnector<GitHubConfiguration
     protected GitHubSchema newGitHubSchema(GitHubConfiguration configuration, GitHubClient client) {
         return new GitHubSchema(configuration, client);
     }
+
+    @Override
+    public void sync(ObjectClass objectClass, SyncToken token, SyncResultsHandler handler, OperationOptions options) {
+        try {
+            ObjectHandler schemaHandler = getSchemaHandler(objectClass);
+
+            int pageSize = Utils.resolvePageSize(options, configuration.getQueryPageSize());
+
+            // Create full attributesToGet by RETURN_DEFAULT_ATTRIBUTES + ATTRIBUTES_TO_GET
+            // The attributes of GitHub objects are fetched by their names
+            Set<String> attributesToGet = GitHubUtils.createFullAttributesToGet(getAttributeInfo(objectClass), options);
+
+            boolean allowPartialAttributeValues = Utils.shouldAllowPartialAttributeValues(options);
+
+            schemaHandler.sync(token, handler, options, attributesToGet, attributesToGet,
+                    allowPartialAttributeValues, pageSize);
+
+        } catch (RuntimeException e) {
+            throw processRuntimeException(e);
+        }
+    }
+
+    private Map<String, AttributeInfo> getAttributeInfo(ObjectClass objectClass) {
+        if (objectClass.equals(TEAM_OBJECT_CLASS)) {
+            return schema.roleSchema;
+        }
+        return schema.userSchema;
+    }
+
+    @Override
+    public SyncToken getLatestSyncToken(ObjectClass objectClass) {
+        try {
+            return getSchemaHandler(objectClass).getLatestSyncToken(configuration.getQueryPageSize());
+
+        } catch (RuntimeException e) {
+            throw processRuntimeException(e);
+        }
+    }
 }
@@ -29,6 +29,15 @@ public class GitHubEMUConfiguration extends AbstractGitHubConfiguration {
     private String enterpriseSlug;
     private GuardedString accessToken;
     private String endpointURL;
+    private int scimPageFetchConcurrency = 1;
+    private boolean scimLastModifiedFilter = false;
+    private String snapshotDirectory;
+    private boolean scimStreamingParser = false;
+    private int groupMemberPatchChunkSize = 0;
+    private int groupMemberPatchConcurrency = 1;
+    private int groupMemberIndexTTLSeconds = 0;
+    private int scimBulkMaxOperations = 0;
+    private int scimBulkLingerMilliseconds = 20;
 
     @ConfigurationProperty(
             order = 1,
@@ -72,6 +81,132 @@ public class GitHubEMUConfiguration extends AbstractGitHubConfiguration {
         this.endpointURL = endpointURL;
     }
 
+    @ConfigurationProperty(
+            order = 13,
+            displayMessageKey = "SCIM Page Fetch Concurrency",
+            helpMessageKey = "Set the max number of SCIM pages fetched concurrently when listing all users/groups. 1 means serial paging (Default: 1)",
+            required = false,
+            confidential = false)
+    public int getScimPageFetchConcurrency() {
+        return scimPageFetchConcurrency;
+    }
+
+    public void setScimPageFetchConcurrency(int scimPageFetchConcurrency) {
+        this.scimPageFetchConcurrency = scimPageFetchConcurrency;
+    }
+
+    @ConfigurationProperty(
+            order = 14,
+            displayMessageKey = "SCIM meta.lastModified Filter",
+            helpMessageKey = "If true, live synchronization fetches only the users/groups modified since the last sync by \"meta.lastModified ge\" filter. If GitHub rejects the filter, it fetches all of them (Default: false)",
+            required = false,
+            confidential = false)
+    public boolean isScimLastModifiedFilter() {
+        return scimLastModifiedFilter;
+    }
+
+    public void setScimLastModifiedFilter(boolean scimLastModifiedFilter) {
+        this.scimLastModifiedFilter = scimLastModifiedFilter;
+    }
+
+    @ConfigurationProperty(
+            order = 15,
+            displayMessageKey = "Snapshot Directory",
+            helpMessageKey = "Set the directory to persist the snapshots of users/groups for live synchronization. If not set, the snapshots are kept in memory and deleted users/groups can't be detected after restarting the connector server",
+            required = false,
+            confidential = false)
+    public String getSnapshotDirectory() {
+        return snapshotDirectory;
+    }
+
+    public void setSnapshotDirectory(String snapshotDirectory) {
+        this.snapshotDirectory = snapshotDirectory;
+    }
+
+    @ConfigurationProperty(
+            order = 16,
+            displayMessageKey = "SCIM Streaming Parser",
+            helpMessageKey = "If true, parse the SCIM list responses with the streaming parser and pass each user/group as soon as it's parsed, which reduces the memory for large groups. SCIM Page Fetch Concurrency is ignored when listing all users/groups (Default: false)",
+            required = false,
+            confidential = false)
+    public boolean isScimStreamingParser() {
+        return scimStreamingParser;
+    }
+
+    public void setScimStreamingParser(boolean scimStreamingParser) {
+        this.scimStreamingParser = scimStreamingParser;
+    }
+
+    @ConfigurationProperty(
+            order = 17,
+            displayMessageKey = "Group Member Patch Chunk Size",
+            helpMessageKey = "Set the max number of members added/removed by one PATCH request when updating a group. The large changes are split into multiple requests and each request is retried independently. 0 means no splitting (Default: 0)",
+            required = false,
+            confidential = false)
+    public int getGroupMemberPatchChunkSize() {
+        return groupMemberPatchChunkSize;
+    }
+
+    public void setGroupMemberPatchChunkSize(int groupMemberPatchChunkSize) {
+        this.groupMemberPatchChunkSize = groupMemberPatchChunkSize;
+    }
+
+    @ConfigurationProperty(
+            order = 18,
+            displayMessageKey = "Group Member Patch Concurrency",
+            helpMessageKey = "Set the max number of the split PATCH requests sent concurrently when updating a group (Default: 1)",
+            required = false,
+            confidential = false)
+    public int getGroupMemberPatchConcurrency() {
+        return groupMemberPatchConcurrency;
+    }
+
+    public void setGroupMemberPatchConcurrency(int groupMemberPatchConcurrency) {
+        this.groupMemberPatchConcurrency = groupMemberPatchConcurrency;
+    }
+
+    @ConfigurationProperty(
+            order = 19,
+            displayMessageKey = "Group Member Index TTL",
+            helpMessageKey = "Set the time to live in seconds of the in-memory index from members to groups which is used when searching groups by members. The groups which members are added to by others may not be found until it expires. 0 means no index (Default: 0)",
+            required = false,
+            confidential = false)
+    public int getGroupMemberIndexTTLSeconds() {
+        return groupMemberIndexTTLSeconds;
+    }
+
+    public void setGroupMemberIndexTTLSeconds(int groupMemberIndexTTLSeconds) {
+        this.groupMemberIndexTTLSeconds = groupMemberIndexTTLSeconds;
+    }
+
+    @ConfigurationProperty(
+            order = 20,
+            displayMessageKey = "SCIM Bulk Max Operations",
+            helpMessageKey = "Set the max number of user creations, updates and deletions sent concurrently by multiple threads which are combined into one SCIM bulk request. It's used only if GitHub reports the bulk support, otherwise each operation is sent by itself. 1 or less means no bulk request (Default: 0)",
+            required = false,
+            confidential = false)
+    public int getScimBulkMaxOperations() {
+        return scimBulkMaxOperations;
+    }
+
+    public void setScimBulkMaxOperations(int scimBulkMaxOperations) {
+        this.scimBulkMaxOperations = scimBulkMaxOperations;
+    }
+
+    @ConfigurationProperty(
+            order = 21,
+            displayMessageKey = "SCIM Bulk Linger",
+            helpMessageKey = "Set the time in milliseconds to wait for other operations before sending a SCIM bulk request (Default: 20)",
+            required = false,
+            confidential = false)
+    public int getScimBulkLingerMilliseconds() {
+        return scimBulkLingerMilliseconds;
+    }
+
+    public void setScimBulkLingerMilliseconds(int scimBulkLingerMilliseconds) {
+        this.scimBulkLingerMilliseconds = scimBulkLingerMilliseconds;
+    }
+
     @Override
     public void validate() {
     }
@@ -16,10 +16,20 @@
 package jp.openstandia.connector.github;
 
 import jp.openstandia.connector.github.rest.GitHubEMURESTClient;
+import jp.openstandia.connector.util.ObjectHandler;
+import jp.openstandia.connector.util.SchemaDefinition;
+import jp.openstandia.connector.util.Utils;
 import org.identityconnectors.common.logging.Log;
 import org.identityconnectors.framework.common.exceptions.InvalidAttributeValueException;
 import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.framework.common.objects.OperationOptions;
+import org.identityconnectors.framework.common.objects.SyncResultsHandler;
+import org.identityconnectors.framework.common.objects.SyncToken;
 import org.identityconnectors.framework.spi.ConnectorClass;
+import org.identityconnectors.framework.spi.operations.SyncOp;
+
+import java.util.HashSet;
+import java.util.Map;
 
 import static jp.openstandia.connector.github.GitHubEMUGroupHandler.GROUP_OBJECT_CLASS;
 import static jp.openstandia.connector.github.GitHubUserHandler.USER_OBJECT_CLASS;
@@ -30,7 +40,7 @@ import static jp.openstandia.connector.github.GitHubUserHandler.USER_OBJECT_CLAS
  * @author Hiroyuki Wada
  */
 @ConnectorClass(configurationClass = GitHubEMUConfiguration.class, displayNameKey = "NRI OpenStandia GitHub EMU Connector")
-public class GitHubEMUConnector extends AbstractGitHubConnector<GitHubEMUConfiguration, GitHubEMUSchema> {
+public class GitHubEMUConnector extends AbstractGitHubConnector<GitHubEMUConfiguration, GitHubEMUSchema> implements SyncOp {
 
     private static final Log LOG = Log.getLog(GitHubEMUConnector.class);
 
@@ -43,4 +53,35 @@ public class GitHubEMUConnector extends AbstractGitHubConnector<GitHubEMUConfigu
     protected GitHubEMUSchema newGitHubSchema(GitHubEMUConfiguration configuration, GitHubClient<GitHubEMUSchema> client) {
         return new GitHubEMUSchema(configuration, client);
     }
+
+    @Override
+    public void sync(ObjectClass objectClass, SyncToken token, SyncResultsHandler handler, OperationOptions options) {
+        try {
+            ObjectHandler schemaHandler = getSchemaHandler(objectClass);
+            SchemaDefinition schema = schemaHandler.getSchemaDefinition();
+
+            int pageSize = Utils.resolvePageSize(options, configuration.getQueryPageSize());
+
+            // Create full attributesToGet by RETURN_DEFAULT_ATTRIBUTES + ATTRIBUTES_TO_GET
+            Map<String, String> attributesToGet = Utils.createFullAttributesToGet(schema, options);
+
+            boolean allowPartialAttributeValues = Utils.shouldAllowPartialAttributeValues(options);
+
+            schemaHandler.sync(token, handler, options, attributesToGet.keySet(), new HashSet<>(attributesToGet.values()),
+                    allowPartialAttributeValues, pageSize);
+
+        } catch (RuntimeException e) {
+            throw processRuntimeException(e);
+        }
+    }
+
+    @Override
+    public SyncToken getLatestSyncToken(ObjectClass objectClass) {
+        try {
+            return getSchemaHandler(objectClass).getLatestSyncToken(configuration.getQueryPageSize());
+
+        } catch (RuntimeException e) {
+            throw processRuntimeException(e);
+        }
+    }
 }
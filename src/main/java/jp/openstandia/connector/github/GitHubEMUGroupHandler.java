@@ -17,13 +17,20 @@ package jp.openstandia.connector.github;
 
 import jp.openstandia.connector.util.SchemaDefinition;
 import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.common.exceptions.InvalidAttributeValueException;
 import org.identityconnectors.framework.common.objects.*;
 import org.kohsuke.github.SCIMEMUGroup;
 import org.kohsuke.github.SCIMMember;
 import org.kohsuke.github.SCIMPatchOperations;
 
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -41,6 +48,12 @@ public class GitHubEMUGroupHandler extends AbstractGitHubEMUHandler {
 
     private static final Log LOGGER = Log.getLog(GitHubEMUGroupHandler.class);
 
+    // Snapshot key (per enterprise) => index
+    private static final ConcurrentMap<String, GroupMemberIndex> GROUP_MEMBER_INDEXES = new ConcurrentHashMap<>();
+    // Snapshot key (per enterprise) => index which is being built
+    private static final ConcurrentMap<String, GroupMemberIndex> BUILDING_GROUP_MEMBER_INDEXES = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Object> GROUP_MEMBER_INDEX_LOCKS = new ConcurrentHashMap<>();
+
     public GitHubEMUGroupHandler(GitHubEMUConfiguration configuration, GitHubClient<GitHubEMUSchema> client,
                                  GitHubEMUSchema schema, SchemaDefinition schemaDefinition) {
         super(configuration, client, schema, schemaDefinition);
@@ -129,6 +142,13 @@ public class GitHubEMUGroupHandler extends AbstractGitHubEMUHandler {
 
         Uid created = client.createEMUGroup(schema, mapped);
 
+        List<String> userIds = mapped.members != null ?
+                mapped.members.stream().map(m -> m.value).collect(Collectors.toList()) : Collections.emptyList();
+        updateGroupMemberIndex(index -> {
+            index.put(created.getUidValue(), mapped.displayName, mapped.externalId, null, userIds);
+            return true;
+        });
+
         return created;
     }
 
@@ -139,7 +159,14 @@ public class GitHubEMUGroupHandler extends AbstractGitHubEMUHandler {
         schemaDefinition.applyDelta(modifications, dest);
 
         if (dest.hasAttributesChange()) {
-            client.patchEMUGroup(uid, dest);
+            try {
+                client.patchEMUGroup(uid, dest);
+            } catch (RuntimeException e) {
+                // The operations may be applied partially
+                invalidateGroupMemberIndex();
+                throw e;
+            }
+            updateGroupMemberIndex(index -> index.apply(uid.getUidValue(), dest));
         }
 
         return null;
@@ -148,6 +175,10 @@ public class GitHubEMUGroupHandler extends AbstractGitHubEMUHandler {
     @Override
     public void delete(Uid uid, OperationOptions options) {
         client.deleteEMUGroup(uid, options);
+        updateGroupMemberIndex(index -> {
+            index.remove(uid.getUidValue());
+            return true;
+        });
     }
 
     @Override
@@ -184,22 +215,163 @@ public class GitHubEMUGroupHandler extends AbstractGitHubEMUHandler {
                 options, fetchFieldsSet, pageSize, pageOffset);
     }
 
+    @Override
+    public int getBySCIMFilter(String scimAttributePath, String scimAttributeValue, ResultsHandler resultsHandler, OperationOptions options,
+                               Set<String> returnAttributesSet, Set<String> fetchFieldsSet,
+                               boolean allowPartialAttributeValues, int pageSize, int pageOffset) {
+        try {
+            return client.getEMUGroups(scimAttributePath, scimAttributeValue, (g) -> resultsHandler.handle(toConnectorObject(schemaDefinition, g, returnAttributesSet, allowPartialAttributeValues)),
+                    fetchFieldsSet, pageSize, pageOffset);
+        } catch (InvalidAttributeValueException e) {
+            // The framework filters the result again, so fetching all is still correct.
+            LOGGER.warn("[{0}] GitHub rejected the SCIM filter by {1}, falling back to listing all: {2}", instanceName, scimAttributePath, e.getMessage());
+            return getAll(resultsHandler, options, returnAttributesSet, fetchFieldsSet, allowPartialAttributeValues, pageSize, pageOffset);
+        }
+    }
+
     @Override
     public int getByMembers(Attribute attribute, ResultsHandler resultsHandler, OperationOptions options, Set<String> returnAttributesSet, Set<String> fetchFieldSet, boolean allowPartialAttributeValues, int pageSize, int pageOffset) {
+        Set<Object> memberIds = new HashSet<>(attribute.getValue());
+        // The members are needed for filtering even if they aren't returned
+        Set<String> fetchFieldSetWithMembers = new HashSet<>(fetchFieldSet);
+        fetchFieldSetWithMembers.add("members.User.value");
+
+        GroupMemberIndex index = getGroupMemberIndex(pageSize);
+        if (index != null) {
+            return getByMembers(index, memberIds, resultsHandler, returnAttributesSet, allowPartialAttributeValues, pageSize, pageOffset);
+        }
+
         // Unfortunately, GitHub EMU doesn't support filter by members.value (It supports displayName, id and displayName filter).
         // So, we need to fetch all groups.
-        Set<Object> memberIds = new HashSet<>(attribute.getValue());
         return client.getEMUGroups((g) -> {
             // Filter by member's value
-            boolean contains = g.members.stream()
-                    .map(m -> m.value)
-                    .collect(Collectors.toSet())
-                    .containsAll(memberIds);
-            if (contains) {
+            if (containsAll(g, memberIds)) {
                 return resultsHandler.handle(toConnectorObject(schemaDefinition, g, returnAttributesSet, allowPartialAttributeValues));
             }
 
             return true;
-        }, options, fetchFieldSet, pageSize, pageOffset);
+        }, options, fetchFieldSetWithMembers, pageSize, pageOffset);
+    }
+
+    private int getByMembers(GroupMemberIndex index, Set<Object> memberIds, ResultsHandler resultsHandler,
+                             Set<String> returnAttributesSet, boolean allowPartialAttributeValues,
+                             int pageSize, int pageOffset) {
+        // The index has the groups of the last enumeration with the changes by the connector within the TTL
+        List<SCIMEMUGroup> groups = index.findGroups(memberIds);
+        int total = groups.size();
+
+        // 0 means no offset (requested all data)
+        if (pageOffset > 0) {
+            int from = Math.min(pageOffset - 1, groups.size());
+            groups = groups.subList(from, Math.min(from + pageSize, groups.size()));
+        }
+
+        for (SCIMEMUGroup group : groups) {
+            if (!resultsHandler.handle(toConnectorObject(schemaDefinition, group, returnAttributesSet, allowPartialAttributeValues))) {
+                break;
+            }
+        }
+
+        return total;
+    }
+
+    private static boolean containsAll(SCIMEMUGroup group, Set<Object> memberIds) {
+        if (group.members == null) {
+            return memberIds.isEmpty();
+        }
+        return group.members.stream()
+                .map(m -> m.value)
+                .filter(memberIds::contains)
+                .distinct()
+                .count() == memberIds.size();
+    }
+
+    private GroupMemberIndex getGroupMemberIndex(int pageSize) {
+        if (configuration.getGroupMemberIndexTTLSeconds() <= 0) {
+            return null;
+        }
+
+        String key = getSnapshotKey(GROUP_OBJECT_CLASS);
+        GroupMemberIndex index = GROUP_MEMBER_INDEXES.get(key);
+        if (index != null && !index.isExpired(System.currentTimeMillis())) {
+            return index;
+        }
+
+        // Build the index once per enterprise, the others wait for it
+        synchronized (GROUP_MEMBER_INDEX_LOCKS.computeIfAbsent(key, k -> new Object())) {
+            index = GROUP_MEMBER_INDEXES.get(key);
+            if (index == null || index.isExpired(System.currentTimeMillis())) {
+                long start = System.currentTimeMillis();
+
+                GroupMemberIndex newIndex = new GroupMemberIndex(TimeUnit.SECONDS.toMillis(configuration.getGroupMemberIndexTTLSeconds()), start);
+                // Receive the changes by the connector while enumerating
+                BUILDING_GROUP_MEMBER_INDEXES.put(key, newIndex);
+                try {
+                    client.getEMUGroups((g) -> {
+                        newIndex.add(g);
+                        return true;
+                    }, null, null, pageSize, 0);
+                    newIndex.trim();
+                } catch (RuntimeException e) {
+                    BUILDING_GROUP_MEMBER_INDEXES.remove(key, newIndex);
+                    throw e;
+                }
+
+                // Publish it before unregistering, so no change is lost in between
+                GROUP_MEMBER_INDEXES.put(key, newIndex);
+                if (!BUILDING_GROUP_MEMBER_INDEXES.remove(key, newIndex)) {
+                    // Invalidated while building
+                    GROUP_MEMBER_INDEXES.remove(key, newIndex);
+                    return null;
+                }
+                index = newIndex;
+
+                LOGGER.ok("[{0}] Built the group member index with {1} groups in {2} ms",
+                        instanceName, index.size(), System.currentTimeMillis() - start);
+            }
+        }
+        return index;
+    }
+
+    private void updateGroupMemberIndex(Predicate<GroupMemberIndex> update) {
+        String key = getSnapshotKey(GROUP_OBJECT_CLASS);
+        for (GroupMemberIndex index : new GroupMemberIndex[]{GROUP_MEMBER_INDEXES.get(key), BUILDING_GROUP_MEMBER_INDEXES.get(key)}) {
+            if (index != null && !update.test(index)) {
+                LOGGER.ok("[{0}] Discarded the group member index because the change isn't supported by it", instanceName);
+                invalidateGroupMemberIndex();
+                return;
+            }
+        }
+    }
+
+    private void invalidateGroupMemberIndex() {
+        String key = getSnapshotKey(GROUP_OBJECT_CLASS);
+        GROUP_MEMBER_INDEXES.remove(key);
+        // The index being built isn't published
+        BUILDING_GROUP_MEMBER_INDEXES.remove(key);
+    }
+
+    @Override
+    public void sync(SyncToken token, SyncResultsHandler resultsHandler, OperationOptions options,
+                     Set<String> returnAttributesSet, Set<String> fetchFieldsSet,
+                     boolean allowPartialAttributeValues, int pageSize) {
+        newSyncProcessor(pageSize).sync(token, resultsHandler,
+                (g) -> toConnectorObject(schemaDefinition, g, returnAttributesSet, allowPartialAttributeValues));
+    }
+
+    @Override
+    public SyncToken getLatestSyncToken(int pageSize) {
+        return newSyncProcessor(pageSize).getLatestSyncToken();
+    }
+
+    private SCIMSyncProcessor<SCIMEMUGroup> newSyncProcessor(int pageSize) {
+        return new SCIMSyncProcessor<SCIMEMUGroup>(GROUP_OBJECT_CLASS, getSnapshotKey(GROUP_OBJECT_CLASS), getSnapshotStore(),
+                (g) -> g.id,
+                (g) -> g.meta != null ? g.meta.lastModified : null,
+                (h) -> client.getEMUGroups(h, null, null, pageSize, 0),
+                configuration.isScimLastModifiedFilter() ? (since, h) -> client.getEMUGroupsModifiedSince(since, h, pageSize) : null,
+                // Fetch only one object to get the total count
+                () -> client.getEMUGroups((g) -> false, null, Collections.emptySet(), 1, 1))
+                .setInstanceName(instanceName);
     }
 }
@@ -19,6 +19,7 @@ import org.identityconnectors.framework.common.objects.OperationOptionInfoBuilde
 import org.identityconnectors.framework.common.objects.Schema;
 import org.identityconnectors.framework.common.objects.SchemaBuilder;
 import org.identityconnectors.framework.spi.operations.SearchOp;
+import org.identityconnectors.framework.spi.operations.SyncOp;
 
 /**
  * Schema for GitHub objects.
@@ -32,7 +33,7 @@ public class GitHubEMUSchema extends AbstractGitHubSchema<GitHubEMUConfiguration
     public GitHubEMUSchema(GitHubEMUConfiguration configuration, GitHubClient<GitHubEMUSchema> client) {
         super(configuration, client);
 
-        SchemaBuilder schemaBuilder = new SchemaBuilder(GitHubConnector.class);
+        SchemaBuilder schemaBuilder = new SchemaBuilder(GitHubEMUConnector.class);
 
         buildSchema(schemaBuilder, GitHubEMUUserHandler.createSchema(configuration, client).build(),
                 (schema) -> new GitHubEMUUserHandler(configuration, client, this, schema));
@@ -40,8 +41,8 @@ public class GitHubEMUSchema extends AbstractGitHubSchema<GitHubEMUConfiguration
                 (schema) -> new GitHubEMUGroupHandler(configuration, client, this, schema));
 
         // Define operation options
-        schemaBuilder.defineOperationOption(OperationOptionInfoBuilder.buildAttributesToGet(), SearchOp.class);
-        schemaBuilder.defineOperationOption(OperationOptionInfoBuilder.buildReturnDefaultAttributes(), SearchOp.class);
+        schemaBuilder.defineOperationOption(OperationOptionInfoBuilder.buildAttributesToGet(), SearchOp.class, SyncOp.class);
+        schemaBuilder.defineOperationOption(OperationOptionInfoBuilder.buildReturnDefaultAttributes(), SearchOp.class, SyncOp.class);
         schemaBuilder.defineOperationOption(OperationOptionInfoBuilder.buildPageSize(), SearchOp.class);
         schemaBuilder.defineOperationOption(OperationOptionInfoBuilder.buildPagedResultsOffset(), SearchOp.class);
 
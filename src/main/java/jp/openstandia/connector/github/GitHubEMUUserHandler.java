@@ -17,10 +17,12 @@ package jp.openstandia.connector.github;
 
 import jp.openstandia.connector.util.SchemaDefinition;
 import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.common.exceptions.InvalidAttributeValueException;
 import org.identityconnectors.framework.common.objects.*;
 import org.kohsuke.github.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -288,4 +290,42 @@ public class GitHubEMUUserHandler extends AbstractGitHubEMUHandler {
         return client.getEMUUsers((u) -> resultsHandler.handle(toConnectorObject(schemaDefinition, u, returnAttributesSet, allowPartialAttributeValues)),
                 options, fetchFieldsSet, pageSize, pageOffset);
     }
+
+    @Override
+    public int getBySCIMFilter(String scimAttributePath, String scimAttributeValue, ResultsHandler resultsHandler, OperationOptions options,
+                               Set<String> returnAttributesSet, Set<String> fetchFieldsSet,
+                               boolean allowPartialAttributeValues, int pageSize, int pageOffset) {
+        try {
+            return client.getEMUUsers(scimAttributePath, scimAttributeValue, (u) -> resultsHandler.handle(toConnectorObject(schemaDefinition, u, returnAttributesSet, allowPartialAttributeValues)),
+                    fetchFieldsSet, pageSize, pageOffset);
+        } catch (InvalidAttributeValueException e) {
+            // The framework filters the result again, so fetching all is still correct.
+            LOGGER.warn("[{0}] GitHub rejected the SCIM filter by {1}, falling back to listing all: {2}", instanceName, scimAttributePath, e.getMessage());
+            return getAll(resultsHandler, options, returnAttributesSet, fetchFieldsSet, allowPartialAttributeValues, pageSize, pageOffset);
+        }
+    }
+
+    @Override
+    public void sync(SyncToken token, SyncResultsHandler resultsHandler, OperationOptions options,
+                     Set<String> returnAttributesSet, Set<String> fetchFieldsSet,
+                     boolean allowPartialAttributeValues, int pageSize) {
+        newSyncProcessor(pageSize).sync(token, resultsHandler,
+                (u) -> toConnectorObject(schemaDefinition, u, returnAttributesSet, allowPartialAttributeValues));
+    }
+
+    @Override
+    public SyncToken getLatestSyncToken(int pageSize) {
+        return newSyncProcessor(pageSize).getLatestSyncToken();
+    }
+
+    private SCIMSyncProcessor<SCIMEMUUser> newSyncProcessor(int pageSize) {
+        return new SCIMSyncProcessor<SCIMEMUUser>(USER_OBJECT_CLASS, getSnapshotKey(USER_OBJECT_CLASS), getSnapshotStore(),
+                (u) -> u.id,
+                (u) -> u.meta != null ? u.meta.lastModified : null,
+                (h) -> client.getEMUUsers(h, null, null, pageSize, 0),
+                configuration.isScimLastModifiedFilter() ? (since, h) -> client.getEMUUsersModifiedSince(since, h, pageSize) : null,
+                // Fetch only one object to get the total count
+                () -> client.getEMUUsers((u) -> false, null, Collections.emptySet(), 1, 1))
+                .setInstanceName(instanceName);
+    }
 }
@@ -30,6 +30,9 @@ public class GitHubFilter {
     public final FilterType filterType;
     public final String attributeName;
     public final Attribute attributeValue;
+    // SCIM attribute path and value of the "eq" SCIM filter which is equivalent to this filter
+    public final String scimAttributePath;
+    public final String scimAttributeValue;
 
     private GitHubFilter(Uid uid) {
         this.uid = uid;
@@ -37,6 +40,8 @@ public class GitHubFilter {
         this.filterType = FilterType.EXACT_MATCH;
         this.attributeName = null;
         this.attributeValue = null;
+        this.scimAttributePath = null;
+        this.scimAttributeValue = null;
     }
 
     private GitHubFilter(Name name) {
@@ -45,6 +50,18 @@ public class GitHubFilter {
         this.filterType = FilterType.EXACT_MATCH;
         this.attributeName = null;
         this.attributeValue = null;
+        this.scimAttributePath = null;
+        this.scimAttributeValue = null;
+    }
+
+    private GitHubFilter(String scimAttributePath, String scimAttributeValue) {
+        this.uid = null;
+        this.name = null;
+        this.filterType = FilterType.EXACT_MATCH;
+        this.attributeName = null;
+        this.attributeValue = null;
+        this.scimAttributePath = scimAttributePath;
+        this.scimAttributeValue = scimAttributeValue;
     }
 
     public enum FilterType {
@@ -57,6 +74,8 @@ public class GitHubFilter {
         this.attributeName = attributeName;
         this.filterType = filterType;
         this.attributeValue = attributeValue;
+        this.scimAttributePath = null;
+        this.scimAttributeValue = null;
     }
 
     public static GitHubFilter By(Uid uid) {
@@ -67,6 +86,17 @@ public class GitHubFilter {
         return new GitHubFilter(name);
     }
 
+    /**
+     * Creates the filter which is sent to GitHub as the SCIM filter "path eq value".
+     *
+     * @param scimAttributePath  the SCIM attribute path
+     * @param scimAttributeValue the value
+     * @return the filter
+     */
+    public static GitHubFilter BySCIMFilter(String scimAttributePath, String scimAttributeValue) {
+        return new GitHubFilter(scimAttributePath, scimAttributeValue);
+    }
+
     public static GitHubFilter ByMember(String attributeName, FilterType filterType, Attribute attributeValue) {
         return new GitHubFilter(attributeName, filterType, attributeValue);
     }
@@ -80,6 +110,10 @@ public class GitHubFilter {
     }
 
     public boolean isByMembers() {
-        return attributeName.equals("members.User.value") && filterType == FilterType.EXACT_MATCH;
+        return "members.User.value".equals(attributeName) && filterType == FilterType.EXACT_MATCH;
+    }
+
+    public boolean isBySCIMFilter() {
+        return scimAttributePath != null;
     }
 }
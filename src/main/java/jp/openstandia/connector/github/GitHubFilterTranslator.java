@@ -21,6 +21,10 @@ import org.identityconnectors.framework.common.objects.filter.AbstractFilterTran
 import org.identityconnectors.framework.common.objects.filter.ContainsAllValuesFilter;
 import org.identityconnectors.framework.common.objects.filter.EqualsFilter;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Filter translator for GitHub query.
  * Currently it supports basic query only which is needed for midPoint synchronization.
@@ -31,6 +35,17 @@ public class GitHubFilterTranslator extends AbstractFilterTranslator<GitHubFilte
 
     private static final Log LOG = Log.getLog(GitHubFilterTranslator.class);
 
+    // Attribute name => SCIM attribute path which GitHub EMU supports in "eq" SCIM filter
+    private static final Map<String, String> EMU_USER_SCIM_PATHS = new HashMap<>();
+    private static final Map<String, String> EMU_GROUP_SCIM_PATHS = new HashMap<>();
+
+    static {
+        EMU_USER_SCIM_PATHS.put("externalId", "externalId");
+        EMU_USER_SCIM_PATHS.put("displayName", "displayName");
+
+        EMU_GROUP_SCIM_PATHS.put("externalId", "externalId");
+    }
+
     private final OperationOptions options;
     private final ObjectClass objectClass;
 
@@ -53,7 +68,42 @@ public class GitHubFilterTranslator extends AbstractFilterTranslator<GitHubFilte
             return GitHubFilter.By((Name) attr);
         }
 
-        return null;
+        // GitHub EMU supports only "eq" operator in SCIM filter, so the other filters fetch all
+        return toSCIMFilterExpression(attr);
+    }
+
+    @Override
+    protected GitHubFilter createAndExpression(GitHubFilter leftExpression, GitHubFilter rightExpression) {
+        // The framework filters the results by the whole filter again, so one side is enough.
+        // Prefer the lookup by Uid or Name which is cheaper than the SCIM filter.
+        if (leftExpression.isByUid() || leftExpression.isByName()) {
+            return leftExpression;
+        }
+        if (rightExpression.isByUid() || rightExpression.isByName()) {
+            return rightExpression;
+        }
+        if (leftExpression.isBySCIMFilter()) {
+            return leftExpression;
+        }
+        return rightExpression.isBySCIMFilter() ? rightExpression : null;
+    }
+
+    private GitHubFilter toSCIMFilterExpression(Attribute attr) {
+        Map<String, String> paths;
+        if (objectClass.equals(GitHubEMUUserHandler.USER_OBJECT_CLASS)) {
+            paths = EMU_USER_SCIM_PATHS;
+        } else if (objectClass.equals(GitHubEMUGroupHandler.GROUP_OBJECT_CLASS)) {
+            paths = EMU_GROUP_SCIM_PATHS;
+        } else {
+            return null;
+        }
+
+        String path = paths.get(attr.getName());
+        List<Object> values = attr.getValue();
+        if (path == null || values == null || values.size() != 1 || !(values.get(0) instanceof String)) {
+            return null;
+        }
+        return GitHubFilter.BySCIMFilter(path, (String) values.get(0));
     }
 
     @Override
@@ -0,0 +1,333 @@
+/*
+ *  Copyright Nomura Research Institute, Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package jp.openstandia.connector.github;
+
+import okhttp3.Cache;
+import okhttp3.Credentials;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import okhttp3.Route;
+import org.identityconnectors.common.StringUtil;
+import org.identityconnectors.common.logging.Log;
+import org.kohsuke.github.HttpConnector;
+import org.kohsuke.github.extras.okhttp3.OkHttpConnector;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Process-wide registry of HTTP clients keyed by the HTTP related configuration.
+ * <p>
+ * All connector instances in the ICF pool which have the same timeouts and proxy settings share one {@link OkHttpClient},
+ * so that the connection pool, dispatcher and TLS sessions survive token refreshes and pooled connector checkouts.
+ * The client is reference counted by {@link Lease} and discarded when the last connector instance using it is disposed.
+ * The HTTP cache is shared per directory too, because OkHttp doesn't support multiple caches in the same directory.
+ *
+ * @author Hiroyuki Wada
+ */
+public class GitHubHttpClientRegistry {
+
+    private static final Log LOGGER = Log.getLog(GitHubHttpClientRegistry.class);
+
+    private static final ConcurrentMap<Key, Entry> REGISTRY = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Path, CacheEntry> CACHES = new ConcurrentHashMap<>();
+
+    private GitHubHttpClientRegistry() {
+    }
+
+    /**
+     * Acquires the shared HTTP client for the configuration.
+     * The returned lease must be closed when the connector instance is disposed,
+     * the HTTP client is discarded when no lease refers to it anymore.
+     *
+     * @param configuration connector configuration
+     * @return lease of the shared HTTP client
+     */
+    public static Lease acquire(AbstractGitHubConfiguration configuration) {
+        Key key = new Key(configuration);
+        Entry entry = REGISTRY.compute(key, (k, current) -> {
+            Entry e = current;
+            if (e == null) {
+                LOGGER.ok("Creating new shared HTTP client for {0}", k);
+                Path cacheDirectory = StringUtil.isNotEmpty(configuration.getHttpCacheDirectory()) ?
+                        Paths.get(configuration.getHttpCacheDirectory()).toAbsolutePath().normalize() : null;
+                Cache cache = cacheDirectory != null ?
+                        acquireCache(cacheDirectory, configuration.getHttpCacheDirectoryMaxSizeInMegabytes() * 1024L * 1024L) : null;
+                try {
+                    e = new Entry(createClient(configuration, cache), cacheDirectory);
+                } catch (RuntimeException ex) {
+                    if (cacheDirectory != null) {
+                        releaseCache(cacheDirectory);
+                    }
+                    throw ex;
+                }
+            }
+            e.refCount++;
+            return e;
+        });
+        return new Lease(key, entry);
+    }
+
+    private static void release(Key key, Entry entry) {
+        REGISTRY.computeIfPresent(key, (k, current) -> {
+            if (current != entry || --current.refCount > 0) {
+                return current;
+            }
+            LOGGER.ok("Discarding unused shared HTTP client for {0}", k);
+            current.shutdown();
+            return null;
+        });
+    }
+
+    private static Cache acquireCache(Path directory, long maxSize) {
+        return CACHES.compute(directory, (k, current) -> {
+            CacheEntry e = current;
+            if (e == null) {
+                LOGGER.ok("Creating new shared HTTP cache in {0}", k);
+                e = new CacheEntry(new Cache(k.toFile(), maxSize));
+            } else if (e.cache.maxSize() != maxSize) {
+                LOGGER.warn("The HTTP cache in {0} is shared with the max size {1} bytes, ignored {2} bytes",
+                        k, e.cache.maxSize(), maxSize);
+            }
+            e.refCount++;
+            return e;
+        }).cache;
+    }
+
+    private static void releaseCache(Path directory) {
+        CACHES.computeIfPresent(directory, (k, current) -> {
+            if (--current.refCount > 0) {
+                return current;
+            }
+            LOGGER.ok("Closing unused shared HTTP cache in {0}", k);
+            try {
+                current.cache.close();
+            } catch (IOException e) {
+                LOGGER.warn("Failed to close the HTTP cache. error: {0}", e.getMessage());
+            }
+            return null;
+        });
+    }
+
+    private static OkHttpClient createClient(AbstractGitHubConfiguration configuration, Cache cache) {
+        OkHttpClient.Builder okHttpBuilder = new OkHttpClient.Builder();
+        okHttpBuilder.connectTimeout(configuration.getConnectionTimeoutInMilliseconds(), TimeUnit.MILLISECONDS);
+        okHttpBuilder.readTimeout(configuration.getReadTimeoutInMilliseconds(), TimeUnit.MILLISECONDS);
+        okHttpBuilder.writeTimeout(configuration.getWriteTimeoutInMilliseconds(), TimeUnit.MILLISECONDS);
+
+        if (configuration.isCoalesceConcurrentRequests()) {
+            // Put it first, so the coalesced requests skip the cache and the pacing too
+            okHttpBuilder.addInterceptor(new RequestCoalescer());
+        }
+        if (configuration.getHttpCacheSize() > 0) {
+            okHttpBuilder.addInterceptor(new ConditionalRequestCache(configuration.getHttpCacheSize()));
+        }
+        if (cache != null) {
+            // Java API for GitHub sends "Cache-Control: max-age=0" with the cache, so the responses are always revalidated
+            okHttpBuilder.cache(cache);
+        }
+
+        if (configuration.isRateLimitPacing()) {
+            okHttpBuilder.addInterceptor(new RateLimitPacer());
+        }
+
+        // Setup http proxy aware httpClient
+        if (StringUtil.isNotEmpty(configuration.getHttpProxyHost())) {
+            okHttpBuilder.proxy(new Proxy(Proxy.Type.HTTP,
+                    new InetSocketAddress(configuration.getHttpProxyHost(), configuration.getHttpProxyPort())));
+
+            if (StringUtil.isNotEmpty(configuration.getHttpProxyUser()) && configuration.getHttpProxyPassword() != null) {
+                configuration.getHttpProxyPassword().access(c -> {
+                    okHttpBuilder.proxyAuthenticator((Route route, Response response) -> {
+                        String credential = Credentials.basic(configuration.getHttpProxyUser(), String.valueOf(c));
+                        return response.request().newBuilder()
+                                .header("Proxy-Authorization", credential)
+                                .build();
+                    });
+                });
+            }
+        }
+
+        return okHttpBuilder.build();
+    }
+
+    /**
+     * Reference to the shared HTTP client held by a connector instance.
+     */
+    public static class Lease implements AutoCloseable {
+        private final Key key;
+        private final Entry entry;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Lease(Key key, Entry entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+
+        public OkHttpClient getClient() {
+            return entry.client;
+        }
+
+        /**
+         * Returns the shared HTTP connector for Java API for GitHub which wraps the shared HTTP client.
+         *
+         * @return shared HTTP connector
+         */
+        public HttpConnector getConnector() {
+            return entry.connector;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                release(key, entry);
+            }
+        }
+    }
+
+    private static class Entry {
+        final OkHttpClient client;
+        final HttpConnector connector;
+        final Path cacheDirectory;
+        // Guarded by the registry's compute
+        int refCount;
+
+        Entry(OkHttpClient client, Path cacheDirectory) {
+            this.client = client;
+            this.connector = new OkHttpConnector(client);
+            this.cacheDirectory = cacheDirectory;
+        }
+
+        void shutdown() {
+            client.connectionPool().evictAll();
+            if (cacheDirectory != null) {
+                // Closed when no other HTTP client uses it
+                releaseCache(cacheDirectory);
+            }
+        }
+    }
+
+    private static class CacheEntry {
+        final Cache cache;
+        // Guarded by the caches' compute
+        int refCount;
+
+        CacheEntry(Cache cache) {
+            this.cache = cache;
+        }
+    }
+
+    private static class Key {
+        private final int connectionTimeout;
+        private final int readTimeout;
+        private final int writeTimeout;
+        private final boolean rateLimitPacing;
+        private final int httpCacheSize;
+        private final String httpCacheDirectory;
+        private final int httpCacheDirectoryMaxSize;
+        private final boolean coalesceConcurrentRequests;
+        private final String proxyHost;
+        private final int proxyPort;
+        private final String proxyUser;
+        // Don't keep the proxy password itself as the key
+        private final byte[] proxyPasswordDigest;
+
+        Key(AbstractGitHubConfiguration configuration) {
+            this.connectionTimeout = configuration.getConnectionTimeoutInMilliseconds();
+            this.readTimeout = configuration.getReadTimeoutInMilliseconds();
+            this.writeTimeout = configuration.getWriteTimeoutInMilliseconds();
+            this.rateLimitPacing = configuration.isRateLimitPacing();
+            this.httpCacheSize = configuration.getHttpCacheSize();
+            this.httpCacheDirectory = configuration.getHttpCacheDirectory();
+            this.httpCacheDirectoryMaxSize = configuration.getHttpCacheDirectoryMaxSizeInMegabytes();
+            this.coalesceConcurrentRequests = configuration.isCoalesceConcurrentRequests();
+            this.proxyHost = configuration.getHttpProxyHost();
+            this.proxyPort = configuration.getHttpProxyPort();
+            this.proxyUser = configuration.getHttpProxyUser();
+
+            AtomicReference<byte[]> digest = new AtomicReference<>();
+            if (configuration.getHttpProxyPassword() != null) {
+                configuration.getHttpProxyPassword().access(c -> {
+                    digest.set(sha256(String.valueOf(c)));
+                });
+            }
+            this.proxyPasswordDigest = digest.get();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return connectionTimeout == key.connectionTimeout &&
+                    readTimeout == key.readTimeout &&
+                    writeTimeout == key.writeTimeout &&
+                    rateLimitPacing == key.rateLimitPacing &&
+                    httpCacheSize == key.httpCacheSize &&
+                    httpCacheDirectoryMaxSize == key.httpCacheDirectoryMaxSize &&
+                    Objects.equals(httpCacheDirectory, key.httpCacheDirectory) &&
+                    coalesceConcurrentRequests == key.coalesceConcurrentRequests &&
+                    proxyPort == key.proxyPort &&
+                    Objects.equals(proxyHost, key.proxyHost) &&
+                    Objects.equals(proxyUser, key.proxyUser) &&
+                    Arrays.equals(proxyPasswordDigest, key.proxyPasswordDigest);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Objects.hash(connectionTimeout, readTimeout, writeTimeout, rateLimitPacing,
+                    httpCacheSize, httpCacheDirectory, httpCacheDirectoryMaxSize, coalesceConcurrentRequests, proxyHost, proxyPort, proxyUser);
+            result = 31 * result + Arrays.hashCode(proxyPasswordDigest);
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "connectionTimeout=" + connectionTimeout +
+                    ", readTimeout=" + readTimeout +
+                    ", writeTimeout=" + writeTimeout +
+                    ", rateLimitPacing=" + rateLimitPacing +
+                    ", httpCacheSize=" + httpCacheSize +
+                    ", httpCacheDirectory=" + httpCacheDirectory +
+                    ", httpCacheDirectoryMaxSize=" + httpCacheDirectoryMaxSize +
+                    ", coalesceConcurrentRequests=" + coalesceConcurrentRequests +
+                    ", proxyHost=" + proxyHost +
+                    ", proxyPort=" + proxyPort +
+                    ", proxyUser=" + proxyUser;
+        }
+    }
+
+    public static byte[] sha256(String s) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -17,6 +17,7 @@ package jp.openstandia.connector.github;
 
 import org.identityconnectors.framework.common.objects.*;
 import org.identityconnectors.framework.spi.operations.SearchOp;
+import org.identityconnectors.framework.spi.operations.SyncOp;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -47,8 +48,8 @@ public class GitHubSchema extends AbstractGitHubSchema<GitHubConfiguration> {
                 (objectClassInfo) -> new GitHubTeamHandler(configuration, client, this));
 
         // Define operation options
-        schemaBuilder.defineOperationOption(OperationOptionInfoBuilder.buildAttributesToGet(), SearchOp.class);
-        schemaBuilder.defineOperationOption(OperationOptionInfoBuilder.buildReturnDefaultAttributes(), SearchOp.class);
+        schemaBuilder.defineOperationOption(OperationOptionInfoBuilder.buildAttributesToGet(), SearchOp.class, SyncOp.class);
+        schemaBuilder.defineOperationOption(OperationOptionInfoBuilder.buildReturnDefaultAttributes(), SearchOp.class, SyncOp.class);
 
         this.schema = schemaBuilder.build();
 
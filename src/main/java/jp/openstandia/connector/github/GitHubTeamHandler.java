@@ -226,4 +226,16 @@ public class GitHubTeamHandler extends AbstractGitHubHandler<GitHubConfiguration
             }
         }
     }
+
+    @Override
+    public void sync(SyncToken token, SyncResultsHandler resultsHandler, OperationOptions options,
+                     Set<String> returnAttributesSet, Set<String> fetchFieldsSet,
+                     boolean allowPartialAttributeValues, int pageSize) {
+        client.syncTeams(schema, token, resultsHandler, options, returnAttributesSet, allowPartialAttributeValues, pageSize);
+    }
+
+    @Override
+    public SyncToken getLatestSyncToken(int pageSize) {
+        return client.getLatestAuditLogSyncToken();
+    }
 }
@@ -274,9 +274,8 @@ public class GitHubUserHandler extends AbstractGitHubHandler<GitHubConfiguration
 
             // If the user login is stale, it throws UnknownUidException.
             // IDM handle the exception then do discovery process if needed.
-            client.unassignTeams(userLogin, resolver.resolvedRemoveTeams);
-            client.assignTeams(userLogin, "member", resolver.resolvedAddTeams);
-            client.assignTeams(userLogin, "maintainer", resolver.resolvedAddMaitainerTeams);
+            client.updateTeamMemberships(userLogin, resolver.resolvedRemoveTeams,
+                    resolver.resolvedAddTeams, resolver.resolvedAddMaitainerTeams);
         }
 
         // Detect NAME changing
@@ -338,4 +337,16 @@ public class GitHubUserHandler extends AbstractGitHubHandler<GitHubConfiguration
             }
         }
     }
+
+    @Override
+    public void sync(SyncToken token, SyncResultsHandler resultsHandler, OperationOptions options,
+                     Set<String> returnAttributesSet, Set<String> fetchFieldsSet,
+                     boolean allowPartialAttributeValues, int pageSize) {
+        client.syncUsers(schema, token, resultsHandler, options, returnAttributesSet, allowPartialAttributeValues, pageSize);
+    }
+
+    @Override
+    public SyncToken getLatestSyncToken(int pageSize) {
+        return client.getLatestAuditLogSyncToken();
+    }
 }
@@ -0,0 +1,299 @@
+/*
+ *  Copyright Nomura Research Institute, Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package jp.openstandia.connector.github;
+
+import org.kohsuke.github.SCIMEMUGroup;
+import org.kohsuke.github.SCIMMember;
+import org.kohsuke.github.SCIMMeta;
+import org.kohsuke.github.SCIMPatchOperations;
+
+import java.util.*;
+
+/**
+ * In-memory index of EMU groups with the inverted index of their user members (member id to groups)
+ * which is used while searching groups by members.
+ * <p>
+ * The memberships are encoded into a sorted int array of the group indexes per member, so each lookup is
+ * an in-memory probe. The index is built by enumerating all groups once and expires after the TTL.
+ * The groups created, updated or deleted by the connector are reflected incrementally, including the changes
+ * made while building it.
+ *
+ * @author Hiroyuki Wada
+ */
+public class GroupMemberIndex {
+
+    private static final int[] EMPTY = new int[0];
+    private static final String USERS_REF = "/Users/";
+
+    private final List<Group> groups = new ArrayList<>();
+    private final Map<String, Integer> groupIndexes = new HashMap<>();
+    private final Map<String, int[]> memberships = new HashMap<>();
+    private final long expiresAt;
+    // The changes by the connector while building, which are applied again after enumerating all groups
+    private List<Runnable> changes = new ArrayList<>();
+    // e.g. "https://api.github.com/scim/v2/enterprises/test/Users/"
+    private String userRefPrefix;
+
+    public GroupMemberIndex(long ttlMillis, long now) {
+        this.expiresAt = now + ttlMillis;
+    }
+
+    /**
+     * Adds the enumerated group with its user members.
+     *
+     * @param group the group with members
+     */
+    public synchronized void add(SCIMEMUGroup group) {
+        List<String> userIds = new ArrayList<>();
+        if (group.members != null) {
+            for (SCIMMember member : group.members) {
+                if (member.value == null || member.ref == null || !member.ref.contains(USERS_REF)) {
+                    continue;
+                }
+                if (userRefPrefix == null) {
+                    userRefPrefix = member.ref.substring(0, member.ref.lastIndexOf(USERS_REF) + USERS_REF.length());
+                }
+                userIds.add(member.value);
+            }
+        }
+        putGroup(group.id, group.displayName, group.externalId, group.meta, userIds);
+    }
+
+    /**
+     * Adds or replaces the group.
+     *
+     * @param groupId     the group id
+     * @param displayName the display name
+     * @param externalId  the external id
+     * @param meta        the metadata
+     * @param userIds     the user member ids
+     */
+    public synchronized void put(String groupId, String displayName, String externalId, SCIMMeta meta, Collection<String> userIds) {
+        record(() -> putGroup(groupId, displayName, externalId, meta, userIds));
+        putGroup(groupId, displayName, externalId, meta, userIds);
+    }
+
+    /**
+     * Removes the group.
+     *
+     * @param groupId the group id
+     */
+    public synchronized void remove(String groupId) {
+        record(() -> removeGroup(groupId));
+        removeGroup(groupId);
+    }
+
+    /**
+     * Applies the PATCH operations to the group.
+     *
+     * @param groupId    the group id
+     * @param operations the succeeded operations
+     * @return false if the operations aren't supported by the index, then the index must be discarded
+     */
+    public synchronized boolean apply(String groupId, SCIMPatchOperations operations) {
+        for (SCIMPatchOperations.Operation op : operations.operations) {
+            boolean members = "members".equals(op.path) && op.value instanceof List && ("add".equals(op.op) || "remove".equals(op.op));
+            boolean attribute = "replace".equals(op.op) && ("displayName".equals(op.path) || "externalId".equals(op.path));
+            if (!members && !attribute) {
+                return false;
+            }
+        }
+        record(() -> applyGroup(groupId, operations));
+        applyGroup(groupId, operations);
+        return true;
+    }
+
+    private void putGroup(String groupId, String displayName, String externalId, SCIMMeta meta, Collection<String> userIds) {
+        removeGroup(groupId);
+
+        int groupIndex = groups.size();
+        Group group = new Group(groupId, displayName, externalId, meta);
+        groups.add(group);
+        groupIndexes.put(groupId, groupIndex);
+
+        for (String userId : userIds) {
+            addMember(groupIndex, group, userId);
+        }
+    }
+
+    private void removeGroup(String groupId) {
+        Integer groupIndex = groupIndexes.remove(groupId);
+        if (groupIndex == null) {
+            return;
+        }
+        Group group = groups.set(groupIndex, null);
+        for (String member : new ArrayList<>(group.members)) {
+            removeMember(groupIndex, group, member);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void applyGroup(String groupId, SCIMPatchOperations operations) {
+        Integer groupIndex = groupIndexes.get(groupId);
+        if (groupIndex == null) {
+            // Not enumerated yet, or created by others after building
+            return;
+        }
+        Group group = groups.get(groupIndex);
+
+        for (SCIMPatchOperations.Operation op : operations.operations) {
+            if ("displayName".equals(op.path)) {
+                group.displayName = (String) op.value;
+            } else if ("externalId".equals(op.path)) {
+                // Removed by the empty value
+                group.externalId = "".equals(op.value) ? null : (String) op.value;
+            } else {
+                for (SCIMPatchOperations.Member member : (List<SCIMPatchOperations.Member>) op.value) {
+                    if ("add".equals(op.op)) {
+                        addMember(groupIndex, group, member.value);
+                    } else {
+                        removeMember(groupIndex, group, member.value);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Finishes building the index, and applies the changes made while enumerating the groups again.
+     * The changes are idempotent, so applying them twice doesn't matter.
+     */
+    public synchronized void trim() {
+        List<Runnable> pending = changes;
+        changes = null;
+        pending.forEach(Runnable::run);
+    }
+
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+
+    /**
+     * Finds the groups which have all the given members.
+     *
+     * @param memberIds the member ids
+     * @return the groups with their user members in the enumerated order
+     */
+    public synchronized List<SCIMEMUGroup> findGroups(Collection<?> memberIds) {
+        if (memberIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        int[] candidates = null;
+        for (Object memberId : memberIds) {
+            int[] values = memberships.getOrDefault(String.valueOf(memberId), EMPTY);
+            candidates = candidates == null ? values : intersect(candidates, values);
+            if (candidates.length == 0) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<SCIMEMUGroup> found = new ArrayList<>(candidates.length);
+        for (int candidate : candidates) {
+            found.add(groups.get(candidate).toSCIMEMUGroup(userRefPrefix != null ? userRefPrefix : USERS_REF));
+        }
+        return found;
+    }
+
+    private void record(Runnable change) {
+        if (changes != null) {
+            changes.add(change);
+        }
+    }
+
+    private void addMember(int groupIndex, Group group, String member) {
+        if (!group.members.add(member)) {
+            return;
+        }
+        int[] values = memberships.getOrDefault(member, EMPTY);
+        // The group indexes are mostly added in ascending order
+        int i = -Arrays.binarySearch(values, groupIndex) - 1;
+        int[] added = new int[values.length + 1];
+        System.arraycopy(values, 0, added, 0, i);
+        added[i] = groupIndex;
+        System.arraycopy(values, i, added, i + 1, values.length - i);
+        memberships.put(member, added);
+    }
+
+    private void removeMember(int groupIndex, Group group, String member) {
+        if (!group.members.remove(member)) {
+            return;
+        }
+        int[] values = memberships.get(member);
+        if (values.length == 1) {
+            memberships.remove(member);
+            return;
+        }
+        int i = Arrays.binarySearch(values, groupIndex);
+        int[] removed = new int[values.length - 1];
+        System.arraycopy(values, 0, removed, 0, i);
+        System.arraycopy(values, i + 1, removed, i, values.length - i - 1);
+        memberships.put(member, removed);
+    }
+
+    // Both arrays are sorted
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[k++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, k);
+    }
+
+    public synchronized int size() {
+        return groupIndexes.size();
+    }
+
+    private static class Group {
+        final String id;
+        String displayName;
+        String externalId;
+        final SCIMMeta meta;
+        final Set<String> members = new LinkedHashSet<>();
+
+        Group(String id, String displayName, String externalId, SCIMMeta meta) {
+            this.id = id;
+            this.displayName = displayName;
+            this.externalId = externalId;
+            this.meta = meta;
+        }
+
+        SCIMEMUGroup toSCIMEMUGroup(String userRefPrefix) {
+            SCIMEMUGroup group = new SCIMEMUGroup();
+            group.id = id;
+            group.displayName = displayName;
+            group.externalId = externalId;
+            group.meta = meta;
+            group.members = new ArrayList<>(members.size());
+            for (String member : members) {
+                SCIMMember m = new SCIMMember();
+                m.value = member;
+                m.ref = userRefPrefix + member;
+                group.members.add(m);
+            }
+            return group;
+        }
+    }
+}
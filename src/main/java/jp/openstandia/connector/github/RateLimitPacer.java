@@ -0,0 +1,303 @@
+/*
+ *  Copyright Nomura Research Institute, Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package jp.openstandia.connector.github;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.identityconnectors.common.logging.Log;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces outgoing requests by the rate limit budget reported by GitHub.
+ * <p>
+ * The budget is tracked from the X-RateLimit-* response headers per credential and per bucket (REST core, GraphQL and SCIM).
+ * For GraphQL, the headers report the points, so the cost of the last query reported by its rateLimit field
+ * is used as the cost of the next query.
+ * Each bucket is a token bucket which is refilled at the rate of "remaining / time until reset",
+ * so a long running reconciliation spreads evenly across the reset window instead of waiting for the reset
+ * after GitHub throttled it. Short operations are not delayed as long as they fit in the burst size.
+ *
+ * @author Hiroyuki Wada
+ */
+public class RateLimitPacer implements Interceptor {
+
+    private static final Log LOGGER = Log.getLog(RateLimitPacer.class);
+
+    static final String HEADER_LIMIT = "X-RateLimit-Limit";
+    static final String HEADER_REMAINING = "X-RateLimit-Remaining";
+    static final String HEADER_RESET = "X-RateLimit-Reset";
+
+    // Keep some budget for other clients using the same credential
+    static final double RESERVE_RATIO = 0.05;
+    // Allow burst up to 2% of the limit
+    static final double BURST_RATIO = 0.02;
+    static final int MAX_TRACKED_BUCKETS = 100;
+    // The queries select the rateLimit field first, so it's found at the head of the response
+    static final long COST_PEEK_BYTES = 1024;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    enum BucketType {
+        CORE,
+        GRAPHQL,
+        SCIM
+    }
+
+    private final ConcurrentMap<BucketKey, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        BucketKey key = new BucketKey(request.header("Authorization"), toBucketType(request));
+
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            long waitMillis = bucket.reserve(System.currentTimeMillis());
+            if (waitMillis > 0) {
+                LOGGER.ok("Pacing {0} request for {1} ms to keep the rate limit budget", key.type, waitMillis);
+                try {
+                    Thread.sleep(waitMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while pacing the request");
+                }
+            }
+        }
+
+        Response response = chain.proceed(request);
+
+        observe(key, response);
+
+        return response;
+    }
+
+    static BucketType toBucketType(Request request) {
+        String path = request.url().encodedPath();
+        if (path.endsWith("/graphql")) {
+            return BucketType.GRAPHQL;
+        }
+        if (path.contains("/scim/")) {
+            return BucketType.SCIM;
+        }
+        return BucketType.CORE;
+    }
+
+    private void observe(BucketKey key, Response response) {
+        String limit = response.header(HEADER_LIMIT);
+        String remaining = response.header(HEADER_REMAINING);
+        String reset = response.header(HEADER_RESET);
+
+        if (limit == null || remaining == null || reset == null) {
+            return;
+        }
+
+        try {
+            int limitValue = Integer.parseInt(limit);
+            int remainingValue = Integer.parseInt(remaining);
+            long resetMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(reset));
+
+            if (buckets.size() > MAX_TRACKED_BUCKETS) {
+                // Drop the buckets of the expired credentials
+                long now = System.currentTimeMillis();
+                buckets.entrySet().removeIf(e -> e.getValue().isStale(now));
+            }
+
+            int cost = key.type == BucketType.GRAPHQL ? readGraphQLCost(response) : 0;
+
+            buckets.computeIfAbsent(key, k -> new TokenBucket(k.type == BucketType.GRAPHQL))
+                    .update(limitValue, remainingValue, resetMillis, System.currentTimeMillis(), cost);
+
+        } catch (NumberFormatException e) {
+            LOGGER.ok("Ignored malformed rate limit headers: {0}, {1}, {2}", limit, remaining, reset);
+        }
+    }
+
+    /**
+     * Reads the cost of the query from "data.rateLimit.cost" at the head of the GraphQL response
+     * without consuming the response body.
+     *
+     * @param response GraphQL response
+     * @return the cost, or 0 if the query doesn't select it
+     */
+    static int readGraphQLCost(Response response) {
+        if (!response.isSuccessful() || response.body() == null) {
+            return 0;
+        }
+        try (ResponseBody head = response.peekBody(COST_PEEK_BYTES);
+             JsonParser parser = JSON_FACTORY.createParser(head.byteStream())) {
+            int depth = 0;
+            boolean inData = false;
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                switch (token) {
+                    case START_OBJECT:
+                    case START_ARRAY:
+                        depth++;
+                        break;
+                    case END_OBJECT:
+                    case END_ARRAY:
+                        depth--;
+                        break;
+                    case FIELD_NAME:
+                        String name = parser.getCurrentName();
+                        if (depth == 1) {
+                            inData = "data".equals(name);
+                        } else if (depth == 2 && inData && !"rateLimit".equals(name)) {
+                            // The rateLimit isn't selected
+                            return 0;
+                        } else if (depth == 3 && inData && "cost".equals(name)) {
+                            return parser.nextToken() == JsonToken.VALUE_NUMBER_INT ? parser.getIntValue() : 0;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } catch (IOException e) {
+            // Truncated before the cost or not JSON
+        }
+        return 0;
+    }
+
+    static class TokenBucket {
+        private int limit;
+        private int remaining = -1;
+        private long resetMillis;
+        private double capacity;
+        private double tokens;
+        // tokens per millisecond
+        private double rate;
+        private long lastRefill;
+        private double cost = 1;
+        private final boolean variableCost;
+
+        TokenBucket(boolean variableCost) {
+            this.variableCost = variableCost;
+        }
+
+        synchronized void update(int limit, int remaining, long resetMillis, long now) {
+            update(limit, remaining, resetMillis, now, 0);
+        }
+
+        /**
+         * Updates the budget by the rate limit headers of the last response.
+         *
+         * @param limit       the limit of the window
+         * @param remaining   the remaining budget
+         * @param resetMillis the time when the window is reset
+         * @param now         current time
+         * @param cost        the cost of the last request reported by GitHub, or 0 if unknown
+         */
+        synchronized void update(int limit, int remaining, long resetMillis, long now, int cost) {
+            if (variableCost && cost > 0) {
+                // A GraphQL query costs one or more points. Don't infer it from the drop of the remaining,
+                // which includes the cost of the concurrent requests.
+                this.cost = cost;
+            }
+
+            this.limit = limit;
+            this.remaining = remaining;
+            this.resetMillis = resetMillis;
+
+            double available = Math.max(0, remaining - limit * RESERVE_RATIO);
+            long window = Math.max(resetMillis - now, TimeUnit.SECONDS.toMillis(1));
+
+            boolean first = lastRefill == 0;
+            refill(now);
+
+            rate = available / window;
+            capacity = Math.max(1, Math.min(available, limit * BURST_RATIO));
+            if (first) {
+                tokens = capacity;
+            }
+            tokens = Math.min(tokens, capacity);
+        }
+
+        /**
+         * Reserves the tokens for the next request.
+         *
+         * @param now current time
+         * @return the time to wait in milliseconds before sending the request
+         */
+        synchronized long reserve(long now) {
+            if (remaining < 0) {
+                // Not known yet
+                return 0;
+            }
+            if (now >= resetMillis) {
+                // The budget has been reset
+                return 0;
+            }
+
+            refill(now);
+            tokens -= cost;
+
+            if (tokens >= 0) {
+                return 0;
+            }
+            if (rate <= 0) {
+                // No budget until reset
+                return resetMillis - now;
+            }
+            return Math.min((long) Math.ceil(-tokens / rate), resetMillis - now);
+        }
+
+        private void refill(long now) {
+            if (lastRefill > 0 && now > lastRefill) {
+                tokens = Math.min(capacity, tokens + (now - lastRefill) * rate);
+            }
+            lastRefill = now;
+        }
+
+        synchronized boolean isStale(long now) {
+            return now > resetMillis + TimeUnit.HOURS.toMillis(1);
+        }
+    }
+
+    private static class BucketKey {
+        final String authorization;
+        final BucketType type;
+
+        BucketKey(String authorization, BucketType type) {
+            this.authorization = authorization;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            BucketKey that = (BucketKey) o;
+            return Objects.equals(authorization, that.authorization) && type == that.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(authorization, type);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ *  Copyright Nomura Research Institute, Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package jp.openstandia.connector.github;
+
+import okhttp3.*;
+import org.identityconnectors.common.logging.Log;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Coalesces the identical GET requests which are sent concurrently into one HTTP call.
+ * <p>
+ * The first request of the same credential and URL is sent as usual, and the requests which arrive while it's in flight
+ * wait for it and receive a copy of its response, so concurrent workers of a reconciliation looking up the same team or group
+ * cost one call. The requests arriving after the response are sent again, so it never returns older data than
+ * sending them separately. Any other request (e.g. PATCH or DELETE) detaches the requests in flight to the URL, under it
+ * or to its parent collection, and a thread never joins the request which started before its own last write,
+ * so it always reads its writes. Only successful responses are shared. If the response can't be shared (failure, an error status
+ * such as a rate limit or a large body), the waiting requests are sent by themselves so they can handle it on their own.
+ *
+ * @author Hiroyuki Wada
+ */
+public class RequestCoalescer implements Interceptor {
+
+    private static final Log LOGGER = Log.getLog(RequestCoalescer.class);
+
+    // Don't buffer large responses such as list pages for sharing
+    static final int MAX_BODY_SIZE = 1024 * 1024;
+
+    private final ConcurrentMap<String, Flight> flights = new ConcurrentHashMap<>();
+
+    // The time when the last write of the current thread was completed
+    private final ThreadLocal<Long> lastWrite = new ThreadLocal<>();
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+
+        if (isGraphQL(request)) {
+            // The GraphQL queries don't change anything, but can't be coalesced by the URL
+            return chain.proceed(request);
+        }
+        if (!request.method().equals("GET")) {
+            detach(request.url());
+            try {
+                return chain.proceed(request);
+            } finally {
+                // Detach the requests which started while writing too
+                detach(request.url());
+                lastWrite.set(System.nanoTime());
+            }
+        }
+
+        String key = toKey(request);
+        Flight flight = new Flight(request.url());
+        Flight inFlight = flights.putIfAbsent(key, flight);
+
+        if (inFlight != null) {
+            if (!inFlight.startedAfter(lastWrite.get())) {
+                // It may return the data before the write of the current thread
+                return chain.proceed(request);
+            }
+            if (inFlight.join()) {
+                SharedResponse shared = inFlight.await();
+                if (shared != null) {
+                    LOGGER.ok("Coalesced the concurrent request: {0}", request.url());
+                    return shared.toResponse(request);
+                }
+            }
+            return chain.proceed(request);
+        }
+
+        SharedResponse shared = null;
+        try {
+            Response response = chain.proceed(request);
+
+            flights.remove(key, flight);
+            if (flight.close() > 0) {
+                try {
+                    shared = SharedResponse.of(response);
+                } catch (IOException e) {
+                    // The waiting requests are sent by themselves
+                    LOGGER.ok("Failed to read the response for sharing: {0}, error: {1}", request.url(), e.getMessage());
+                }
+            }
+            return response;
+
+        } finally {
+            flights.remove(key, flight);
+            flight.close();
+            flight.complete(shared);
+        }
+    }
+
+    static boolean isGraphQL(Request request) {
+        return request.method().equals("POST") && request.url().encodedPath().endsWith("/graphql");
+    }
+
+    private void detach(HttpUrl url) {
+        String path = url.encodedPath();
+        String parent = path.substring(0, path.lastIndexOf('/'));
+        flights.entrySet().removeIf(e -> e.getValue().matches(url.host(), path, parent));
+    }
+
+    private static String toKey(Request request) {
+        String authorization = request.header("Authorization");
+        // Don't keep the credential itself as the key
+        String digest = authorization != null ?
+                Base64.getEncoder().encodeToString(GitHubHttpClientRegistry.sha256(authorization)) : "";
+        return digest + " " + request.url();
+    }
+
+    int waiting() {
+        return flights.values().stream().mapToInt(Flight::getFollowers).sum();
+    }
+
+    private static class Flight {
+        private final String host;
+        private final String path;
+        private final long startedAt = System.nanoTime();
+        private int followers;
+        private boolean closed;
+        private boolean done;
+        private SharedResponse shared;
+
+        Flight(HttpUrl url) {
+            this.host = url.host();
+            this.path = url.encodedPath();
+        }
+
+        boolean startedAfter(Long time) {
+            return time == null || startedAt - time > 0;
+        }
+
+        boolean matches(String host, String path, String parent) {
+            return this.host.equals(host) &&
+                    (this.path.equals(path) || this.path.startsWith(path + "/") || this.path.equals(parent));
+        }
+
+        synchronized boolean join() {
+            if (closed) {
+                return false;
+            }
+            followers++;
+            return true;
+        }
+
+        synchronized int close() {
+            closed = true;
+            return followers;
+        }
+
+        synchronized int getFollowers() {
+            return followers;
+        }
+
+        synchronized void complete(SharedResponse shared) {
+            this.shared = shared;
+            this.done = true;
+            notifyAll();
+        }
+
+        synchronized SharedResponse await() throws InterruptedIOException {
+            while (!done) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the concurrent request");
+                }
+            }
+            return shared;
+        }
+    }
+
+    private static class SharedResponse {
+        final Response response;
+        final MediaType contentType;
+        final byte[] body;
+
+        SharedResponse(Response response, MediaType contentType, byte[] body) {
+            this.response = response;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        static SharedResponse of(Response response) throws IOException {
+            // Don't pass a transient error or a rate limit to the waiting requests
+            if (!response.isSuccessful() || response.body() == null) {
+                return null;
+            }
+            // The content length is unknown for gzipped responses, so peek the body up to the limit
+            ResponseBody peeked = response.peekBody(MAX_BODY_SIZE + 1);
+            if (peeked.contentLength() > MAX_BODY_SIZE) {
+                return null;
+            }
+            return new SharedResponse(response.newBuilder().body(null).build(), peeked.contentType(), peeked.bytes());
+        }
+
+        Response toResponse(Request request) {
+            return response.newBuilder()
+                    .request(request)
+                    .body(ResponseBody.create(body, contentType))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ *  Copyright Nomura Research Institute, Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package jp.openstandia.connector.github;
+
+import jp.openstandia.connector.util.QueryHandler;
+import jp.openstandia.connector.util.SnapshotStore;
+import jp.openstandia.connector.util.SyncSnapshot;
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.common.exceptions.ConnectorIOException;
+import org.identityconnectors.framework.common.exceptions.InvalidAttributeValueException;
+import org.identityconnectors.framework.common.objects.*;
+import org.identityconnectors.framework.spi.SyncTokenResultsHandler;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+/**
+ * Live synchronization for SCIM resources by "meta.lastModified".
+ * <p>
+ * The sync token is the high-water mark of "meta.lastModified". A snapshot of the ids and the timestamps
+ * at the token is kept to detect deleted objects because SCIM API doesn't return them.
+ * If the server filter is available, only the modified objects are fetched and the total count is used
+ * to check whether any object was deleted. Otherwise, all objects are fetched and compared with the snapshot.
+ *
+ * @param <T> the SCIM resource type
+ * @author Hiroyuki Wada
+ */
+public class SCIMSyncProcessor<T> {
+
+    private static final Log LOGGER = Log.getLog(SCIMSyncProcessor.class);
+
+    private final ObjectClass objectClass;
+    private final String snapshotKey;
+    private final SnapshotStore snapshotStore;
+    private final Function<T, String> idResolver;
+    private final Function<T, String> lastModifiedResolver;
+    private final ListFunction<T> listAll;
+    private final ModifiedSinceFunction<T> listModifiedSince;
+    private final IntSupplier counter;
+    private String instanceName;
+
+    @FunctionalInterface
+    public interface ListFunction<T> {
+        void list(QueryHandler<T> handler);
+    }
+
+    @FunctionalInterface
+    public interface ModifiedSinceFunction<T> {
+        void list(String lastModified, QueryHandler<T> handler);
+    }
+
+    /**
+     * Create a sync processor.
+     *
+     * @param objectClass          object class
+     * @param snapshotKey          key of the snapshot
+     * @param snapshotStore        store of the snapshot
+     * @param idResolver           resolves the id of the resource
+     * @param lastModifiedResolver resolves "meta.lastModified" of the resource
+     * @param listAll              lists all resources
+     * @param listModifiedSince    lists the resources modified since the time, or null if the server doesn't support it
+     * @param counter              returns the total count of the resources
+     */
+    public SCIMSyncProcessor(ObjectClass objectClass, String snapshotKey, SnapshotStore snapshotStore,
+                             Function<T, String> idResolver, Function<T, String> lastModifiedResolver,
+                             ListFunction<T> listAll, ModifiedSinceFunction<T> listModifiedSince, IntSupplier counter) {
+        this.objectClass = objectClass;
+        this.snapshotKey = snapshotKey;
+        this.snapshotStore = snapshotStore;
+        this.idResolver = idResolver;
+        this.lastModifiedResolver = lastModifiedResolver;
+        this.listAll = listAll;
+        this.listModifiedSince = listModifiedSince;
+        this.counter = counter;
+    }
+
+    public SCIMSyncProcessor<T> setInstanceName(String instanceName) {
+        this.instanceName = instanceName;
+        return this;
+    }
+
+    /**
+     * Takes the snapshot of all resources and returns the latest sync token.
+     *
+     * @return the latest sync token
+     */
+    public SyncToken getLatestSyncToken() {
+        Map<String, String> entries = new HashMap<>();
+        Instant[] highWaterMark = {Instant.EPOCH};
+
+        listAll.list(obj -> {
+            String lastModified = lastModifiedResolver.apply(obj);
+            entries.put(idResolver.apply(obj), lastModified);
+            highWaterMark[0] = max(highWaterMark[0], lastModified);
+            return true;
+        });
+
+        String token = highWaterMark[0].toString();
+        snapshotStore.save(snapshotKey, new SyncSnapshot(token, entries));
+
+        LOGGER.ok("[{0}] Took the snapshot of {1} {2} for sync token: {3}", instanceName, entries.size(), objectClass.getObjectClassValue(), token);
+
+        return new SyncToken(token);
+    }
+
+    /**
+     * Emits the changed and deleted resources since the token.
+     *
+     * @param token             the sync token or null to emit all resources
+     * @param handler           the handler
+     * @param toConnectorObject converts the resource to the connector object
+     */
+    public void sync(SyncToken token, SyncResultsHandler handler, Function<T, ConnectorObject> toConnectorObject) {
+        String since = token != null ? token.getValue().toString() : null;
+
+        SyncSnapshot snapshot = snapshotStore.load(snapshotKey);
+        if (snapshot != null && !Objects.equals(snapshot.getToken(), since)) {
+            // The snapshot was taken at another token (e.g. the token was reset in IDM)
+            LOGGER.info("[{0}] Discarded the snapshot of {1} because it was taken at {2}, not at {3}",
+                    instanceName, objectClass.getObjectClassValue(), snapshot.getToken(), since);
+            snapshot = null;
+        }
+
+        if (snapshot != null && listModifiedSince != null) {
+            if (syncModified(since, snapshot, handler, toConnectorObject)) {
+                return;
+            }
+        }
+
+        syncAll(since, snapshot, handler, toConnectorObject);
+    }
+
+    private boolean syncModified(String since, SyncSnapshot snapshot, SyncResultsHandler handler,
+                                 Function<T, ConnectorObject> toConnectorObject) {
+        List<T> modified = new ArrayList<>();
+        try {
+            listModifiedSince.list(since, obj -> {
+                modified.add(obj);
+                return true;
+            });
+        } catch (InvalidAttributeValueException | ConnectorIOException e) {
+            LOGGER.warn("[{0}] Failed to filter {1} by meta.lastModified, fetching all of them. error: {2}",
+                    instanceName, objectClass.getObjectClassValue(), e.getMessage());
+            return false;
+        }
+
+        long added = modified.stream()
+                .filter(obj -> !snapshot.getEntries().containsKey(idResolver.apply(obj)))
+                .count();
+        int total = counter.getAsInt();
+        if (total != snapshot.size() + added) {
+            // Some objects were deleted since the snapshot, we need to fetch all to find them
+            LOGGER.ok("[{0}] Detected deleted {1}, fetching all of them. total: {2}, snapshot: {3}, added: {4}",
+                    instanceName, objectClass.getObjectClassValue(), total, snapshot.size(), added);
+            return false;
+        }
+
+        SyncToken currentToken = new SyncToken(since);
+        Map<String, String> entries = new HashMap<>(snapshot.getEntries());
+        Instant highWaterMark = parse(since);
+
+        for (T obj : modified) {
+            String id = idResolver.apply(obj);
+            String lastModified = lastModifiedResolver.apply(obj);
+            highWaterMark = max(highWaterMark, lastModified);
+
+            // The filter is "ge", the objects at the token may be already synchronized
+            if (Objects.equals(entries.put(id, lastModified), lastModified)) {
+                continue;
+            }
+            if (!handler.handle(toDelta(currentToken, toConnectorObject.apply(obj)))) {
+                return true;
+            }
+        }
+
+        commit(highWaterMark.toString(), entries, handler);
+        return true;
+    }
+
+    private void syncAll(String since, SyncSnapshot snapshot, SyncResultsHandler handler,
+                         Function<T, ConnectorObject> toConnectorObject) {
+        SyncToken currentToken = since != null ? new SyncToken(since) : null;
+        Instant sinceTime = since != null ? parse(since) : null;
+        Map<String, String> entries = new HashMap<>();
+        Instant[] highWaterMark = {sinceTime != null ? sinceTime : Instant.EPOCH};
+        boolean[] stopped = {false};
+
+        listAll.list(obj -> {
+            String id = idResolver.apply(obj);
+            String lastModified = lastModifiedResolver.apply(obj);
+            entries.put(id, lastModified);
+            highWaterMark[0] = max(highWaterMark[0], lastModified);
+
+            boolean changed;
+            if (snapshot != null) {
+                changed = !Objects.equals(snapshot.getEntries().get(id), lastModified);
+            } else {
+                changed = sinceTime == null || lastModified == null || !parse(lastModified).isBefore(sinceTime);
+            }
+
+            if (changed && !handler.handle(toDelta(currentToken, toConnectorObject.apply(obj)))) {
+                stopped[0] = true;
+                return false;
+            }
+            return true;
+        });
+
+        if (stopped[0]) {
+            return;
+        }
+
+        if (snapshot != null) {
+            for (String id : snapshot.getEntries().keySet()) {
+                if (entries.containsKey(id)) {
+                    continue;
+                }
+                SyncDelta delta = new SyncDeltaBuilder()
+                        .setDeltaType(SyncDeltaType.DELETE)
+                        .setToken(currentToken)
+                        .setObjectClass(objectClass)
+                        .setUid(new Uid(id))
+                        .build();
+                if (!handler.handle(delta)) {
+                    return;
+                }
+            }
+        } else if (since != null) {
+            LOGGER.warn("[{0}] Can't detect deleted {1} because no snapshot is found for the token: {2}",
+                    instanceName, objectClass.getObjectClassValue(), since);
+        }
+
+        commit(highWaterMark[0].toString(), entries, handler);
+    }
+
+    private SyncDelta toDelta(SyncToken token, ConnectorObject connectorObject) {
+        return new SyncDeltaBuilder()
+                .setDeltaType(SyncDeltaType.CREATE_OR_UPDATE)
+                // Not ordered by meta.lastModified, so the previous token is safe to resume
+                .setToken(token != null ? token : new SyncToken(Instant.EPOCH.toString()))
+                .setObject(connectorObject)
+                .build();
+    }
+
+    private void commit(String token, Map<String, String> entries, SyncResultsHandler handler) {
+        snapshotStore.save(snapshotKey, new SyncSnapshot(token, entries));
+
+        if (handler instanceof SyncTokenResultsHandler) {
+            ((SyncTokenResultsHandler) handler).handleResult(new SyncToken(token));
+        }
+    }
+
+    private static Instant max(Instant current, String lastModified) {
+        if (lastModified == null) {
+            return current;
+        }
+        Instant time = parse(lastModified);
+        return time.isAfter(current) ? time : current;
+    }
+
+    private static Instant parse(String datetime) {
+        return OffsetDateTime.parse(datetime).toInstant();
+    }
+}
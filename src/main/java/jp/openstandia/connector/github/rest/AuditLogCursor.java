@@ -0,0 +1,96 @@
+/*
+ *  Copyright Nomura Research Institute, Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package jp.openstandia.connector.github.rest;
+
+import org.identityconnectors.framework.common.exceptions.InvalidAttributeValueException;
+import org.identityconnectors.framework.common.objects.SyncToken;
+import org.kohsuke.github.GHAuditLogEvent;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Position in the organization audit log, which is used as the sync token.
+ * The events are ordered by "@timestamp" then "_document_id".
+ *
+ * @author Hiroyuki Wada
+ */
+public class AuditLogCursor {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE.withZone(ZoneOffset.UTC);
+
+    private final long timestamp;
+    private final String documentId;
+
+    public AuditLogCursor(long timestamp, String documentId) {
+        this.timestamp = timestamp;
+        this.documentId = documentId != null ? documentId : "";
+    }
+
+    public static AuditLogCursor of(GHAuditLogEvent event) {
+        return new AuditLogCursor(event.timestamp, event.documentId);
+    }
+
+    public static AuditLogCursor of(SyncToken token) {
+        String value = token.getValue().toString();
+        int i = value.indexOf(':');
+        try {
+            if (i < 0) {
+                return new AuditLogCursor(Long.parseLong(value), null);
+            }
+            return new AuditLogCursor(Long.parseLong(value.substring(0, i)), value.substring(i + 1));
+        } catch (NumberFormatException e) {
+            throw new InvalidAttributeValueException("Invalid sync token: " + value, e);
+        }
+    }
+
+    public SyncToken toSyncToken() {
+        return new SyncToken(timestamp + ":" + documentId);
+    }
+
+    /**
+     * Returns true if the event is after this position.
+     *
+     * @param event the event
+     * @return true if the event is after this position
+     */
+    public boolean isBefore(GHAuditLogEvent event) {
+        return compare(event.timestamp, event.documentId, timestamp, documentId) > 0;
+    }
+
+    /**
+     * Returns the date qualifier for the search phrase of the audit log.
+     * The qualifier has a granularity of days, so the events must be filtered by {@link #isBefore(GHAuditLogEvent)}.
+     *
+     * @return the date qualifier
+     */
+    public String toCreatedQualifier() {
+        return "created:>=" + DATE_FORMATTER.format(Instant.ofEpochMilli(timestamp));
+    }
+
+    static int compare(GHAuditLogEvent a, GHAuditLogEvent b) {
+        return compare(a.timestamp, a.documentId, b.timestamp, b.documentId);
+    }
+
+    private static int compare(long timestamp1, String documentId1, long timestamp2, String documentId2) {
+        int c = Long.compare(timestamp1, timestamp2);
+        if (c != 0) {
+            return c;
+        }
+        return (documentId1 != null ? documentId1 : "").compareTo(documentId2 != null ? documentId2 : "");
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ *  Copyright Nomura Research Institute, Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package jp.openstandia.connector.github.rest;
+
+import jp.openstandia.connector.github.GitHubConfiguration;
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.common.exceptions.ConnectionFailedException;
+import org.kohsuke.github.GHAppInstallationToken;
+import org.kohsuke.github.GitHubBuilder;
+import org.kohsuke.github.GitHubExt;
+import org.kohsuke.github.HttpConnector;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Manages the GitHub App installation token.
+ * <p>
+ * The token is shared by all connector instances which have the same GitHub App configuration.
+ * It's refreshed ahead of its expiration on a background thread, so the request threads
+ * only block when there is no valid token at all (the first call or after GitHub rejected the token).
+ *
+ * @author Hiroyuki Wada
+ */
+public class GitHubAppInstallationTokenManager {
+
+    private static final Log LOGGER = Log.getLog(GitHubAppInstallationTokenManager.class);
+
+    // Refresh the token 5 minutes before its expiration
+    static final long REFRESH_AHEAD_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    // Treat the token as expired a bit earlier than its actual expiration to avoid clock skew
+    static final long EXPIRATION_MARGIN_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    static final long RETRY_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    // Stop the background refresh if no one uses the token
+    static final long IDLE_TIMEOUT_MILLIS = TimeUnit.HOURS.toMillis(2);
+    // The JWT is reused while it's valid, GitHub allows up to 10 minutes
+    static final long JWT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final ConcurrentMap<Key, GitHubAppInstallationTokenManager> MANAGERS = new ConcurrentHashMap<>();
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "GitHubAppInstallationTokenRefresher");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final String appId;
+    private final long installationId;
+    private final GitHubAppKeyHolder keyHolder;
+    private final GitHubExt appApiClient;
+    private final AtomicReference<Token> current = new AtomicReference<>();
+    private volatile long lastUsed;
+    private boolean scheduled;
+    // Guarded by the managers' compute
+    private Key key;
+    private int refCount;
+    private volatile boolean released;
+
+    private static class Token {
+        final String token;
+        final long expiresAt;
+
+        Token(String token, long expiresAt) {
+            this.token = token;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isValid(long now) {
+            return now < expiresAt - EXPIRATION_MARGIN_MILLIS;
+        }
+    }
+
+    /**
+     * Acquires the shared token manager for the configuration.
+     * The caller must {@link #release()} it when the connector instance is disposed.
+     *
+     * @param configuration connector configuration
+     * @param connector     HTTP connector to call GitHub App API
+     * @return token manager
+     */
+    public static GitHubAppInstallationTokenManager acquire(GitHubConfiguration configuration, HttpConnector connector) {
+        AtomicReference<String> privateKeyPEM = new AtomicReference<>();
+        configuration.getPrivateKey().access((val) -> {
+            privateKeyPEM.set(String.valueOf(val));
+        });
+
+        Key key = new Key(configuration.getAppId(), configuration.getInstallationId(), GitHubAppKeyHolder.fingerprint(privateKeyPEM.get()), connector);
+
+        return MANAGERS.compute(key, (k, current) -> {
+            GitHubAppInstallationTokenManager manager = current;
+            if (manager == null) {
+                LOGGER.ok("Creating new GitHub App installation token manager for appId: {0}, installationId: {1}",
+                        configuration.getAppId(), configuration.getInstallationId());
+                GitHubAppKeyHolder keyHolder = GitHubAppKeyHolder.acquire(privateKeyPEM.get());
+                try {
+                    manager = new GitHubAppInstallationTokenManager(configuration.getAppId(), configuration.getInstallationId(),
+                            keyHolder, connector);
+                } catch (RuntimeException e) {
+                    keyHolder.release();
+                    throw e;
+                }
+                manager.key = k;
+            }
+            manager.refCount++;
+            return manager;
+        });
+    }
+
+    /**
+     * Returns the digest of the GitHub App credentials which this manager issues the token for.
+     * It doesn't contain any secret, so it can be used as a part of cache keys.
+     *
+     * @return the credential digest
+     */
+    public String getCredentialDigest() {
+        return appId + ":" + installationId + ":" + key.privateKeyFingerprint;
+    }
+
+    /**
+     * Releases the token manager acquired by {@link #acquire(GitHubConfiguration, HttpConnector)}.
+     * The manager is discarded and stops refreshing the token when no connector instance uses it.
+     */
+    public void release() {
+        MANAGERS.computeIfPresent(key, (k, current) -> {
+            if (current != this || --refCount > 0) {
+                return current;
+            }
+            LOGGER.ok("Discarding unused GitHub App installation token manager for appId: {0}, installationId: {1}",
+                    appId, installationId);
+            released = true;
+            keyHolder.release();
+            return null;
+        });
+    }
+
+    GitHubAppInstallationTokenManager(String appId, long installationId, GitHubAppKeyHolder keyHolder, HttpConnector connector) {
+        this.appId = appId;
+        this.installationId = installationId;
+        this.keyHolder = keyHolder;
+
+        try {
+            // The JWT is resolved for each request because it expires shortly
+            GitHubBuilder builder = new GitHubBuilder()
+                    .withConnector(connector)
+                    .withAuthorizationProvider(() -> String.format("Bearer %s",
+                            keyHolder.getJWT(appId, JWT_TTL_MILLIS)));
+            this.appApiClient = GitHubExt.build(builder);
+
+        } catch (IOException e) {
+            throw new ConnectionFailedException("Failed to create GitHub App API client", e);
+        }
+    }
+
+    /**
+     * Returns a valid installation token.
+     * It only blocks the caller when there is no valid token.
+     *
+     * @return installation token
+     */
+    public String getToken() {
+        long now = System.currentTimeMillis();
+        lastUsed = now;
+
+        Token token = current.get();
+        if (token != null && token.isValid(now)) {
+            return token.token;
+        }
+
+        synchronized (this) {
+            token = current.get();
+            if (token != null && token.isValid(System.currentTimeMillis())) {
+                return token.token;
+            }
+            return refresh().token;
+        }
+    }
+
+    /**
+     * Discards the token if it's still the current one, because GitHub rejected it.
+     *
+     * @param token the rejected token
+     */
+    public void invalidate(String token) {
+        Token t = current.get();
+        if (t != null && t.token.equals(token)) {
+            current.compareAndSet(t, null);
+        }
+    }
+
+    private synchronized Token refresh() {
+        try {
+            GHAppInstallationToken appInstallationToken = appApiClient.createAppInstallationToken(installationId);
+
+            Date expiresAt = appInstallationToken.getExpiresAt();
+            long expiresAtMillis = expiresAt != null ? expiresAt.getTime() :
+                    System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1);
+
+            Token token = new Token(appInstallationToken.getToken(), expiresAtMillis);
+            current.set(token);
+
+            LOGGER.ok("Refreshed GitHub App installation token for appId: {0}, installationId: {1}, expiresAt: {2}",
+                    appId, installationId, expiresAt);
+
+            scheduleRefresh(expiresAtMillis - REFRESH_AHEAD_MILLIS - System.currentTimeMillis());
+
+            return token;
+
+        } catch (IOException e) {
+            throw new ConnectionFailedException("Failed to authenticate GitHub API", e);
+        }
+    }
+
+    private synchronized void scheduleRefresh(long delayMillis) {
+        if (scheduled) {
+            return;
+        }
+        scheduled = true;
+
+        SCHEDULER.schedule(this::backgroundRefresh, Math.max(delayMillis, RETRY_DELAY_MILLIS), TimeUnit.MILLISECONDS);
+    }
+
+    private void backgroundRefresh() {
+        synchronized (this) {
+            scheduled = false;
+        }
+
+        if (released) {
+            return;
+        }
+        if (System.currentTimeMillis() - lastUsed > IDLE_TIMEOUT_MILLIS) {
+            // No one uses the token, the next caller refreshes it
+            LOGGER.ok("Stopped refreshing idle GitHub App installation token for appId: {0}, installationId: {1}",
+                    appId, installationId);
+            return;
+        }
+
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // The current token is still valid, retry later
+            LOGGER.warn(e, "Failed to refresh GitHub App installation token in background for appId: {0}, installationId: {1}",
+                    appId, installationId);
+            scheduleRefresh(RETRY_DELAY_MILLIS);
+        }
+    }
+
+    private static class Key {
+        private final String appId;
+        private final long installationId;
+        private final String privateKeyFingerprint;
+        private final HttpConnector connector;
+
+        Key(String appId, long installationId, String privateKeyFingerprint, HttpConnector connector) {
+            this.appId = appId;
+            this.installationId = installationId;
+            this.privateKeyFingerprint = privateKeyFingerprint;
+            this.connector = connector;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return installationId == key.installationId &&
+                    Objects.equals(appId, key.appId) &&
+                    Objects.equals(privateKeyFingerprint, key.privateKeyFingerprint) &&
+                    connector == key.connector;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(appId, installationId, privateKeyFingerprint, System.identityHashCode(connector));
+        }
+    }
+}
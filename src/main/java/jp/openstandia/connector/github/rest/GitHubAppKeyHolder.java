@@ -0,0 +1,160 @@
+/*
+ *  Copyright Nomura Research Institute, Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package jp.openstandia.connector.github.rest;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the parsed private key of the GitHub App and the JWTs signed by it.
+ * <p>
+ * The PEM is parsed once per fingerprint, and a signed JWT is reused while it's still valid
+ * instead of signing a new one for each authentication. The holder is reference counted,
+ * and it's discarded when the last token manager using it is released.
+ *
+ * @author Hiroyuki Wada
+ */
+public class GitHubAppKeyHolder {
+
+    // Don't reuse the JWT if it expires within this time
+    static final long JWT_REUSE_MARGIN_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private static final ConcurrentMap<String, GitHubAppKeyHolder> HOLDERS = new ConcurrentHashMap<>();
+
+    private final String fingerprint;
+    private final PrivateKey privateKey;
+    private final ConcurrentMap<JWTKey, SignedJWT> jwtCache = new ConcurrentHashMap<>();
+    // Guarded by the holders' compute
+    private int refCount;
+
+    private static class JWTKey {
+        final String appId;
+        final long ttlMillis;
+
+        JWTKey(String appId, long ttlMillis) {
+            this.appId = appId;
+            this.ttlMillis = ttlMillis;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            JWTKey jwtKey = (JWTKey) o;
+            return ttlMillis == jwtKey.ttlMillis && appId.equals(jwtKey.appId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * appId.hashCode() + Long.hashCode(ttlMillis);
+        }
+    }
+
+    private static class SignedJWT {
+        final String jwt;
+        final long expiresAt;
+
+        SignedJWT(String jwt, long expiresAt) {
+            this.jwt = jwt;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Acquires the key holder for the private key PEM.
+     * The caller must {@link #release()} it when it doesn't use the key anymore.
+     *
+     * @param privateKeyPEM private key PEM of the GitHub App
+     * @return key holder
+     */
+    public static GitHubAppKeyHolder acquire(String privateKeyPEM) {
+        return HOLDERS.compute(fingerprint(privateKeyPEM), (k, current) -> {
+            GitHubAppKeyHolder holder = current;
+            if (holder == null) {
+                holder = new GitHubAppKeyHolder(k, GitHubRESTClient.loadPrivateKey(privateKeyPEM));
+            }
+            holder.refCount++;
+            return holder;
+        });
+    }
+
+    /**
+     * Releases the key holder acquired by {@link #acquire(String)}.
+     * The parsed key and the signed JWTs are discarded when no one uses them.
+     */
+    public void release() {
+        HOLDERS.computeIfPresent(fingerprint, (k, current) -> {
+            if (current != this || --refCount > 0) {
+                return current;
+            }
+            jwtCache.clear();
+            return null;
+        });
+    }
+
+    GitHubAppKeyHolder(String fingerprint, PrivateKey privateKey) {
+        this.fingerprint = fingerprint;
+        this.privateKey = privateKey;
+    }
+
+    public PrivateKey getPrivateKey() {
+        return privateKey;
+    }
+
+    /**
+     * Returns a signed JWT for the GitHub App. A cached JWT is returned while it's still valid.
+     *
+     * @param githubAppId GitHub App ID
+     * @param ttlMillis   lifetime of the JWT
+     * @return signed JWT
+     */
+    public String getJWT(String githubAppId, long ttlMillis) {
+        if (ttlMillis <= 0) {
+            // No expiration, we can always reuse it
+            return jwtCache.computeIfAbsent(new JWTKey(githubAppId, ttlMillis),
+                    k -> new SignedJWT(GitHubRESTClient.createJWT(githubAppId, ttlMillis, privateKey), Long.MAX_VALUE)).jwt;
+        }
+
+        JWTKey key = new JWTKey(githubAppId, ttlMillis);
+        long now = System.currentTimeMillis();
+
+        SignedJWT cached = jwtCache.get(key);
+        if (cached != null && now < cached.expiresAt - Math.min(JWT_REUSE_MARGIN_MILLIS, ttlMillis / 2)) {
+            return cached.jwt;
+        }
+
+        // It's not a problem even if multiple threads sign a new JWT at the same time
+        SignedJWT signed = new SignedJWT(GitHubRESTClient.createJWT(githubAppId, ttlMillis, privateKey), now + ttlMillis);
+        jwtCache.put(key, signed);
+
+        return signed.jwt;
+    }
+
+    static String fingerprint(String privateKeyPEM) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(privateKeyPEM.getBytes(StandardCharsets.UTF_8));
+            return new BigInteger(1, digest).toString(16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
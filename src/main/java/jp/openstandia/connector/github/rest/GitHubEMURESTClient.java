@@ -18,7 +18,10 @@ package jp.openstandia.connector.github.rest;
 import jp.openstandia.connector.github.GitHubClient;
 import jp.openstandia.connector.github.GitHubEMUConfiguration;
 import jp.openstandia.connector.github.GitHubEMUSchema;
+import jp.openstandia.connector.github.GitHubHttpClientRegistry;
+import jp.openstandia.connector.util.ParallelTasks;
 import jp.openstandia.connector.util.QueryHandler;
+import jp.openstandia.connector.util.SharedExecutor;
 import org.identityconnectors.common.StringUtil;
 import org.identityconnectors.common.logging.Log;
 import org.identityconnectors.framework.common.exceptions.*;
@@ -26,12 +29,16 @@ import org.identityconnectors.framework.common.objects.Name;
 import org.identityconnectors.framework.common.objects.OperationOptions;
 import org.identityconnectors.framework.common.objects.Uid;
 import org.kohsuke.github.*;
-import org.kohsuke.github.extras.okhttp3.OkHttpConnector;
 
 import java.io.IOException;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -44,20 +51,32 @@ public class GitHubEMURESTClient implements GitHubClient<GitHubEMUSchema> {
 
     private static final Log LOGGER = Log.getLog(GitHubEMURESTClient.class);
 
+    // Enterprise, access token and bulk settings => SCIM bulk committer shared by the connector instances
+    private static final ConcurrentMap<String, SCIMBulkCommitter> BULK_COMMITTERS = new ConcurrentHashMap<>();
+
+    static final int MAX_CHUNK_ATTEMPTS = 3;
+    static final long CHUNK_RETRY_DELAY_MILLIS = 1000;
+    static final long MAX_CHUNK_RETRY_DELAY_MILLIS = 60000;
+
     private final GitHubEMUConfiguration configuration;
     private String instanceName;
-    private GitHubExt apiClient;
-    private long lastAuthenticated;
-    private GHEnterpriseExt enterpriseApiClient;
+    private GitHubHttpClientRegistry.Lease httpClient;
+    private volatile Session session;
 
     public GitHubEMURESTClient(GitHubEMUConfiguration configuration) {
         this.configuration = configuration;
 
-        auth();
+        try {
+            auth();
+        } catch (RuntimeException e) {
+            // Release the shared HTTP client acquired before the failure
+            close();
+            throw e;
+        }
     }
 
     public GitHubExt getApiClient() {
-        return apiClient;
+        return getSession().apiClient;
     }
 
     @Override
@@ -68,10 +87,10 @@ public class GitHubEMURESTClient implements GitHubClient<GitHubEMUSchema> {
     @Override
     public void test() {
         try {
-            withAuth(() -> {
+            withAuth(session -> {
                 // Checking using https://api.github.com/rate_limit with accessToken
                 // If the access token is invalid, it returns 401 Bad credentials error
-                apiClient.checkApiUrlValidity();
+                session.apiClient.checkApiUrlValidity();
                 return null;
             });
         } catch (RuntimeException e) {
@@ -85,6 +104,26 @@ public class GitHubEMURESTClient implements GitHubClient<GitHubEMUSchema> {
         }
     }
 
+    /**
+     * Authenticated session which is built once and reused until GitHub rejects the access token.
+     */
+    private static class Session {
+        final GitHubExt apiClient;
+        final GHEnterpriseExt enterpriseApiClient;
+        final String credentialDigest;
+
+        Session(GitHubExt apiClient, GHEnterpriseExt enterpriseApiClient, String credentialDigest) {
+            this.apiClient = apiClient;
+            this.enterpriseApiClient = enterpriseApiClient;
+            this.credentialDigest = credentialDigest;
+        }
+    }
+
+    @FunctionalInterface
+    private interface SessionCallable<T> {
+        T call(Session session) throws Exception;
+    }
+
     @Override
     public void auth() {
         AtomicReference<String> accessToken = new AtomicReference<>();
@@ -93,18 +132,24 @@ public class GitHubEMURESTClient implements GitHubClient<GitHubEMUSchema> {
         });
 
         try {
+            if (httpClient == null) {
+                httpClient = acquireHttpClient(configuration);
+            }
             GitHubBuilder builder = new GitHubBuilder()
-                    .withConnector(new OkHttpConnector(createClient(configuration)))
+                    .withConnector(httpClient.getConnector())
                     .withOAuthToken(accessToken.get());
 
             if (!StringUtil.isEmpty(configuration.getEndpointURL())) {
                 builder = builder.withEndpoint(configuration.getEndpointURL());
             }
 
-            apiClient = GitHubExt.build(builder);
-            lastAuthenticated = System.currentTimeMillis();
+            GitHubExt apiClient = GitHubExt.build(builder);
+            GHEnterpriseExt enterpriseApiClient = apiClient.getEnterprise(configuration.getEnterpriseSlug());
+
+            // Don't keep the access token itself as the key of the shared bulk committer
+            String credentialDigest = Base64.getEncoder().encodeToString(GitHubHttpClientRegistry.sha256(accessToken.get()));
 
-            enterpriseApiClient = apiClient.getEnterprise(configuration.getEnterpriseSlug());
+            session = new Session(apiClient, enterpriseApiClient, credentialDigest);
 
         } catch (IOException e) {
             throw new ConnectionFailedException("Failed to authenticate GitHub EMU API", e);
@@ -112,6 +157,10 @@ public class GitHubEMURESTClient implements GitHubClient<GitHubEMUSchema> {
     }
 
     protected ConnectorException handleApiException(Exception e) {
+        if (e instanceof ConnectorException) {
+            return (ConnectorException) e;
+        }
+
         String statusCode = "";
 
         if (e instanceof GHFileNotFoundException) {
@@ -157,25 +206,64 @@ public class GitHubEMURESTClient implements GitHubClient<GitHubEMUSchema> {
         return new ConnectorIOException("Failed to call GitHub EMU API", e);
     }
 
-    protected <T> T withAuth(Callable<T> callable) {
+    private Session getSession() {
+        Session current = session;
+        if (current == null) {
+            synchronized (this) {
+                current = session;
+                if (current == null) {
+                    auth();
+                    current = session;
+                }
+            }
+        }
+        return current;
+    }
+
+    private <T> T withAuth(SessionCallable<T> callable) {
         // Currently, the access token for EMU must have no expiration
         // https://docs.github.com/en/enterprise-cloud@latest/admin/managing-iam/understanding-iam-for-enterprises/getting-started-with-enterprise-managed-users#create-a-personal-access-token
-        if (lastAuthenticated != 0) {
-            auth();
-        }
+        // So we reuse the authenticated session until GitHub returns 401.
+        Session current = getSession();
 
         try {
-            return callable.call();
+            return callable.call(current);
 
         } catch (Exception e) {
-            throw handleApiException(e);
+            ConnectorException ce = handleApiException(e);
+
+            if (ce instanceof UnauthorizedException) {
+                // Rebuild the session lazily in the next call
+                LOGGER.info("[{0}] Invalidated the GitHub EMU session because the access token was rejected", instanceName);
+                synchronized (this) {
+                    if (session == current) {
+                        session = null;
+                    }
+                }
+            }
+
+            throw ce;
         }
     }
 
     @Override
     public Uid createEMUUser(SCIMEMUUser newUser) throws AlreadyExistsException {
-        return withAuth(() -> {
-            SCIMEMUUser created = enterpriseApiClient.createSCIMEMUUser(newUser);
+        return withAuth(session -> {
+            newUser.schemas = new String[]{SCIMConstants.SCIM_USER_SCHEMA};
+            SCIMBulkOperation result = submitBulk(session, SCIMBulkOperation.of("POST", "/Users", newUser));
+            if (result != null) {
+                if (result.getLocationId() != null) {
+                    return new Uid(result.getLocationId(), new Name(newUser.userName));
+                }
+                // Created without the location, so find it
+                SCIMEMUUser created = session.enterpriseApiClient.getSCIMEMUUserByUserName(newUser.userName);
+                if (created == null) {
+                    throw new ConnectorIOException("Failed to find the user created by the SCIM bulk request: " + newUser.userName);
+                }
+                return new Uid(created.id, new Name(created.userName));
+            }
+
+            SCIMEMUUser created = session.enterpriseApiClient.createSCIMEMUUser(newUser);
 
             return new Uid(created.id, new Name(created.userName));
         });
@@ -183,47 +271,159 @@ public class GitHubEMURESTClient implements GitHubClient<GitHubEMUSchema> {
 
     @Override
     public void patchEMUUser(Uid uid, SCIMPatchOperations operations) throws UnknownUidException {
-        withAuth(() -> {
-            SCIMEMUUser updated = enterpriseApiClient.updateSCIMEMUUser(uid.getUidValue(), operations);
+        withAuth(session -> {
+            if (submitBulk(session, SCIMBulkOperation.of("PATCH", "/Users/" + uid.getUidValue(), operations)) != null) {
+                return null;
+            }
+
+            SCIMEMUUser updated = session.enterpriseApiClient.updateSCIMEMUUser(uid.getUidValue(), operations);
             return updated;
         });
     }
 
     @Override
     public void deleteEMUUser(Uid uid, OperationOptions options) throws UnknownUidException {
-        withAuth(() -> {
-            enterpriseApiClient.deleteSCIMUser(uid.getUidValue());
+        withAuth(session -> {
+            if (submitBulk(session, SCIMBulkOperation.of("DELETE", "/Users/" + uid.getUidValue(), null)) != null) {
+                return null;
+            }
+
+            session.enterpriseApiClient.deleteSCIMUser(uid.getUidValue());
             return null;
         });
     }
 
+    /**
+     * Submits the operation to the SCIM bulk request which is shared with other threads.
+     *
+     * @param session   the current session
+     * @param operation the operation
+     * @return the succeeded result, or null if the bulk request isn't available and the operation must be sent by itself
+     * @throws IOException the error of the bulk request
+     */
+    private SCIMBulkOperation submitBulk(Session session, SCIMBulkOperation operation) throws IOException {
+        SCIMBulkCommitter committer = getBulkCommitter(session);
+        if (committer == null) {
+            return null;
+        }
+
+        SCIMBulkOperation result;
+        try {
+            result = committer.submit(operation, ops -> {
+                SCIMBulkResponse response = session.enterpriseApiClient.bulkSCIM(ops);
+                return response.operations;
+            });
+        } catch (GHFileNotFoundException | HttpException e) {
+            // GitHub API for Java raises GHFileNotFoundException for any error status
+            int statusCode = getResponseCode(e);
+            if (statusCode == 404 || statusCode == 405 || statusCode == 501) {
+                LOGGER.warn("[{0}] Disabled the SCIM bulk request because GitHub doesn't accept it, statusCode: {1}",
+                        instanceName, statusCode);
+                committer.disable();
+                return null;
+            }
+            // The bulk request may be applied partially, so don't send the operation again by itself
+            throw e;
+        }
+
+        if (!result.isSuccess()) {
+            throw toBulkOperationException(result);
+        }
+        return result;
+    }
+
+    private SCIMBulkCommitter getBulkCommitter(Session session) {
+        if (configuration.getScimBulkMaxOperations() <= 1) {
+            return null;
+        }
+
+        // The queued operations are sent with the leader's session, so share the committer only with the same credential
+        String key = String.join("|", String.valueOf(configuration.getEndpointURL()), configuration.getEnterpriseSlug(),
+                session.credentialDigest, String.valueOf(configuration.getScimBulkMaxOperations()),
+                String.valueOf(configuration.getScimBulkLingerMilliseconds()));
+        SCIMBulkCommitter committer = BULK_COMMITTERS.get(key);
+        if (committer == null) {
+            int maxOperations = 0;
+            try {
+                SCIMServiceProviderConfig config = session.enterpriseApiClient.getSCIMServiceProviderConfig();
+                if (config.isBulkSupported()) {
+                    maxOperations = Math.min(configuration.getScimBulkMaxOperations(), config.bulk.maxOperations);
+                }
+            } catch (IOException e) {
+                LOGGER.warn("[{0}] Failed to fetch the SCIM service provider config, the bulk request isn't used. error: {1}",
+                        instanceName, e.getMessage());
+            }
+            LOGGER.info("[{0}] The SCIM bulk request is {1}", instanceName,
+                    maxOperations > 1 ? "used with max " + maxOperations + " operations" : "not supported");
+
+            committer = new SCIMBulkCommitter(maxOperations, configuration.getScimBulkLingerMilliseconds());
+            if (maxOperations <= 1) {
+                committer.disable();
+            }
+            SCIMBulkCommitter current = BULK_COMMITTERS.putIfAbsent(key, committer);
+            if (current != null) {
+                committer = current;
+            }
+        }
+        return committer.isDisabled() ? null : committer;
+    }
+
+    private ConnectorException toBulkOperationException(SCIMBulkOperation result) {
+        String message = String.format("Failed the SCIM bulk operation %s %s: %s", result.method, result.path, result.getErrorDetail());
+        switch (result.getStatusCode()) {
+            case 400:
+                return new InvalidAttributeValueException(message);
+            case 401:
+                return new UnauthorizedException(new ConnectorSecurityException(message));
+            case 403:
+                return new PermissionDeniedException(message);
+            case 404:
+                return new UnknownUidException(message);
+            case 409:
+                return new AlreadyExistsException(message);
+            case 429:
+                return RetryableException.wrap(message, new ConnectorIOException(message));
+            default:
+                return new ConnectorIOException(message);
+        }
+    }
+
     @Override
     public SCIMEMUUser getEMUUser(Uid uid, OperationOptions options, Set<String> attributesToGet) {
-        return withAuth(() -> {
-            SCIMEMUUser scimEMUUser = enterpriseApiClient.getSCIMEMUUser(uid.getUidValue());
+        return withAuth(session -> {
+            SCIMEMUUser scimEMUUser = session.enterpriseApiClient.getSCIMEMUUser(uid.getUidValue(), toExcludedUserAttributes(attributesToGet));
             return scimEMUUser;
         });
     }
 
     @Override
     public SCIMEMUUser getEMUUser(Name name, OperationOptions options, Set<String> attributesToGet) {
-        return withAuth(() -> {
-            SCIMEMUUser scimEMUUser = enterpriseApiClient.getSCIMEMUUserByUserName(name.getNameValue());
+        return withAuth(session -> {
+            SCIMEMUUser scimEMUUser = session.enterpriseApiClient.getSCIMEMUUserByUserName(name.getNameValue(), toExcludedUserAttributes(attributesToGet));
             return scimEMUUser;
         });
     }
 
     @Override
     public int getEMUUsers(QueryHandler<SCIMEMUUser> handler, OperationOptions options, Set<String> fetchFieldsSet, int pageSize, int pageOffset) {
-        return withAuth(() -> {
-            SCIMPagedSearchIterable<SCIMEMUUser> iterable = enterpriseApiClient.listSCIMUsers(pageSize, pageOffset);
+        return withAuth(session -> {
+            SCIMPagedSearchIterable<SCIMEMUUser> iterable = session.enterpriseApiClient.listSCIMUsers(toExcludedUserAttributes(fetchFieldsSet), pageSize, pageOffset);
 
             // 0 means no offset (requested all data)
             if (pageOffset < 1) {
-                for (SCIMEMUUser next : iterable) {
-                    if (!handler.handle(next)) {
-                        break;
+                if (configuration.isScimStreamingParser()) {
+                    return iterable.stream(handler::handle);
+                }
+                iterable.withPrefetch(SharedExecutor.get(), configuration.getScimPageFetchConcurrency());
+                try {
+                    for (SCIMEMUUser next : iterable) {
+                        if (!handler.handle(next)) {
+                            break;
+                        }
                     }
+                } finally {
+                    // Cancel prefetched pages if the handler stopped
+                    iterable.close();
                 }
                 return iterable.getTotalCount();
             }
@@ -245,10 +445,88 @@ public class GitHubEMURESTClient implements GitHubClient<GitHubEMUSchema> {
         });
     }
 
+    @Override
+    public int getEMUUsers(String scimAttributePath, String scimAttributeValue, QueryHandler<SCIMEMUUser> handler, Set<String> fetchFieldsSet, int pageSize, int pageOffset) {
+        return withAuth(session -> {
+            SCIMPagedSearchIterable<SCIMEMUUser> iterable = session.enterpriseApiClient.listSCIMUsers(scimAttributePath, scimAttributeValue,
+                    toExcludedUserAttributes(fetchFieldsSet), pageSize, pageOffset);
+            return handleFilteredPage(iterable, scimAttributePath, handler, pageSize, pageOffset);
+        });
+    }
+
+    /**
+     * Returns the user attributes which can be excluded from the response because they aren't fetched.
+     *
+     * @param fetchFieldsSet the fields to fetch, or null if all fields are needed
+     * @return the excluded attributes, or null if nothing is excluded
+     */
+    static List<String> toExcludedUserAttributes(Set<String> fetchFieldsSet) {
+        if (fetchFieldsSet == null || fetchFieldsSet.contains("groups")) {
+            return null;
+        }
+        return Collections.singletonList("groups");
+    }
+
+    /**
+     * Returns the group attributes which can be excluded from the response because they aren't fetched.
+     * The members are the largest part of the group resource.
+     *
+     * @param fetchFieldsSet the fields to fetch, or null if all fields are needed
+     * @return the excluded attributes, or null if nothing is excluded
+     */
+    static List<String> toExcludedGroupAttributes(Set<String> fetchFieldsSet) {
+        if (fetchFieldsSet == null || fetchFieldsSet.stream().anyMatch(f -> f.startsWith("members"))) {
+            return null;
+        }
+        return Collections.singletonList("members");
+    }
+
+    private <T> int handleFilteredPage(SCIMPagedSearchIterable<T> iterable, String scimAttributePath, QueryHandler<T> handler,
+                                       int pageSize, int pageOffset) {
+        try {
+            int count = 0;
+            for (T next : iterable) {
+                count++;
+                if (!handler.handle(next)) {
+                    break;
+                }
+                // 0 means no offset (requested all data)
+                if (pageOffset > 0 && count >= pageSize) {
+                    break;
+                }
+            }
+            return iterable.getTotalCount();
+
+        } catch (GHException e) {
+            if (e.getCause() instanceof HttpException && ((HttpException) e.getCause()).getResponseCode() == 400) {
+                // GitHub rejects the filter which it doesn't support
+                throw new InvalidAttributeValueException("Unsupported SCIM filter by " + scimAttributePath, e.getCause());
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public int getEMUUsersModifiedSince(String lastModified, QueryHandler<SCIMEMUUser> handler, int pageSize) {
+        return withAuth(session -> {
+            SCIMPagedSearchIterable<SCIMEMUUser> iterable = session.enterpriseApiClient.listSCIMUsersModifiedSince(lastModified, pageSize);
+
+            if (configuration.isScimStreamingParser()) {
+                return iterable.stream(handler::handle);
+            }
+            for (SCIMEMUUser next : iterable) {
+                if (!handler.handle(next)) {
+                    break;
+                }
+            }
+            return iterable.getTotalCount();
+        });
+    }
+
     @Override
     public Uid createEMUGroup(GitHubEMUSchema schema, SCIMEMUGroup group) throws AlreadyExistsException {
-        return withAuth(() -> {
-            SCIMEMUGroup created = enterpriseApiClient.createSCIMEMUGroup(group);
+        return withAuth(session -> {
+            SCIMEMUGroup created = session.enterpriseApiClient.createSCIMEMUGroup(group);
 
             return new Uid(created.id, new Name(created.displayName));
         });
@@ -256,47 +534,162 @@ public class GitHubEMURESTClient implements GitHubClient<GitHubEMUSchema> {
 
     @Override
     public void patchEMUGroup(Uid uid, SCIMPatchOperations operations) throws UnknownUidException {
-        withAuth(() -> {
-            SCIMEMUGroup updated = enterpriseApiClient.updateSCIMEMUGroup(uid.getUidValue(), operations);
-            return updated;
-        });
+        List<SCIMPatchOperations> chunks = operations.split(configuration.getGroupMemberPatchChunkSize());
+        if (chunks.size() == 1) {
+            withAuth(session -> {
+                SCIMEMUGroup updated = session.enterpriseApiClient.updateSCIMEMUGroup(uid.getUidValue(), operations);
+                return updated;
+            });
+            return;
+        }
+
+        // The first chunk has the other attributes, apply it first to detect unknown group before sending the rest
+        patchEMUGroupChunk(uid, chunks.get(0));
+
+        List<SCIMPatchOperations> rest = chunks.subList(1, chunks.size());
+        Map<SCIMPatchOperations, Exception> failures = ParallelTasks.run(rest,
+                configuration.getGroupMemberPatchConcurrency(), chunk -> patchEMUGroupChunk(uid, chunk));
+
+        int applied = chunks.size() - failures.size();
+        LOGGER.ok("[{0}] Applied {1} of {2} member chunks of group {3}", instanceName, applied, chunks.size(), uid.getUidValue());
+
+        if (!failures.isEmpty()) {
+            Exception first = failures.values().iterator().next();
+            if (first instanceof UnknownUidException) {
+                throw (UnknownUidException) first;
+            }
+            int failedMembers = failures.keySet().stream().mapToInt(SCIMPatchOperations::countMembers).sum();
+            throw new ConnectorException(String.format("Failed to apply %d of %d member chunks (%d of %d members) of group %s",
+                    failures.size(), chunks.size(), failedMembers, operations.countMembers(), uid.getUidValue()), first);
+        }
+    }
+
+    private void patchEMUGroupChunk(Uid uid, SCIMPatchOperations chunk) {
+        // Adding and removing members are idempotent, so each chunk can be retried independently
+        for (int attempt = 1; ; attempt++) {
+            try {
+                withAuth(session -> session.enterpriseApiClient.updateSCIMEMUGroup(uid.getUidValue(), chunk));
+                return;
+            } catch (RetryableException | ConnectorIOException e) {
+                if (attempt >= MAX_CHUNK_ATTEMPTS) {
+                    throw e;
+                }
+                long delay = getRetryDelayMillis(e, attempt);
+                LOGGER.info("[{0}] Retrying the member chunk of group {1} ({2}/{3}) in {4} ms due to: {5}",
+                        instanceName, uid.getUidValue(), attempt, MAX_CHUNK_ATTEMPTS, delay, e.getMessage());
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the HTTP status code of the failed request.
+     *
+     * @param e the failure
+     * @return the status code, or -1 if unknown
+     */
+    static int getResponseCode(IOException e) {
+        if (e instanceof HttpException) {
+            return ((HttpException) e).getResponseCode();
+        }
+        if (e instanceof GHFileNotFoundException) {
+            Map<String, List<String>> headers = ((GHFileNotFoundException) e).getResponseHeaderFields();
+            List<String> status = headers != null ? headers.get(null) : null;
+            if (status != null && !status.isEmpty()) {
+                // e.g. "HTTP/1.1 404 Not Found"
+                String[] values = status.get(0).trim().split("\\s+");
+                if (values.length > 1) {
+                    try {
+                        return Integer.parseInt(values[1]);
+                    } catch (NumberFormatException ignore) {
+                        // Unknown format
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the delay before retrying the failed request. It's the "Retry-After" seconds if the response has it,
+     * otherwise it grows exponentially by the attempts.
+     *
+     * @param e       the failure
+     * @param attempt the number of the failed attempts
+     * @return the delay in milliseconds
+     */
+    static long getRetryDelayMillis(Exception e, int attempt) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (!(t instanceof GHFileNotFoundException)) {
+                continue;
+            }
+            Map<String, List<String>> headers = ((GHFileNotFoundException) t).getResponseHeaderFields();
+            if (headers == null) {
+                break;
+            }
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                if ("Retry-After".equalsIgnoreCase(header.getKey()) && !header.getValue().isEmpty()) {
+                    try {
+                        long seconds = Long.parseLong(header.getValue().get(0).trim());
+                        return Math.min(TimeUnit.SECONDS.toMillis(Math.max(seconds, 0)), MAX_CHUNK_RETRY_DELAY_MILLIS);
+                    } catch (NumberFormatException ignore) {
+                        // HTTP-date isn't used by GitHub, fall back to the backoff
+                    }
+                }
+            }
+        }
+        return Math.min(CHUNK_RETRY_DELAY_MILLIS << Math.min(attempt - 1, 16), MAX_CHUNK_RETRY_DELAY_MILLIS);
     }
 
     @Override
     public void deleteEMUGroup(Uid uid, OperationOptions options) throws UnknownUidException {
-        withAuth(() -> {
-            enterpriseApiClient.deleteSCIMGroup(uid.getUidValue());
+        withAuth(session -> {
+            session.enterpriseApiClient.deleteSCIMGroup(uid.getUidValue());
             return null;
         });
     }
 
     @Override
     public SCIMEMUGroup getEMUGroup(Uid uid, OperationOptions options, Set<String> attributesToGet) {
-        return withAuth(() -> {
-            SCIMEMUGroup scimEMUGroup = enterpriseApiClient.getSCIMEMUGroup(uid.getUidValue());
+        return withAuth(session -> {
+            SCIMEMUGroup scimEMUGroup = session.enterpriseApiClient.getSCIMEMUGroup(uid.getUidValue(), toExcludedGroupAttributes(attributesToGet));
             return scimEMUGroup;
         });
     }
 
     @Override
     public SCIMEMUGroup getEMUGroup(Name name, OperationOptions options, Set<String> attributesToGet) {
-        return withAuth(() -> {
-            SCIMEMUGroup scimEMUGroup = enterpriseApiClient.getSCIMEMUGroupByDisplayName(name.getNameValue());
+        return withAuth(session -> {
+            SCIMEMUGroup scimEMUGroup = session.enterpriseApiClient.getSCIMEMUGroupByDisplayName(name.getNameValue(), toExcludedGroupAttributes(attributesToGet));
             return scimEMUGroup;
         });
     }
 
     @Override
     public int getEMUGroups(QueryHandler<SCIMEMUGroup> handler, OperationOptions options, Set<String> fetchFieldsSet, int pageSize, int pageOffset) {
-        return withAuth(() -> {
-            SCIMPagedSearchIterable<SCIMEMUGroup> iterable = enterpriseApiClient.listSCIMGroups(pageSize, pageOffset);
+        return withAuth(session -> {
+            SCIMPagedSearchIterable<SCIMEMUGroup> iterable = session.enterpriseApiClient.listSCIMGroups(toExcludedGroupAttributes(fetchFieldsSet), pageSize, pageOffset);
 
             // 0 means no offset (requested all data)
             if (pageOffset < 1) {
-                for (SCIMEMUGroup next : iterable) {
-                    if (!handler.handle(next)) {
-                        break;
+                if (configuration.isScimStreamingParser()) {
+                    return iterable.stream(handler::handle);
+                }
+                iterable.withPrefetch(SharedExecutor.get(), configuration.getScimPageFetchConcurrency());
+                try {
+                    for (SCIMEMUGroup next : iterable) {
+                        if (!handler.handle(next)) {
+                            break;
+                        }
                     }
+                } finally {
+                    // Cancel prefetched pages if the handler stopped
+                    iterable.close();
                 }
                 return iterable.getTotalCount();
             }
@@ -319,6 +712,38 @@ public class GitHubEMURESTClient implements GitHubClient<GitHubEMUSchema> {
     }
 
     @Override
-    public void close() {
+    public int getEMUGroups(String scimAttributePath, String scimAttributeValue, QueryHandler<SCIMEMUGroup> handler, Set<String> fetchFieldsSet, int pageSize, int pageOffset) {
+        return withAuth(session -> {
+            SCIMPagedSearchIterable<SCIMEMUGroup> iterable = session.enterpriseApiClient.listSCIMGroups(scimAttributePath, scimAttributeValue,
+                    toExcludedGroupAttributes(fetchFieldsSet), pageSize, pageOffset);
+            return handleFilteredPage(iterable, scimAttributePath, handler, pageSize, pageOffset);
+        });
+    }
+
+    @Override
+    public int getEMUGroupsModifiedSince(String lastModified, QueryHandler<SCIMEMUGroup> handler, int pageSize) {
+        return withAuth(session -> {
+            SCIMPagedSearchIterable<SCIMEMUGroup> iterable = session.enterpriseApiClient.listSCIMGroupsModifiedSince(lastModified, pageSize);
+
+            if (configuration.isScimStreamingParser()) {
+                return iterable.stream(handler::handle);
+            }
+            for (SCIMEMUGroup next : iterable) {
+                if (!handler.handle(next)) {
+                    break;
+                }
+            }
+            return iterable.getTotalCount();
+        });
+    }
+
+    @Override
+    public synchronized void close() {
+        session = null;
+        // Release the shared HTTP client, so it's discarded when no other connector instance uses it
+        if (httpClient != null) {
+            httpClient.close();
+            httpClient = null;
+        }
     }
 }
@@ -20,12 +20,14 @@ import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import jp.openstandia.connector.github.*;
+import jp.openstandia.connector.util.ParallelTasks;
+import jp.openstandia.connector.util.SharedExecutor;
 import org.identityconnectors.common.StringUtil;
 import org.identityconnectors.common.logging.Log;
 import org.identityconnectors.framework.common.exceptions.*;
 import org.identityconnectors.framework.common.objects.*;
+import org.identityconnectors.framework.spi.SyncTokenResultsHandler;
 import org.kohsuke.github.*;
-import org.kohsuke.github.extras.okhttp3.OkHttpConnector;
 
 import java.io.IOException;
 import java.security.Key;
@@ -36,8 +38,10 @@ import java.security.spec.InvalidKeySpecException;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -54,16 +58,39 @@ public class GitHubRESTClient implements GitHubClient<GitHubSchema> {
 
     private static final Log LOGGER = Log.getLog(GitHubRESTClient.class);
 
+    static final int MAX_TEAM_MEMBERSHIP_CONCURRENCY = 10;
+
+    // The audit log actions which change the user's attributes or associations
+    static final Set<String> USER_AUDIT_LOG_ACTIONS = new HashSet<>(Arrays.asList(
+            "org.add_member", "org.remove_member", "org.update_member",
+            "team.add_member", "team.remove_member", "team.promote_maintainer", "team.demote_maintainer",
+            "external_identity.provision", "external_identity.update", "user.rename"));
+    // The audit log actions which change the team's attributes
+    static final Set<String> TEAM_AUDIT_LOG_ACTIONS = new HashSet<>(Arrays.asList(
+            "team.create", "team.destroy", "team.rename", "team.change_parent_team", "team.change_privacy"));
+
+    // Team directory per endpoint, credentials and organization
+    private static final ConcurrentMap<String, TeamDirectory> TEAM_DIRECTORIES = new ConcurrentHashMap<>();
+    // Team directory key => number of the team changes by the connector, which is also the lock for loading it
+    private static final ConcurrentMap<String, AtomicLong> TEAM_DIRECTORY_VERSIONS = new ConcurrentHashMap<>();
+
     private final GitHubConfiguration configuration;
     private String instanceName;
+    private GitHubHttpClientRegistry.Lease httpClient;
     private GitHubExt apiClient;
-    private long lastAuthenticated;
+    private GitHubAppInstallationTokenManager tokenManager;
     private GHOrganizationExt orgApiClient;
 
     public GitHubRESTClient(GitHubConfiguration configuration) {
         this.configuration = configuration;
 
-        auth();
+        try {
+            auth();
+        } catch (RuntimeException e) {
+            // Release the shared resources acquired before the failure
+            close();
+            throw e;
+        }
     }
 
     public GitHubExt getApiClient() {
@@ -95,31 +122,31 @@ public class GitHubRESTClient implements GitHubClient<GitHubSchema> {
 
     @Override
     public void auth() {
-        AtomicReference<String> privateKey = new AtomicReference<>();
-        configuration.getPrivateKey().access((val) -> {
-            privateKey.set(String.valueOf(val));
-        });
-
         try {
-            // First, get app installation token
-            GitHub api = new GitHubBuilder()
-                    .withJwtToken(createJWT(configuration.getAppId(), 60000, privateKey.get()))
-                    .withConnector(new OkHttpConnector(createClient(configuration)))
-                    .build();
-            GHAppInstallation appInstallation = api.getApp().getInstallationById(configuration.getInstallationId()); // Installation Id
-
-            GHAppInstallationToken appInstallationToken = appInstallation.createToken().create();
+            if (httpClient == null) {
+                httpClient = acquireHttpClient(configuration);
+            }
+            HttpConnector connector = httpClient.getConnector();
 
-            // Then, get scoped access token by app installation token
+            // The installation token is shared with other connector instances and refreshed in background.
+            // So we build the API client once and it always uses the current token.
+            if (tokenManager == null) {
+                tokenManager = GitHubAppInstallationTokenManager.acquire(configuration, connector);
+            }
 
-            GitHubBuilder builder = new GitHubBuilder()
-                    .withConnector(new OkHttpConnector(createClient(configuration)))
-                    .withAppInstallationToken(appInstallationToken.getToken());
+            // Get app installation token first to check the configuration
+            tokenManager.getToken();
 
-            apiClient = GitHubExt.build(builder);
-            lastAuthenticated = System.currentTimeMillis();
+            if (apiClient == null) {
+                GitHubBuilder builder = new GitHubBuilder()
+                        .withConnector(connector)
+                        .withAuthorizationProvider(() -> String.format("token %s", tokenManager.getToken()));
 
-            orgApiClient = apiClient.getOrganization(configuration.getOrganizationName());
+                apiClient = GitHubExt.build(builder);
+                orgApiClient = apiClient.getOrganization(configuration.getOrganizationName())
+                        // The cost of the queries is used by the adaptive page size and the rate limit pacing
+                        .selectGraphQLRateLimit(configuration.isAdaptiveQueryPageSize() || configuration.isRateLimitPacing());
+            }
 
         } catch (IOException e) {
             throw new ConnectionFailedException("Failed to authenticate GitHub API", e);
@@ -165,12 +192,8 @@ public class GitHubRESTClient implements GitHubClient<GitHubSchema> {
     }
 
     protected <T> T withAuth(Callable<T> callable) {
-        // Check the access token expiration
-        long now = System.currentTimeMillis();
-        if (now > lastAuthenticated + TimeUnit.MINUTES.toMillis(55)) {
-            // Refresh the access token
-            auth();
-        }
+        // The access token is refreshed by the token manager before its expiration
+        String token = tokenManager.getToken();
 
         try {
             return callable.call();
@@ -180,7 +203,7 @@ public class GitHubRESTClient implements GitHubClient<GitHubSchema> {
 
             if (ce instanceof UnauthorizedException) {
                 // do re-Auth
-                auth();
+                tokenManager.invalidate(token);
 
                 try {
                     // retry
@@ -244,25 +267,92 @@ public class GitHubRESTClient implements GitHubClient<GitHubSchema> {
     public void getUsers(GitHubSchema schema, ResultsHandler handler, OperationOptions options, Set<String> attributesToGet,
                          boolean allowPartialAttributeValues, int queryPageSize) {
         withAuth(() -> {
-            orgApiClient.listExternalIdentities(queryPageSize)
-                    .forEach(u -> {
-                        // When we detect a dropped account, we need to delete it then return
-                        // not found from the organization to re-invite the account.
-                        if (u.node.isDropped()) {
-                            try {
-                                deleteUser(schema, u.node.guid, options);
-                            } catch (UnknownUidException ignore) {
-                                LOGGER.warn("Detected unknown Uid when deleting a dropped account");
-                            }
-
-                            return;
+            GraphQLPagedSearchIterable<GraphQLOrganization, GraphQLExternalIdentityEdge> iterable =
+                    orgApiClient.listExternalIdentities(queryPageSize, toExternalIdentityFields(attributesToGet))
+                            .withAdaptivePageSize(configuration.isAdaptiveQueryPageSize())
+                            .withReadAhead(SharedExecutor.get(), configuration.getGraphQLReadAheadPages());
+            boolean fetchTeams = !allowPartialAttributeValues && attributesToGet != null &&
+                    (shouldReturn(attributesToGet, ATTR_TEAMS) || shouldReturn(attributesToGet, ATTR_MAINTAINER_TEAMS));
+
+            // Fetch all team memberships at once instead of per user
+            TeamMembershipIndex teamIndex = null;
+            if (fetchTeams && configuration.isTeamMembershipIndex()) {
+                try {
+                    teamIndex = TeamMembershipIndex.crawl(orgApiClient, queryPageSize);
+                    LOGGER.ok("[{0}] Built team membership index for {1} users", instanceName, teamIndex.size());
+                } catch (IOException e) {
+                    LOGGER.warn("[{0}] Failed to build team membership index, fetching teams by users. error: {1}",
+                            instanceName, e.getMessage());
+                }
+            }
+
+            // Fetch teams of multiple users in one request instead of per user
+            int teamLookupBatchSize = configuration.getTeamLookupBatchSize();
+            boolean batchTeamLookup = fetchTeams && teamIndex == null && teamLookupBatchSize > 1;
+            List<GraphQLExternalIdentityEdge> batch = new ArrayList<>();
+            boolean more = true;
+            try {
+                for (GraphQLExternalIdentityEdge u : iterable) {
+                    // When we detect a dropped account, we need to delete it then return
+                    // not found from the organization to re-invite the account.
+                    if (u.node.isDropped()) {
+                        try {
+                            deleteUser(schema, u.node.guid, options);
+                        } catch (UnknownUidException ignore) {
+                            LOGGER.warn("Detected unknown Uid when deleting a dropped account");
                         }
-                        handler.handle(toConnectorObject(schema, null, u, attributesToGet, allowPartialAttributeValues, queryPageSize));
-                    });
+
+                        continue;
+                    }
+                    if (!batchTeamLookup) {
+                        more = handler.handle(toConnectorObject(schema, null, u, attributesToGet, allowPartialAttributeValues, queryPageSize, teamIndex));
+                    } else {
+                        batch.add(u);
+                        if (batch.size() >= teamLookupBatchSize) {
+                            more = handleUsers(schema, handler, batch, attributesToGet, queryPageSize);
+                            batch.clear();
+                        }
+                    }
+                    if (!more) {
+                        break;
+                    }
+                }
+                if (more && !batch.isEmpty()) {
+                    handleUsers(schema, handler, batch, attributesToGet, queryPageSize);
+                }
+            } finally {
+                // Stop the read-ahead if the handler stopped
+                iterable.close();
+            }
             return null;
         });
     }
 
+    private boolean handleUsers(GitHubSchema schema, ResultsHandler handler, List<GraphQLExternalIdentityEdge> users,
+                                Set<String> attributesToGet, int queryPageSize) {
+        List<String> userLogins = users.stream()
+                .filter(u -> u.node.user != null && u.node.user.login != null)
+                .map(u -> u.node.user.login)
+                .collect(Collectors.toList());
+
+        TeamMembershipIndex teamIndex = null;
+        if (!userLogins.isEmpty()) {
+            try {
+                teamIndex = TeamMembershipIndex.of(orgApiClient.listTeamsByMembers(userLogins, queryPageSize));
+            } catch (IOException | GHException e) {
+                LOGGER.warn("[{0}] Failed to fetch teams for {1} users in batch, fetching them per user. error: {2}",
+                        instanceName, userLogins.size(), e.getMessage());
+            }
+        }
+
+        for (GraphQLExternalIdentityEdge u : users) {
+            if (!handler.handle(toConnectorObject(schema, null, u, attributesToGet, false, queryPageSize, teamIndex))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public void getUser(GitHubSchema schema, Uid uid, ResultsHandler handler, OperationOptions options,
                         Set<String> attributesToGet, boolean allowPartialAttributeValues, int queryPageSize) {
@@ -305,6 +395,7 @@ public class GitHubRESTClient implements GitHubClient<GitHubSchema> {
     public List<String> getTeamIdsByUsername(String userLogin, int pageSize) {
         return withAuth(() -> {
             return orgApiClient.listTeams(userLogin, pageSize)
+                    .withAdaptivePageSize(configuration.isAdaptiveQueryPageSize())
                     .toList().stream()
                     .filter(t -> t.node.members.totalCount == 1)
                     .map(GitHubUtils::toTeamUid)
@@ -323,11 +414,12 @@ public class GitHubRESTClient implements GitHubClient<GitHubSchema> {
         return toConnectorObject(schema, queryLogin, user.id, user.userName, scimEmail,
                 scimGivenName, scimFamilyName,
                 null, // Can't fetch it from SCIMUser endpoint
-                attributesToGet, allowPartialAttributeValues, queryPageSize);
+                attributesToGet, allowPartialAttributeValues, queryPageSize, null);
     }
 
     private ConnectorObject toConnectorObject(GitHubSchema schema, String queryLogin, GraphQLExternalIdentityEdge user,
-                                              Set<String> attributesToGet, boolean allowPartialAttributeValues, int queryPageSize) {
+                                              Set<String> attributesToGet, boolean allowPartialAttributeValues, int queryPageSize,
+                                              TeamMembershipIndex teamIndex) {
         GraphQLExternalIdentityScimAttributes scimAttrs = user.node.scimIdentity;
 
         final String scimEmail = (scimAttrs.emails != null && scimAttrs.emails.length > 0) ? scimAttrs.emails[0].value : null;
@@ -336,13 +428,14 @@ public class GitHubRESTClient implements GitHubClient<GitHubSchema> {
         return toConnectorObject(schema, queryLogin, user.node.guid, scimAttrs.username, scimEmail,
                 scimAttrs.givenName, scimAttrs.familyName,
                 login,
-                attributesToGet, allowPartialAttributeValues, queryPageSize);
+                attributesToGet, allowPartialAttributeValues, queryPageSize, teamIndex);
     }
 
     private ConnectorObject toConnectorObject(GitHubSchema schema, String queryLogin, String scimUserId, String scimUserName, String scimEmail,
                                               String scimGivenName, String scimFamilyName,
                                               String login,
-                                              Set<String> attributesToGet, boolean allowPartialAttributeValues, int queryPageSize) {
+                                              Set<String> attributesToGet, boolean allowPartialAttributeValues, int queryPageSize,
+                                              TeamMembershipIndex teamIndex) {
         final ConnectorObjectBuilder builder = new ConnectorObjectBuilder()
                 .setObjectClass(USER_OBJECT_CLASS)
                 // Always returns "scimUserId"
@@ -411,32 +504,40 @@ public class GitHubRESTClient implements GitHubClient<GitHubSchema> {
             // Fetch teams
             LOGGER.ok("[{0}] Fetching teams/maintainer teams because attributes to get is requested", instanceName);
 
-            try {
-                // Fetch teams by user's login name
-                // It's supported by GraphQL API only...
-                // If the user is not found in the organization (leave by self or change their login name), the GraphAPI returns all teams unfortunately.
-                // That's why we do filtering by totalCount == 1 here.
-                List<GraphQLTeamEdge> allTeams = orgApiClient.listTeams(userLogin, queryPageSize)
-                        .toList().stream()
-                        .filter(t -> t.node.members.totalCount == 1)
-                        .collect(Collectors.toList());
-
-                List<String> memberTeams = allTeams.stream()
-                        .filter(t -> t.node.members.edges[0].role == GraphQLTeamMemberRole.MEMBER)
-                        .map(GitHubUtils::toTeamUid)
-                        .collect(Collectors.toList());
-
-                List<String> maintainerTeams = allTeams.stream()
-                        .filter(t -> t.node.members.edges[0].role == GraphQLTeamMemberRole.MAINTAINER)
-                        .map(GitHubUtils::toTeamUid)
-                        .collect(Collectors.toList());
-
-                builder.addAttribute(ATTR_TEAMS, memberTeams);
-                builder.addAttribute(ATTR_MAINTAINER_TEAMS, maintainerTeams);
+            if (teamIndex != null && teamIndex.covers(userLogin)) {
+                // Already fetched with other users
+                builder.addAttribute(ATTR_TEAMS, teamIndex.getTeams(userLogin, GraphQLTeamMemberRole.MEMBER));
+                builder.addAttribute(ATTR_MAINTAINER_TEAMS, teamIndex.getTeams(userLogin, GraphQLTeamMemberRole.MAINTAINER));
 
-            } catch (IOException ignore) {
-                LOGGER.warn("Failed to fetch GitHub organization membership for user: {0}, error: {1}", userLogin, ignore.getMessage());
-                // Ignore the error, IDM try to reconcile the memberships
+            } else {
+                try {
+                    // Fetch teams by user's login name
+                    // It's supported by GraphQL API only...
+                    // If the user is not found in the organization (leave by self or change their login name), the GraphAPI returns all teams unfortunately.
+                    // That's why we do filtering by totalCount == 1 here.
+                    List<GraphQLTeamEdge> allTeams = orgApiClient.listTeams(userLogin, queryPageSize)
+                            .withAdaptivePageSize(configuration.isAdaptiveQueryPageSize())
+                            .toList().stream()
+                            .filter(t -> t.node.members.totalCount == 1)
+                            .collect(Collectors.toList());
+
+                    List<String> memberTeams = allTeams.stream()
+                            .filter(t -> t.node.members.edges[0].role == GraphQLTeamMemberRole.MEMBER)
+                            .map(GitHubUtils::toTeamUid)
+                            .collect(Collectors.toList());
+
+                    List<String> maintainerTeams = allTeams.stream()
+                            .filter(t -> t.node.members.edges[0].role == GraphQLTeamMemberRole.MAINTAINER)
+                            .map(GitHubUtils::toTeamUid)
+                            .collect(Collectors.toList());
+
+                    builder.addAttribute(ATTR_TEAMS, memberTeams);
+                    builder.addAttribute(ATTR_MAINTAINER_TEAMS, maintainerTeams);
+
+                } catch (IOException ignore) {
+                    LOGGER.warn("Failed to fetch GitHub organization membership for user: {0}, error: {1}", userLogin, ignore.getMessage());
+                    // Ignore the error, IDM try to reconcile the memberships
+                }
             }
         }
 
@@ -490,31 +591,102 @@ public class GitHubRESTClient implements GitHubClient<GitHubSchema> {
 
     @Override
     public void assignTeams(String login, String teamRole, Collection<String> teams) {
-        withAuth(() -> {
-            for (String team : teams) {
-                try {
-                    GHTeam.Role role = GHTeam.Role.valueOf(teamRole.toUpperCase());
+        updateTeamMemberships(login, Collections.emptyList(), toTeamMembershipChanges(teams, toGHTeamRole(teamRole)));
+    }
+
+    @Override
+    public void unassignTeams(String login, Collection<String> teams) {
+        updateTeamMemberships(login, teams, Collections.emptyList());
+    }
 
-                    orgApiClient.addTeamMembership(getTeamDatabaseId(team), login, role);
+    @Override
+    public void updateTeamMemberships(String login, Collection<String> removeTeams, Collection<String> addTeams,
+                                      Collection<String> addMaintainerTeams) {
+        List<TeamMembershipChange> adds = new ArrayList<>(toTeamMembershipChanges(addTeams, GHTeam.Role.MEMBER));
+        adds.addAll(toTeamMembershipChanges(addMaintainerTeams, GHTeam.Role.MAINTAINER));
 
-                } catch (IllegalArgumentException e) {
-                    throw new InvalidAttributeValueException("Invalid teamRole: " + teamRole);
-                }
-            }
+        updateTeamMemberships(login, removeTeams, adds);
+    }
 
+    private void updateTeamMemberships(String login, Collection<String> removeTeams, List<TeamMembershipChange> adds) {
+        List<TeamMembershipChange> changes = new ArrayList<>(toTeamMembershipChanges(removeTeams, null));
+        changes.addAll(adds);
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        // The secondary rate limit is handled by the abuse limit handler of each request,
+        // but limit the concurrency not to trigger it so often
+        int concurrency = Math.min(configuration.getTeamMembershipConcurrency(), MAX_TEAM_MEMBERSHIP_CONCURRENCY);
+
+        applyTeamMembershipChanges(instanceName, login, changes, concurrency, change -> withAuth(() -> {
+            if (change.role == null) {
+                orgApiClient.removeTeamMembership(getTeamDatabaseId(change.team), login);
+            } else {
+                orgApiClient.addTeamMembership(getTeamDatabaseId(change.team), login, change.role);
+            }
             return null;
-        });
+        }));
     }
 
-    @Override
-    public void unassignTeams(String login, Collection<String> teams) {
-        withAuth(() -> {
-            for (String team : teams) {
-                orgApiClient.removeTeamMembership(getTeamDatabaseId(team), login);
-            }
+    /**
+     * Applies all team membership changes of the user concurrently, then reports the failures at once.
+     *
+     * @param instanceName the connector instance name for logging
+     * @param login        the user login
+     * @param changes      the changes to apply
+     * @param concurrency  the max number of the concurrent requests
+     * @param update       the task to apply one change
+     */
+    static void applyTeamMembershipChanges(String instanceName, String login, List<TeamMembershipChange> changes,
+                                           int concurrency, ParallelTasks.Task<TeamMembershipChange> update) {
+        Map<TeamMembershipChange, Exception> failures = ParallelTasks.run(changes, concurrency, update);
+
+        if (failures.isEmpty()) {
+            return;
+        }
 
-            return null;
-        });
+        Exception first = failures.values().iterator().next();
+        if (failures.size() == 1 && first instanceof ConnectorException) {
+            throw (ConnectorException) first;
+        }
+        String teams = failures.entrySet().stream()
+                .map(e -> e.getKey().team + ": " + e.getValue().getMessage())
+                .collect(Collectors.joining(", "));
+        LOGGER.info("[{0}] Failed to update {1} of {2} team memberships of {3}: {4}",
+                instanceName, failures.size(), changes.size(), login, teams);
+
+        if (failures.values().stream().allMatch(e -> e instanceof UnknownUidException)) {
+            // Probably the user login is stale, IDM handles it to do discovery process
+            throw (UnknownUidException) first;
+        }
+        throw new ConnectorException(String.format("Failed to update %d of %d team memberships of %s: %s",
+                failures.size(), changes.size(), login, teams), first);
+    }
+
+    private static GHTeam.Role toGHTeamRole(String teamRole) {
+        try {
+            return GHTeam.Role.valueOf(teamRole.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidAttributeValueException("Invalid teamRole: " + teamRole);
+        }
+    }
+
+    private static List<TeamMembershipChange> toTeamMembershipChanges(Collection<String> teams, GHTeam.Role role) {
+        return teams.stream()
+                .map(team -> new TeamMembershipChange(team, role))
+                .collect(Collectors.toList());
+    }
+
+    static class TeamMembershipChange {
+        final String team;
+        // null means removing the membership
+        final GHTeam.Role role;
+
+        TeamMembershipChange(String team, GHTeam.Role role) {
+            this.team = team;
+            this.role = role;
+        }
     }
 
     @Override
@@ -535,6 +707,17 @@ public class GitHubRESTClient implements GitHubClient<GitHubSchema> {
 
             GHTeam created = builder.create();
 
+            TeamDirectory directory = changeTeamDirectory();
+            if (directory != null) {
+                TeamDirectory.Entry parent = parentTeamDatabaseId != null ? directory.findByDatabaseId(parentTeamDatabaseId) : null;
+                if (parentTeamDatabaseId != null && parent == null) {
+                    // Can't resolve the parent, reload the directory in the next lookup
+                    invalidateTeamDirectory();
+                } else {
+                    directory.put(TeamDirectory.Entry.of(created, parent != null ? parent.uid : null));
+                }
+            }
+
             // To use for REST API and GraphQL API, we combine databaseId and nodeId
             return new Uid(toTeamUid(created), new Name(created.getName()));
         });
@@ -549,7 +732,12 @@ public class GitHubRESTClient implements GitHubClient<GitHubSchema> {
                 ghPrivacy = toGHTeamPrivacy(privacy);
             }
 
-            GHTeam updated = orgApiClient.updateTeam(getTeamDatabaseId(uid), teamName, description, ghPrivacy, parentTeamId, clearParent);
+            GHTeamExt updated = orgApiClient.updateTeam(getTeamDatabaseId(uid), teamName, description, ghPrivacy, parentTeamId, clearParent);
+
+            TeamDirectory directory = changeTeamDirectory();
+            if (directory != null) {
+                directory.put(TeamDirectory.Entry.of(updated, updated.getParent() != null ? toTeamUid(updated.getParent()) : null));
+            }
 
             return new Uid(toTeamUid(updated), new Name(updated.getName()));
         });
@@ -560,6 +748,11 @@ public class GitHubRESTClient implements GitHubClient<GitHubSchema> {
         withAuth(() -> {
             orgApiClient.deleteTeam(getTeamDatabaseId(uid));
 
+            TeamDirectory directory = changeTeamDirectory();
+            if (directory != null) {
+                directory.remove(getTeamDatabaseId(uid));
+            }
+
             return null;
         });
     }
@@ -579,8 +772,22 @@ public class GitHubRESTClient implements GitHubClient<GitHubSchema> {
     @Override
     public void getTeam(GitHubSchema schema, Uid uid, ResultsHandler handler, OperationOptions options, Set<String> attributesToGet, boolean allowPartialAttributeValues, int queryPageSize) {
         withAuth(() -> {
+            TeamDirectory directory = getTeamDirectory();
+            if (directory != null) {
+                TeamDirectory.Entry entry = directory.findByUid(uid.getUidValue());
+                if (entry != null) {
+                    handler.handle(toTeamConnectorObject(schema, entry, attributesToGet, allowPartialAttributeValues, queryPageSize));
+                    return null;
+                }
+            }
+
             GHTeamExt team = orgApiClient.getTeam(getTeamDatabaseId(uid));
 
+            if (directory != null) {
+                // Created by others after loading the directory
+                directory.put(TeamDirectory.Entry.of(team, team.getParent() != null ? toTeamUid(team.getParent()) : null));
+            }
+
             handler.handle(toTeamConnectorObject(schema, team, attributesToGet, allowPartialAttributeValues, queryPageSize));
 
             return null;
@@ -590,11 +797,24 @@ public class GitHubRESTClient implements GitHubClient<GitHubSchema> {
     @Override
     public void getTeam(GitHubSchema schema, Name name, ResultsHandler handler, OperationOptions options, Set<String> attributesToGet, boolean allowPartialAttributeValues, int queryPageSize) {
         withAuth(() -> {
+            TeamDirectory directory = getTeamDirectory();
+            if (directory != null) {
+                TeamDirectory.Entry entry = directory.findByName(name.getNameValue());
+                if (entry != null) {
+                    handler.handle(toTeamConnectorObject(schema, entry, attributesToGet, allowPartialAttributeValues, queryPageSize));
+                    return null;
+                }
+            }
+
             PagedIterator<GraphQLTeamEdge> iter = orgApiClient.findTeam(name.getNameValue(), queryPageSize).iterator();
             while (iter.hasNext()) {
                 GraphQLTeamEdge team = iter.next();
                 if (team.node.name.equalsIgnoreCase(name.getNameValue())) {
                     // Found
+                    if (directory != null) {
+                        // Created by others after loading the directory
+                        directory.put(TeamDirectory.Entry.of(team.node));
+                    }
                     handler.handle(toTeamConnectorObject(schema, team, attributesToGet, allowPartialAttributeValues, queryPageSize));
 
                     break;
@@ -625,6 +845,113 @@ public class GitHubRESTClient implements GitHubClient<GitHubSchema> {
                 attributesToGet, allowPartialAttributeValues, queryPageSize);
     }
 
+    private ConnectorObject toTeamConnectorObject(GitHubSchema schema, TeamDirectory.Entry team, Set<String> attributesToGet, boolean allowPartialAttributeValues, long queryPageSize) {
+        return toTeamConnectorObject(schema, team.uid, team.databaseId, team.nodeId, team.name, team.slug,
+                team.description, team.privacy, team.parentUid,
+                attributesToGet, allowPartialAttributeValues, queryPageSize);
+    }
+
+    /**
+     * Returns the team directory of the organization, loading it if it's not loaded yet or expired.
+     *
+     * @return the team directory or null if it's disabled or teams were changed while loading it
+     * @throws IOException API error
+     */
+    private TeamDirectory getTeamDirectory() throws IOException {
+        if (configuration.getTeamDirectoryCacheTTLSeconds() <= 0) {
+            return null;
+        }
+        TeamDirectory directory = getCurrentTeamDirectory();
+        if (directory != null) {
+            return directory;
+        }
+
+        String key = getTeamDirectoryKey();
+        AtomicLong version = TEAM_DIRECTORY_VERSIONS.computeIfAbsent(key, k -> new AtomicLong());
+
+        // Only the callers loading the same directory wait, and the map isn't locked while loading
+        synchronized (version) {
+            directory = getCurrentTeamDirectory();
+            if (directory != null) {
+                return directory;
+            }
+
+            long start = System.currentTimeMillis();
+            long loadedVersion = version.get();
+            TeamDirectory loaded = new TeamDirectory(orgApiClient.listTeamsExt().withPageSize(100),
+                    TimeUnit.SECONDS.toMillis(configuration.getTeamDirectoryCacheTTLSeconds()), start);
+
+            TEAM_DIRECTORIES.put(key, loaded);
+            // Check after publishing, the later changes are applied to the published one
+            if (version.get() != loadedVersion) {
+                LOGGER.ok("[{0}] Discarded the team directory because teams were changed while loading it", instanceName);
+                TEAM_DIRECTORIES.remove(key, loaded);
+                return null;
+            }
+
+            LOGGER.ok("[{0}] Loaded the team directory with {1} teams in {2} ms",
+                    instanceName, loaded.size(), System.currentTimeMillis() - start);
+            return loaded;
+        }
+    }
+
+    /**
+     * Records the change of teams by the connector, then returns the current team directory to apply it.
+     *
+     * @return the team directory or null if it's not loaded
+     */
+    private TeamDirectory changeTeamDirectory() {
+        if (configuration.getTeamDirectoryCacheTTLSeconds() <= 0) {
+            return null;
+        }
+        // The directory being loaded may miss the change
+        TEAM_DIRECTORY_VERSIONS.computeIfAbsent(getTeamDirectoryKey(), k -> new AtomicLong()).incrementAndGet();
+        return getCurrentTeamDirectory();
+    }
+
+    private TeamDirectory getCurrentTeamDirectory() {
+        if (configuration.getTeamDirectoryCacheTTLSeconds() <= 0) {
+            return null;
+        }
+        TeamDirectory directory = TEAM_DIRECTORIES.get(getTeamDirectoryKey());
+        if (directory == null || directory.isExpired(System.currentTimeMillis())) {
+            return null;
+        }
+        return directory;
+    }
+
+    /**
+     * Removes the deleted team from the team directory. The expired directory is also used
+     * because it's the only place which still knows the Uid of the team.
+     *
+     * @param slug the slug of the deleted team
+     * @return the removed team or null if it's not found
+     */
+    private TeamDirectory.Entry removeFromTeamDirectory(String slug) {
+        if (configuration.getTeamDirectoryCacheTTLSeconds() <= 0) {
+            return null;
+        }
+        TeamDirectory directory = TEAM_DIRECTORIES.get(getTeamDirectoryKey());
+        if (directory == null) {
+            return null;
+        }
+        TeamDirectory.Entry team = directory.findBySlug(slug);
+        if (team != null) {
+            directory.remove(team.databaseId);
+        }
+        return team;
+    }
+
+    private void invalidateTeamDirectory() {
+        TEAM_DIRECTORIES.remove(getTeamDirectoryKey());
+    }
+
+    private String getTeamDirectoryKey() {
+        // The visible teams depend on the endpoint and the credentials
+        return String.join("|", apiClient.getApiUrl(), tokenManager.getCredentialDigest(),
+                configuration.getOrganizationName().toLowerCase());
+    }
+
     private ConnectorObject toTeamConnectorObject(GitHubSchema schema, GraphQLTeamEdge teamEdge, Set<String> attributesToGet, boolean allowPartialAttributeValues, long queryPageSize) {
         GraphQLTeam team = teamEdge.node;
 
@@ -677,11 +1004,205 @@ public class GitHubRESTClient implements GitHubClient<GitHubSchema> {
         return builder.build();
     }
 
+    @Override
+    public SyncToken getLatestAuditLogSyncToken() {
+        return withAuth(() -> {
+            PagedIterator<GHAuditLogEvent> iter = orgApiClient.listAuditLog(null, "desc").withPageSize(1).iterator();
+            if (iter.hasNext()) {
+                return AuditLogCursor.of(iter.next()).toSyncToken();
+            }
+            return new AuditLogCursor(System.currentTimeMillis(), null).toSyncToken();
+        });
+    }
+
+    @Override
+    public void syncUsers(GitHubSchema schema, SyncToken token, SyncResultsHandler handler, OperationOptions options,
+                          Set<String> attributesToGet, boolean allowPartialAttributeValues, int queryPageSize) {
+        if (token == null) {
+            // Start from the latest event
+            commitSyncToken(handler, getLatestAuditLogSyncToken());
+            return;
+        }
+
+        withAuth(() -> {
+            AuditLogCursor since = AuditLogCursor.of(token);
+            List<GHAuditLogEvent> events = fetchAuditLog(since, queryPageSize, "action:org", "action:team", "action:external_identity", "action:user.rename");
+
+            // Emit each user once with the latest event
+            Map<String, GHAuditLogEvent> latest = new LinkedHashMap<>();
+            for (GHAuditLogEvent event : events) {
+                if (event.user != null && USER_AUDIT_LOG_ACTIONS.contains(event.action)) {
+                    latest.remove(event.user);
+                    latest.put(event.user, event);
+                }
+            }
+
+            for (GHAuditLogEvent event : latest.values()) {
+                // The Uid is the external identity which doesn't change by user.rename, so the renamed login
+                // is emitted as the new name of the same user
+                GraphQLExternalIdentityEdge identity = findExternalIdentity(event.user, queryPageSize, attributesToGet);
+                if (identity == null) {
+                    // Not provisioned by SCIM or not linked yet, getUsers doesn't return it with the login either
+                    LOGGER.ok("[{0}] Skip the audit log event {1} for user {2} because the external identity isn't found",
+                            instanceName, event.action, event.user);
+                    continue;
+                }
+
+                SyncDeltaBuilder builder = new SyncDeltaBuilder()
+                        .setToken(AuditLogCursor.of(event).toSyncToken());
+                if (identity.node.isDropped()) {
+                    // Removed from the organization, getUsers doesn't return it anymore
+                    builder.setDeltaType(SyncDeltaType.DELETE)
+                            .setObjectClass(USER_OBJECT_CLASS)
+                            .setUid(new Uid(identity.node.guid));
+                } else {
+                    builder.setDeltaType(SyncDeltaType.CREATE_OR_UPDATE)
+                            .setObject(toConnectorObject(schema, null, identity, attributesToGet, allowPartialAttributeValues, queryPageSize, null));
+                }
+                if (!handler.handle(builder.build())) {
+                    return null;
+                }
+            }
+
+            if (!events.isEmpty()) {
+                commitSyncToken(handler, AuditLogCursor.of(events.get(events.size() - 1)).toSyncToken());
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void syncTeams(GitHubSchema schema, SyncToken token, SyncResultsHandler handler, OperationOptions options,
+                          Set<String> attributesToGet, boolean allowPartialAttributeValues, int queryPageSize) {
+        if (token == null) {
+            // Start from the latest event
+            commitSyncToken(handler, getLatestAuditLogSyncToken());
+            return;
+        }
+
+        withAuth(() -> {
+            AuditLogCursor since = AuditLogCursor.of(token);
+            List<GHAuditLogEvent> events = fetchAuditLog(since, queryPageSize, "action:team");
+
+            // Emit each team once with the latest event
+            Map<String, GHAuditLogEvent> latest = new LinkedHashMap<>();
+            for (GHAuditLogEvent event : events) {
+                if (event.team != null && TEAM_AUDIT_LOG_ACTIONS.contains(event.action)) {
+                    String key = event.team.toLowerCase();
+                    latest.remove(key);
+                    latest.put(key, event);
+                }
+            }
+
+            for (Map.Entry<String, GHAuditLogEvent> entry : latest.entrySet()) {
+                GHAuditLogEvent event = entry.getValue();
+                SyncDeltaBuilder builder = new SyncDeltaBuilder()
+                        .setToken(AuditLogCursor.of(event).toSyncToken());
+
+                String slug = entry.getKey().substring(entry.getKey().indexOf('/') + 1);
+                if (event.action.equals("team.destroy")) {
+                    // The audit log has only the slug of the destroyed team, resolve its Uid by the team directory
+                    TeamDirectory.Entry team = removeFromTeamDirectory(slug);
+                    if (team == null) {
+                        LOGGER.warn("[{0}] Skip the deleted team {1} because its Uid is unknown, IDM needs reconciliation to detect it",
+                                instanceName, event.team);
+                        continue;
+                    }
+                    builder.setDeltaType(SyncDeltaType.DELETE)
+                            .setObjectClass(TEAM_OBJECT_CLASS)
+                            .setUid(new Uid(team.uid));
+
+                } else {
+                    GHTeamExt team;
+                    try {
+                        team = orgApiClient.getTeamBySlug(slug);
+                    } catch (GHFileNotFoundException e) {
+                        // Renamed or deleted after the event
+                        LOGGER.ok("[{0}] Skip the audit log event {1} for team {2} because the team isn't found",
+                                instanceName, event.action, event.team);
+                        continue;
+                    }
+                    builder.setDeltaType(SyncDeltaType.CREATE_OR_UPDATE)
+                            .setObject(toTeamConnectorObject(schema, team, attributesToGet, allowPartialAttributeValues, queryPageSize));
+                }
+
+                if (!handler.handle(builder.build())) {
+                    return null;
+                }
+            }
+
+            if (!events.isEmpty()) {
+                commitSyncToken(handler, AuditLogCursor.of(events.get(events.size() - 1)).toSyncToken());
+            }
+            return null;
+        });
+    }
+
+    private List<GHAuditLogEvent> fetchAuditLog(AuditLogCursor since, int pageSize, String... actionQualifiers) {
+        List<GHAuditLogEvent> events = new ArrayList<>();
+        for (String actionQualifier : actionQualifiers) {
+            // The audit log allows up to 100 events per page
+            orgApiClient.listAuditLog(actionQualifier + " " + since.toCreatedQualifier(), "asc")
+                    .withPageSize(Math.min(pageSize, 100))
+                    .forEach(event -> {
+                        if (since.isBefore(event)) {
+                            events.add(event);
+                        }
+                    });
+        }
+        events.sort(AuditLogCursor::compare);
+        return events;
+    }
+
+    /**
+     * Returns the optional GraphQL fields of the external identity which are needed for the attributes to get.
+     *
+     * @param attributesToGet the attributes to get, or null if all attributes are needed
+     * @return the fields to select
+     */
+    static Set<GraphQLExternalIdentityField> toExternalIdentityFields(Set<String> attributesToGet) {
+        Set<GraphQLExternalIdentityField> fields = EnumSet.noneOf(GraphQLExternalIdentityField.class);
+        if (shouldReturn(attributesToGet, ATTR_SCIM_EMAIL)) {
+            fields.add(GraphQLExternalIdentityField.SCIM_EMAILS);
+        }
+        if (shouldReturn(attributesToGet, ATTR_SCIM_GIVEN_NAME)) {
+            fields.add(GraphQLExternalIdentityField.SCIM_GIVEN_NAME);
+        }
+        if (shouldReturn(attributesToGet, ATTR_SCIM_FAMILY_NAME)) {
+            fields.add(GraphQLExternalIdentityField.SCIM_FAMILY_NAME);
+        }
+        return fields;
+    }
+
+    private GraphQLExternalIdentityEdge findExternalIdentity(String userLogin, int queryPageSize, Set<String> attributesToGet) throws IOException {
+        for (GraphQLExternalIdentityEdge edge : orgApiClient.findExternalIdentity(userLogin, queryPageSize, toExternalIdentityFields(attributesToGet))) {
+            if (edge.node.user != null && userLogin.equalsIgnoreCase(edge.node.user.login)) {
+                return edge;
+            }
+        }
+        return null;
+    }
+
+    private void commitSyncToken(SyncResultsHandler handler, SyncToken token) {
+        if (handler instanceof SyncTokenResultsHandler) {
+            ((SyncTokenResultsHandler) handler).handleResult(token);
+        }
+    }
+
     @Override
     public void close() {
+        // Release the shared resources, so they are discarded when no other connector instance uses them
+        if (tokenManager != null) {
+            tokenManager.release();
+            tokenManager = null;
+        }
+        if (httpClient != null) {
+            httpClient.close();
+            httpClient = null;
+        }
     }
 
-    private static PrivateKey get(String privateKeyPEM) {
+    static PrivateKey loadPrivateKey(String privateKeyPEM) {
         Optional<PKCS8EncodedKeySpec> keySpec = PKCS1PEMKey.loadKeySpec(privateKeyPEM.getBytes());
 
         if (!keySpec.isPresent()) {
@@ -697,15 +1218,16 @@ public class GitHubRESTClient implements GitHubClient<GitHubSchema> {
     }
 
     public static String createJWT(String githubAppId, long ttlMillis, String privateKeyPEM) {
+        return createJWT(githubAppId, ttlMillis, loadPrivateKey(privateKeyPEM));
+    }
+
+    public static String createJWT(String githubAppId, long ttlMillis, Key signingKey) {
         //The JWT signature algorithm we will be using to sign the token
         SignatureAlgorithm signatureAlgorithm = SignatureAlgorithm.RS256;
 
         long nowMillis = System.currentTimeMillis();
         Date now = new Date(nowMillis);
 
-        //We will sign our JWT with our private key
-        Key signingKey = get(privateKeyPEM);
-
         //Let's set the JWT Claims
         JwtBuilder builder = Jwts.builder()
                 .setIssuedAt(now)
@@ -0,0 +1,211 @@
+/*
+ *  Copyright Nomura Research Institute, Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package jp.openstandia.connector.github.rest;
+
+import org.kohsuke.github.SCIMBulkOperation;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.*;
+
+/**
+ * Group commit queue of SCIM operations which are sent together by SCIM bulk requests.
+ * <p>
+ * The operations submitted by concurrent threads are queued, and the first thread becomes the leader which waits
+ * for the linger time (or until the queue is full), then sends the queued operations in one bulk request
+ * on behalf of the others. After that, the leadership is handed over to the next queued operation.
+ * Each thread receives the result of its own operation.
+ *
+ * @author Hiroyuki Wada
+ */
+public class SCIMBulkCommitter {
+
+    /**
+     * Sends the bulk request.
+     */
+    public interface Sender {
+        List<SCIMBulkOperation> send(List<SCIMBulkOperation> operations) throws IOException;
+    }
+
+    private final int maxOperations;
+    private final long lingerMillis;
+    private final Deque<Pending> queue = new ArrayDeque<>();
+    private boolean leaderActive;
+    private volatile boolean disabled;
+
+    public SCIMBulkCommitter(int maxOperations, long lingerMillis) {
+        this.maxOperations = maxOperations;
+        this.lingerMillis = lingerMillis;
+    }
+
+    public boolean isDisabled() {
+        return disabled;
+    }
+
+    /**
+     * Disables the bulk request, e.g. when the endpoint turns out not to support it.
+     */
+    public void disable() {
+        disabled = true;
+    }
+
+    /**
+     * Submits the operation and waits for its result.
+     *
+     * @param operation the operation
+     * @param sender    the sender which is used if the current thread becomes the leader
+     * @return the result of the operation
+     * @throws IOException the error of the bulk request
+     */
+    public SCIMBulkOperation submit(SCIMBulkOperation operation, Sender sender) throws IOException {
+        Pending pending = new Pending(operation);
+        List<Pending> batch = new ArrayList<>();
+
+        synchronized (this) {
+            queue.addLast(pending);
+            if (!leaderActive) {
+                leaderActive = true;
+                pending.leader = true;
+            } else if (queue.size() >= maxOperations) {
+                // Wake up the leader
+                notifyAll();
+            }
+
+            try {
+                while (!pending.leader && !pending.done) {
+                    wait();
+                }
+                if (pending.done) {
+                    return pending.getResult();
+                }
+
+                // Leader: wait for other operations
+                long deadline = System.currentTimeMillis() + lingerMillis;
+                long remaining;
+                while (queue.size() < maxOperations && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                    wait(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (queue.remove(pending)) {
+                    if (pending.leader) {
+                        handOver();
+                    }
+                    throw new InterruptedIOException("Interrupted while waiting for the bulk request");
+                }
+                // Already taken by the leader, so wait for the result without interruption
+                while (!pending.done) {
+                    try {
+                        wait();
+                    } catch (InterruptedException ignore) {
+                        // Keep the interrupted status
+                    }
+                }
+                return pending.getResult();
+            }
+
+            while (!queue.isEmpty() && batch.size() < maxOperations) {
+                batch.add(queue.pollFirst());
+            }
+        }
+
+        try {
+            send(batch, sender);
+        } finally {
+            synchronized (this) {
+                handOver();
+            }
+        }
+        return pending.getResult();
+    }
+
+    // Must be called with the lock
+    private void handOver() {
+        if (queue.isEmpty()) {
+            leaderActive = false;
+        } else {
+            queue.peekFirst().leader = true;
+        }
+        notifyAll();
+    }
+
+    private void send(List<Pending> batch, Sender sender) {
+        List<SCIMBulkOperation> operations = new ArrayList<>(batch.size());
+        Map<String, Pending> byBulkId = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Pending p = batch.get(i);
+            p.operation.bulkId = "op" + i;
+            operations.add(p.operation);
+            byBulkId.put(p.operation.bulkId, p);
+        }
+
+        try {
+            List<SCIMBulkOperation> results = sender.send(operations);
+            if (results != null) {
+                for (int i = 0; i < results.size(); i++) {
+                    SCIMBulkOperation result = results.get(i);
+                    // The bulkId is returned for POST only in the spec, so match by the order for others
+                    Pending p = result.bulkId != null ? byBulkId.get(result.bulkId) : (i < batch.size() ? batch.get(i) : null);
+                    if (p != null) {
+                        p.result = result;
+                    }
+                }
+            }
+            for (Pending p : batch) {
+                if (p.result == null) {
+                    p.error = new IOException("No result of the bulk operation: " + p.operation.method + " " + p.operation.path);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            for (Pending p : batch) {
+                p.error = e;
+            }
+        } finally {
+            // Release the waiting threads even if the sender fails with an Error
+            synchronized (this) {
+                for (Pending p : batch) {
+                    if (p.result == null && p.error == null) {
+                        p.error = new IOException("Aborted the bulk operation: " + p.operation.method + " " + p.operation.path);
+                    }
+                    p.done = true;
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    private static class Pending {
+        final SCIMBulkOperation operation;
+        boolean leader;
+        boolean done;
+        SCIMBulkOperation result;
+        Exception error;
+
+        Pending(SCIMBulkOperation operation) {
+            this.operation = operation;
+        }
+
+        SCIMBulkOperation getResult() throws IOException {
+            if (error instanceof IOException) {
+                throw (IOException) error;
+            }
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ *  Copyright Nomura Research Institute, Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package jp.openstandia.connector.github.rest;
+
+import org.kohsuke.github.GHTeam;
+import org.kohsuke.github.GHTeamExt;
+import org.kohsuke.github.GraphQLTeam;
+import org.kohsuke.github.GraphQLTeamPrivacy;
+
+import java.util.*;
+
+import static jp.openstandia.connector.github.GitHubUtils.getTeamDatabaseId;
+import static jp.openstandia.connector.github.GitHubUtils.toTeamUid;
+
+/**
+ * In-memory directory of all teams of an organization with the indexes by name, slug and database id.
+ * <p>
+ * The directory is loaded at once and expires after the TTL. The teams created, updated or deleted
+ * by the connector are applied to the directory incrementally, so the following lookups see them without reloading.
+ * The names and slugs are case-insensitive in GitHub.
+ *
+ * @author Hiroyuki Wada
+ */
+public class TeamDirectory {
+
+    private final Map<String, Entry> byName = new HashMap<>();
+    private final Map<String, Entry> bySlug = new HashMap<>();
+    private final Map<Long, Entry> byDatabaseId = new HashMap<>();
+    private final long expiresAt;
+
+    public TeamDirectory(Iterable<GHTeamExt> teams, long ttlMillis, long now) {
+        for (GHTeamExt team : teams) {
+            put(Entry.of(team, team.getParent() != null ? toTeamUid(team.getParent()) : null));
+        }
+        this.expiresAt = now + ttlMillis;
+    }
+
+    public synchronized boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+
+    public synchronized Entry findByName(String name) {
+        return byName.get(name.toLowerCase());
+    }
+
+    public synchronized Entry findBySlug(String slug) {
+        return bySlug.get(slug.toLowerCase());
+    }
+
+    public synchronized Entry findByDatabaseId(long databaseId) {
+        return byDatabaseId.get(databaseId);
+    }
+
+    /**
+     * Finds the team by the Uid (databaseId:nodeId).
+     *
+     * @param uid the Uid value
+     * @return the team or null if not found
+     */
+    public synchronized Entry findByUid(String uid) {
+        Entry entry = byDatabaseId.get(getTeamDatabaseId(uid));
+        if (entry == null || !entry.uid.equals(uid)) {
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Adds or replaces the team.
+     *
+     * @param entry the team
+     */
+    public synchronized void put(Entry entry) {
+        unindex(byDatabaseId.remove(entry.databaseId));
+
+        byName.put(entry.name.toLowerCase(), entry);
+        bySlug.put(entry.slug.toLowerCase(), entry);
+        byDatabaseId.put(entry.databaseId, entry);
+    }
+
+    /**
+     * Removes the team.
+     *
+     * @param databaseId the database id of the team
+     */
+    public synchronized void remove(long databaseId) {
+        Entry old = byDatabaseId.remove(databaseId);
+        if (old == null) {
+            return;
+        }
+        unindex(old);
+
+        // The children of the deleted team become the root teams
+        for (Entry e : new ArrayList<>(byDatabaseId.values())) {
+            if (old.uid.equals(e.parentUid)) {
+                put(e.withParent(null));
+            }
+        }
+    }
+
+    private void unindex(Entry old) {
+        if (old == null) {
+            return;
+        }
+        byName.remove(old.name.toLowerCase(), old);
+        bySlug.remove(old.slug.toLowerCase(), old);
+    }
+
+    public synchronized int size() {
+        return byDatabaseId.size();
+    }
+
+    public static class Entry {
+        public final String uid;
+        public final long databaseId;
+        public final String nodeId;
+        public final String name;
+        public final String slug;
+        public final String description;
+        public final GraphQLTeamPrivacy privacy;
+        public final String parentUid;
+
+        public Entry(String uid, long databaseId, String nodeId, String name, String slug, String description,
+                     GraphQLTeamPrivacy privacy, String parentUid) {
+            this.uid = uid;
+            this.databaseId = databaseId;
+            this.nodeId = nodeId;
+            this.name = name;
+            this.slug = slug;
+            this.description = description;
+            this.privacy = privacy;
+            this.parentUid = parentUid;
+        }
+
+        public static Entry of(GHTeam team, String parentUid) {
+            GraphQLTeamPrivacy privacy = team.getPrivacy() == GHTeam.Privacy.SECRET ?
+                    GraphQLTeamPrivacy.SECRET : GraphQLTeamPrivacy.VISIBLE;
+            return new Entry(toTeamUid(team), team.getId(), team.getNodeId(), team.getName(), team.getSlug(),
+                    team.getDescription(), privacy, parentUid);
+        }
+
+        public static Entry of(GraphQLTeam team) {
+            return new Entry(toTeamUid(team), team.databaseId, team.id, team.name, team.slug,
+                    team.description, team.privacy, team.parentTeam != null ? toTeamUid(team.parentTeam) : null);
+        }
+
+        Entry withParent(String parentUid) {
+            return new Entry(uid, databaseId, nodeId, name, slug, description, privacy, parentUid);
+        }
+    }
+}
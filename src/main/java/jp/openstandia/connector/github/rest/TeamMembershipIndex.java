@@ -0,0 +1,138 @@
+/*
+ *  Copyright Nomura Research Institute, Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package jp.openstandia.connector.github.rest;
+
+import jp.openstandia.connector.github.GitHubUtils;
+import org.kohsuke.github.GHOrganizationExt;
+import org.kohsuke.github.GraphQLTeam;
+import org.kohsuke.github.GraphQLTeamEdge;
+import org.kohsuke.github.GraphQLTeamMemberRole;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Inverted index of team memberships (user login to teams) which is used while listing users.
+ * <p>
+ * Each membership is encoded into an int as "team index * 2 + role" and the team Uids are held once,
+ * so the index stays small even for organizations with many teams and members.
+ *
+ * @author Hiroyuki Wada
+ */
+public class TeamMembershipIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final List<String> teamUids = new ArrayList<>();
+    private final Map<String, Integer> teamIndexes = new HashMap<>();
+    private final Map<String, int[]> memberships = new HashMap<>();
+    // Number of memberships per login while building
+    private final Map<String, Integer> sizes = new HashMap<>();
+    // If true, the logins which aren't in the index don't belong to any teams
+    private final boolean complete;
+
+    private TeamMembershipIndex(boolean complete) {
+        this.complete = complete;
+    }
+
+    /**
+     * Builds the index by walking all teams of the organization.
+     *
+     * @param orgApiClient organization API client
+     * @param pageSize     page size of the teams
+     * @return the complete index
+     * @throws IOException API error
+     */
+    public static TeamMembershipIndex crawl(GHOrganizationExt orgApiClient, int pageSize) throws IOException {
+        TeamMembershipIndex index = new TeamMembershipIndex(true);
+        orgApiClient.crawlTeamMemberships(pageSize, (team, member) ->
+                index.add(member.node.login, team, member.role));
+        index.trim();
+        return index;
+    }
+
+    /**
+     * Builds the index from the teams fetched by members.
+     *
+     * @param teamsByLogin teams keyed by user login
+     * @return the index which covers the given logins only
+     */
+    public static TeamMembershipIndex of(Map<String, List<GraphQLTeamEdge>> teamsByLogin) {
+        TeamMembershipIndex index = new TeamMembershipIndex(false);
+        teamsByLogin.forEach((login, teams) -> {
+            index.memberships.put(login, EMPTY);
+            // If the user is not found in the organization, the GraphAPI returns all teams unfortunately.
+            // That's why we do filtering by totalCount == 1 here.
+            teams.stream()
+                    .filter(t -> t.node.members.totalCount == 1)
+                    .forEach(t -> index.add(login, t.node, t.node.members.edges[0].role));
+        });
+        index.trim();
+        return index;
+    }
+
+    private void add(String login, GraphQLTeam team, GraphQLTeamMemberRole role) {
+        String teamUid = GitHubUtils.toTeamUid(team);
+        Integer teamIndex = teamIndexes.get(teamUid);
+        if (teamIndex == null) {
+            teamIndex = teamUids.size();
+            teamUids.add(teamUid);
+            teamIndexes.put(teamUid, teamIndex);
+        }
+
+        int[] values = memberships.getOrDefault(login, EMPTY);
+        int size = sizes.getOrDefault(login, 0);
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(4, size * 2));
+            memberships.put(login, values);
+        }
+        values[size] = (teamIndex << 1) | (role == GraphQLTeamMemberRole.MAINTAINER ? 1 : 0);
+        sizes.put(login, size + 1);
+    }
+
+    private void trim() {
+        sizes.forEach((login, size) -> memberships.computeIfPresent(login, (k, v) -> Arrays.copyOf(v, size)));
+        sizes.clear();
+        teamIndexes.clear();
+    }
+
+    /**
+     * Returns true if the index knows the teams of the user.
+     *
+     * @param login user login
+     * @return true if the index knows the teams of the user
+     */
+    public boolean covers(String login) {
+        return complete || memberships.containsKey(login);
+    }
+
+    public List<String> getTeams(String login, GraphQLTeamMemberRole role) {
+        int flag = role == GraphQLTeamMemberRole.MAINTAINER ? 1 : 0;
+        int[] values = memberships.getOrDefault(login, EMPTY);
+
+        List<String> teams = new ArrayList<>(values.length);
+        for (int value : values) {
+            if ((value & 1) == flag) {
+                teams.add(teamUids.get(value >>> 1));
+            }
+        }
+        return teams;
+    }
+
+    public int size() {
+        return memberships.size();
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ *  Copyright Nomura Research Institute, Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package jp.openstandia.connector.util;
+
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.common.exceptions.ConnectorIOException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Snapshot store which persists the snapshots into append-only journal files, so live synchronization
+ * can detect the deleted objects after restarting the connector server.
+ * <p>
+ * Each save appends only the difference from the previous snapshot as one commit:
+ * <pre>
+ * T	token
+ * P	id	lastModified
+ * D	id
+ * C
+ * </pre>
+ * The "T" line is written as "N" if the token is null.
+ * Each commit is forced to the storage device before saving returns, so it isn't lost by a crash.
+ * A commit without the trailing "C" line (e.g. the process was killed while writing) is ignored on loading,
+ * and the journal is rewritten without it so the next commit doesn't follow a broken line.
+ * The journal is compacted into one commit when it grows larger than {@link #COMPACTION_RATIO} times of the entries.
+ *
+ * @author Hiroyuki Wada
+ */
+public class FileSnapshotStore implements SnapshotStore {
+
+    private static final Log LOGGER = Log.getLog(FileSnapshotStore.class);
+
+    private static final ConcurrentMap<Path, FileSnapshotStore> INSTANCES = new ConcurrentHashMap<>();
+
+    static final int COMPACTION_RATIO = 4;
+
+    private static final String TOKEN = "T";
+    private static final String NO_TOKEN = "N";
+    private static final String PUT = "P";
+    private static final String DELETE = "D";
+    private static final String COMMIT = "C";
+
+    private final Path directory;
+    // Loaded snapshots and the number of lines in the journal keyed by the snapshot key
+    private final Map<String, SyncSnapshot> snapshots = new HashMap<>();
+    private final Map<String, Long> journalLines = new HashMap<>();
+
+    FileSnapshotStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the store for the directory. The instance is shared by the connector instances
+     * to serialize the writes to the same journal.
+     *
+     * @param directory the directory of the journals
+     * @return the store
+     */
+    public static FileSnapshotStore getInstance(Path directory) {
+        return INSTANCES.computeIfAbsent(directory.toAbsolutePath().normalize(), FileSnapshotStore::new);
+    }
+
+    @Override
+    public synchronized SyncSnapshot load(String key) {
+        SyncSnapshot snapshot = snapshots.get(key);
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        Path journal = toJournalPath(key);
+        if (!Files.exists(journal)) {
+            return null;
+        }
+
+        try {
+            snapshot = replay(key, journal);
+        } catch (IOException e) {
+            throw new ConnectorIOException("Failed to load the snapshot from " + journal, e);
+        }
+        if (snapshot != null) {
+            snapshots.put(key, snapshot);
+        }
+        return snapshot;
+    }
+
+    @Override
+    public synchronized void save(String key, SyncSnapshot snapshot) {
+        SyncSnapshot current = load(key);
+        Path journal = toJournalPath(key);
+
+        try {
+            Files.createDirectories(directory);
+
+            long lines = journalLines.getOrDefault(key, 0L);
+            if (current == null || lines > (long) COMPACTION_RATIO * (snapshot.size() + 1)) {
+                compact(journal, snapshot);
+                journalLines.put(key, snapshot.size() + 2L);
+            } else {
+                journalLines.put(key, lines + append(journal, current, snapshot));
+            }
+        } catch (IOException e) {
+            throw new ConnectorIOException("Failed to save the snapshot into " + journal, e);
+        }
+
+        snapshots.put(key, snapshot);
+    }
+
+    private SyncSnapshot replay(String key, Path journal) throws IOException {
+        Map<String, String> committed = null;
+        String committedToken = null;
+        Map<String, String> entries = new HashMap<>();
+        String token = null;
+        long lines = 0;
+        long committedLines = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines++;
+                String[] values = line.split("\t", -1);
+                if (!isValid(values)) {
+                    // Truncated by a crash, the following lines can't be trusted
+                    LOGGER.warn("Stopped loading at the broken line {0} of the snapshot journal {1}", lines, journal);
+                    break;
+                }
+                switch (values[0]) {
+                    case TOKEN:
+                    case NO_TOKEN:
+                        entries = committed != null ? new HashMap<>(committed) : new HashMap<>();
+                        token = values[0].equals(TOKEN) ? values[1] : null;
+                        break;
+                    case PUT:
+                        entries.put(values[1], values[2].isEmpty() ? null : values[2]);
+                        break;
+                    case DELETE:
+                        entries.remove(values[1]);
+                        break;
+                    default:
+                        committed = entries;
+                        committedToken = token;
+                        committedLines = lines;
+                }
+            }
+        }
+
+        if (committed == null) {
+            // Nothing is committed, start over
+            Files.delete(journal);
+            journalLines.put(key, 0L);
+            return null;
+        }
+
+        SyncSnapshot snapshot = new SyncSnapshot(committedToken, committed);
+        if (committedLines < lines) {
+            // Drop the uncommitted tail, otherwise the next commit is appended after a partial line
+            compact(journal, snapshot);
+            journalLines.put(key, snapshot.size() + 2L);
+        } else {
+            journalLines.put(key, lines);
+        }
+        return snapshot;
+    }
+
+    private static boolean isValid(String[] values) {
+        switch (values[0]) {
+            case TOKEN:
+            case DELETE:
+                return values.length == 2;
+            case PUT:
+                return values.length == 3;
+            case NO_TOKEN:
+            case COMMIT:
+                return values.length == 1;
+            default:
+                return false;
+        }
+    }
+
+    private long append(Path journal, SyncSnapshot current, SyncSnapshot snapshot) throws IOException {
+        long lines = 2;
+        try (FileChannel channel = FileChannel.open(journal,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+             BufferedWriter writer = newWriter(channel)) {
+            writeToken(writer, snapshot.getToken());
+            for (Map.Entry<String, String> entry : snapshot.getEntries().entrySet()) {
+                if (!current.getEntries().containsKey(entry.getKey())
+                        || !Objects.equals(current.getEntries().get(entry.getKey()), entry.getValue())) {
+                    writeLine(writer, PUT, entry.getKey(), entry.getValue());
+                    lines++;
+                }
+            }
+            for (String id : current.getEntries().keySet()) {
+                if (!snapshot.getEntries().containsKey(id)) {
+                    writeLine(writer, DELETE, id);
+                    lines++;
+                }
+            }
+            writeLine(writer, COMMIT);
+
+            writer.flush();
+            channel.force(false);
+        }
+        return lines;
+    }
+
+    private void compact(Path journal, SyncSnapshot snapshot) throws IOException {
+        Path temp = journal.resolveSibling(journal.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             BufferedWriter writer = newWriter(channel)) {
+            writeToken(writer, snapshot.getToken());
+            for (Map.Entry<String, String> entry : snapshot.getEntries().entrySet()) {
+                writeLine(writer, PUT, entry.getKey(), entry.getValue());
+            }
+            writeLine(writer, COMMIT);
+
+            writer.flush();
+            channel.force(false);
+        }
+        Files.move(temp, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+    }
+
+    private void syncDirectory() {
+        // Persist the rename, but opening a directory isn't supported on some platforms (e.g. Windows)
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            LOGGER.ok("Failed to sync the snapshot directory {0}: {1}", directory, e.getMessage());
+        }
+    }
+
+    private static BufferedWriter newWriter(FileChannel channel) {
+        return new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1));
+    }
+
+    private static void writeToken(BufferedWriter writer, String token) throws IOException {
+        if (token == null) {
+            writeLine(writer, NO_TOKEN);
+        } else {
+            writeLine(writer, TOKEN, token);
+        }
+    }
+
+    private static void writeLine(BufferedWriter writer, String... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write('\t');
+            }
+            if (values[i] != null) {
+                writer.write(values[i]);
+            }
+        }
+        writer.write('\n');
+    }
+
+    Path toJournalPath(String key) {
+        // The key contains the endpoint URL, so use the hash of it as the file name
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest.digest(key.getBytes(StandardCharsets.UTF_8))) {
+                sb.append(String.format("%02x", b));
+            }
+            return directory.resolve(sb + ".journal");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
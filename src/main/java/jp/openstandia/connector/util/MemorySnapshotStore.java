@@ -0,0 +1,49 @@
+/*
+ *  Copyright Nomura Research Institute, Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package jp.openstandia.connector.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Process-wide snapshot store in memory.
+ * The snapshots are lost when the connector is reloaded, then the next sync can't detect deleted objects.
+ *
+ * @author Hiroyuki Wada
+ */
+public class MemorySnapshotStore implements SnapshotStore {
+
+    private static final MemorySnapshotStore INSTANCE = new MemorySnapshotStore();
+
+    private final ConcurrentMap<String, SyncSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    private MemorySnapshotStore() {
+    }
+
+    public static MemorySnapshotStore getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public SyncSnapshot load(String key) {
+        return snapshots.get(key);
+    }
+
+    @Override
+    public void save(String key, SyncSnapshot snapshot) {
+        snapshots.put(key, snapshot);
+    }
+}
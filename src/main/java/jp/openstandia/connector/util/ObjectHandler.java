@@ -52,6 +52,11 @@ public interface ObjectHandler {
         return 0;
     }
 
+    default int getBySCIMFilter(String scimAttributePath, String scimAttributeValue, ResultsHandler resultsHandler, OperationOptions options,
+                                Set<String> returnAttributesSet, Set<String> fetchFieldSet, boolean allowPartialAttributeValues, int pageSize, int pageOffset) {
+        throw new UnsupportedOperationException();
+    }
+
     default int getAll(ResultsHandler resultsHandler, OperationOptions options,
                        Set<String> returnAttributesSet, Set<String> fetchFieldsSet,
                        boolean allowPartialAttributeValues, int pageSize, int pageOffset) {
@@ -62,6 +67,16 @@ public interface ObjectHandler {
         throw new UnsupportedOperationException();
     }
 
+    default void sync(SyncToken token, SyncResultsHandler resultsHandler, OperationOptions options,
+                      Set<String> returnAttributesSet, Set<String> fetchFieldsSet,
+                      boolean allowPartialAttributeValues, int pageSize) {
+        throw new UnsupportedOperationException();
+    }
+
+    default SyncToken getLatestSyncToken(int pageSize) {
+        throw new UnsupportedOperationException();
+    }
+
     default <T> ConnectorObject toConnectorObject(SchemaDefinition schema, T user,
                                                   Set<String> returnAttributesSet, boolean allowPartialAttributeValues) {
         ConnectorObjectBuilder builder = schema.toConnectorObjectBuilder(user, returnAttributesSet, allowPartialAttributeValues);
@@ -0,0 +1,102 @@
+/*
+ *  Copyright Nomura Research Institute, Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package jp.openstandia.connector.util;
+
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs a task for each item with bounded concurrency on the {@link SharedExecutor}.
+ * <p>
+ * All items are processed even if some of them fail, and the failures are returned together
+ * so the caller can report the partial progress.
+ *
+ * @author Hiroyuki Wada
+ */
+public class ParallelTasks {
+
+    private ParallelTasks() {
+    }
+
+    @FunctionalInterface
+    public interface Task<T> {
+        void run(T item) throws Exception;
+    }
+
+    /**
+     * Runs the task for each item.
+     *
+     * @param items       the items
+     * @param concurrency the max number of tasks in flight. 1 or less runs the tasks in the caller thread
+     * @param task        the task
+     * @param <T>         the type of the item
+     * @return the failures keyed by the item in the order of the items
+     */
+    public static <T> Map<T, Exception> run(List<T> items, int concurrency, Task<T> task) {
+        Map<T, Exception> failures = new LinkedHashMap<>();
+
+        if (concurrency <= 1 || items.size() <= 1) {
+            for (T item : items) {
+                try {
+                    task.run(item);
+                } catch (Exception e) {
+                    failures.put(item, e);
+                }
+            }
+            return failures;
+        }
+
+        CompletionService<Void> completion = new ExecutorCompletionService<>(SharedExecutor.get());
+        Map<Future<Void>, T> inFlight = new HashMap<>();
+        Iterator<T> remaining = items.iterator();
+
+        try {
+            while (remaining.hasNext() || !inFlight.isEmpty()) {
+                while (remaining.hasNext() && inFlight.size() < concurrency) {
+                    T item = remaining.next();
+                    inFlight.put(completion.submit(() -> {
+                        task.run(item);
+                        return null;
+                    }), item);
+                }
+
+                Future<Void> done = completion.take();
+                T item = inFlight.remove(done);
+                try {
+                    done.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    failures.put(item, cause instanceof Exception ? (Exception) cause : new ConnectorException(cause));
+                }
+            }
+        } catch (InterruptedException e) {
+            inFlight.keySet().forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new ConnectorException("Interrupted while waiting for the parallel tasks", e);
+        }
+
+        // Keep the order of the items
+        Map<T, Exception> ordered = new LinkedHashMap<>();
+        for (T item : items) {
+            if (failures.containsKey(item)) {
+                ordered.put(item, failures.get(item));
+            }
+        }
+        return ordered;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ *  Copyright Nomura Research Institute, Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package jp.openstandia.connector.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Snapshot of the objects at a sync token, which is used for detecting deleted objects.
+ * It holds the id and the last modified timestamp of each object.
+ *
+ * @author Hiroyuki Wada
+ */
+public class SyncSnapshot {
+
+    private final String token;
+    private final Map<String, String> entries;
+
+    public SyncSnapshot(String token, Map<String, String> entries) {
+        this.token = token;
+        this.entries = Collections.unmodifiableMap(new HashMap<>(entries));
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Returns the last modified timestamps keyed by the object id.
+     *
+     * @return the entries
+     */
+    public Map<String, String> getEntries() {
+        return entries;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,33 @@
+package org.kohsuke.github;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Represents an event of the organization audit log.
+ *
+ * @author Hiroyuki Wada
+ */
+public class GHAuditLogEvent {
+    @JsonProperty("@timestamp")
+    public long timestamp;
+
+    @JsonProperty("_document_id")
+    public String documentId;
+
+    @JsonProperty("action")
+    public String action;
+
+    @JsonProperty("actor")
+    public String actor;
+
+    // The login of the affected user
+    @JsonProperty("user")
+    public String user;
+
+    // "org/team-slug"
+    @JsonProperty("team")
+    public String team;
+
+    @JsonProperty("org")
+    public String org;
+}
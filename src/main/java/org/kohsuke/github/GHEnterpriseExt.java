@@ -2,9 +2,9 @@ package org.kohsuke.github;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -23,10 +23,7 @@ public class GHEnterpriseExt extends GHOrganization {
     public SCIMEMUUser createSCIMEMUUser(SCIMEMUUser newUser) throws IOException {
         newUser.schemas = new String[]{SCIMConstants.SCIM_USER_SCHEMA};
 
-        String json = mapper.writeValueAsString(newUser);
-        byte[] jsonBytes = json.getBytes();
-
-        try (InputStream inputStream = new ByteArrayInputStream(jsonBytes)) {
+        try (InputStream inputStream = JsonRequestBody.of(mapper, newUser)) {
             SCIMEMUUser u = root.createRequest()
                     .method("POST")
                     .withHeader(SCIMConstants.HEADER_CONTENT_TYPE, SCIMConstants.SCIM_CONTENT_TYPE)
@@ -40,10 +37,7 @@ public class GHEnterpriseExt extends GHOrganization {
     }
 
     public SCIMEMUUser updateSCIMEMUUser(String scimUserId, SCIMPatchOperations operations) throws IOException {
-        String json = mapper.writeValueAsString(operations);
-        byte[] jsonBytes = json.getBytes();
-
-        try (InputStream inputStream = new ByteArrayInputStream(jsonBytes)) {
+        try (InputStream inputStream = JsonRequestBody.of(mapper, operations)) {
             SCIMEMUUser u = root.createRequest()
                     .method("PATCH")
                     .withHeader(SCIMConstants.HEADER_CONTENT_TYPE, SCIMConstants.SCIM_CONTENT_TYPE)
@@ -57,16 +51,28 @@ public class GHEnterpriseExt extends GHOrganization {
     }
 
     public SCIMEMUUser getSCIMEMUUser(String scimUserId) throws IOException {
-        SCIMEMUUser u = root.createRequest()
+        return getSCIMEMUUser(scimUserId, null);
+    }
+
+    public SCIMEMUUser getSCIMEMUUser(String scimUserId, Collection<String> excludedAttributes) throws IOException {
+        Requester req = root.createRequest()
                 .withHeader(SCIMConstants.HEADER_ACCEPT, SCIMConstants.SCIM_ACCEPT)
                 .withHeader(SCIMConstants.HEADER_API_VERSION, SCIMConstants.GITHUB_API_VERSION)
-                .withUrlPath(String.format("/scim/v2/enterprises/%s/Users/%s", login, scimUserId))
-                .fetch(SCIMEMUUser.class);
+                .withUrlPath(String.format("/scim/v2/enterprises/%s/Users/%s", login, scimUserId));
+        if (excludedAttributes != null && !excludedAttributes.isEmpty()) {
+            req.with("excludedAttributes", String.join(",", excludedAttributes));
+        }
+        SCIMEMUUser u = req.fetch(SCIMEMUUser.class);
         return u;
     }
 
     public SCIMEMUUser getSCIMEMUUserByUserName(String scimUserName) throws IOException {
+        return getSCIMEMUUserByUserName(scimUserName, null);
+    }
+
+    public SCIMEMUUser getSCIMEMUUserByUserName(String scimUserName, Collection<String> excludedAttributes) throws IOException {
         List<SCIMEMUUser> list = searchSCIMUsers()
+                .excludedAttributes(excludedAttributes)
                 .eq("userName", scimUserName)
                 .list()
                 .toList();
@@ -90,6 +96,25 @@ public class GHEnterpriseExt extends GHOrganization {
         return searchSCIMUsers().list().withPageSize(pageSize).withPageOffset(pageOffset);
     }
 
+    public SCIMPagedSearchIterable<SCIMEMUUser> listSCIMUsers(Collection<String> excludedAttributes, int pageSize, int pageOffset)
+            throws IOException {
+        return ((SCIMPagedSearchIterable<SCIMEMUUser>) searchSCIMUsers().excludedAttributes(excludedAttributes).list())
+                .withPageSize(pageSize).withPageOffset(pageOffset);
+    }
+
+    public SCIMPagedSearchIterable<SCIMEMUUser> listSCIMUsers(String attributePath, String value, Collection<String> excludedAttributes,
+                                                         int pageSize, int pageOffset)
+            throws IOException {
+        return ((SCIMPagedSearchIterable<SCIMEMUUser>) searchSCIMUsers().excludedAttributes(excludedAttributes).eq(attributePath, value).list())
+                .withPageSize(pageSize).withPageOffset(pageOffset);
+    }
+
+    public SCIMPagedSearchIterable<SCIMEMUUser> listSCIMUsersModifiedSince(String lastModified, int pageSize)
+            throws IOException {
+        return ((SCIMPagedSearchIterable<SCIMEMUUser>) searchSCIMUsers().ge("meta.lastModified", lastModified).list())
+                .withPageSize(pageSize);
+    }
+
     public void deleteSCIMUser(String scimUserId) throws IOException {
         root.createRequest()
                 .method("DELETE")
@@ -99,13 +124,31 @@ public class GHEnterpriseExt extends GHOrganization {
                 .send();
     }
 
+    public SCIMServiceProviderConfig getSCIMServiceProviderConfig() throws IOException {
+        return root.createRequest()
+                .withHeader(SCIMConstants.HEADER_ACCEPT, SCIMConstants.SCIM_ACCEPT)
+                .withHeader(SCIMConstants.HEADER_API_VERSION, SCIMConstants.GITHUB_API_VERSION)
+                .withUrlPath(String.format("/scim/v2/enterprises/%s/ServiceProviderConfig", login))
+                .fetch(SCIMServiceProviderConfig.class);
+    }
+
+    public SCIMBulkResponse bulkSCIM(List<SCIMBulkOperation> operations) throws IOException {
+        try (InputStream inputStream = JsonRequestBody.of(mapper, new SCIMBulkRequest(operations))) {
+            return root.createRequest()
+                    .method("POST")
+                    .withHeader(SCIMConstants.HEADER_CONTENT_TYPE, SCIMConstants.SCIM_CONTENT_TYPE)
+                    .withHeader(SCIMConstants.HEADER_ACCEPT, SCIMConstants.SCIM_ACCEPT)
+                    .withHeader(SCIMConstants.HEADER_API_VERSION, SCIMConstants.GITHUB_API_VERSION)
+                    .with(inputStream)
+                    .withUrlPath(String.format("/scim/v2/enterprises/%s/Bulk", login))
+                    .fetch(SCIMBulkResponse.class);
+        }
+    }
+
     public SCIMEMUGroup createSCIMEMUGroup(SCIMEMUGroup newGroup) throws IOException {
         newGroup.schemas = new String[]{SCIMConstants.SCIM_GROUP_SCHEMA};
 
-        String json = mapper.writeValueAsString(newGroup);
-        byte[] jsonBytes = json.getBytes();
-
-        try (InputStream inputStream = new ByteArrayInputStream(jsonBytes)) {
+        try (InputStream inputStream = JsonRequestBody.of(mapper, newGroup)) {
             SCIMEMUGroup g = root.createRequest()
                     .method("POST")
                     .withHeader(SCIMConstants.HEADER_CONTENT_TYPE, SCIMConstants.SCIM_CONTENT_TYPE)
@@ -119,10 +162,7 @@ public class GHEnterpriseExt extends GHOrganization {
     }
 
     public SCIMEMUGroup updateSCIMEMUGroup(String scimGroupId, SCIMPatchOperations operations) throws IOException {
-        String json = mapper.writeValueAsString(operations);
-        byte[] jsonBytes = json.getBytes();
-
-        try (InputStream inputStream = new ByteArrayInputStream(jsonBytes)) {
+        try (InputStream inputStream = JsonRequestBody.of(mapper, operations)) {
             SCIMEMUGroup g = root.createRequest()
                     .method("PATCH")
                     .withHeader(SCIMConstants.HEADER_CONTENT_TYPE, SCIMConstants.SCIM_CONTENT_TYPE)
@@ -136,16 +176,28 @@ public class GHEnterpriseExt extends GHOrganization {
     }
 
     public SCIMEMUGroup getSCIMEMUGroup(String scimGroupId) throws IOException {
-        SCIMEMUGroup g = root.createRequest()
+        return getSCIMEMUGroup(scimGroupId, null);
+    }
+
+    public SCIMEMUGroup getSCIMEMUGroup(String scimGroupId, Collection<String> excludedAttributes) throws IOException {
+        Requester req = root.createRequest()
                 .withHeader(SCIMConstants.HEADER_ACCEPT, SCIMConstants.SCIM_ACCEPT)
                 .withHeader(SCIMConstants.HEADER_API_VERSION, SCIMConstants.GITHUB_API_VERSION)
-                .withUrlPath(String.format("/scim/v2/enterprises/%s/Groups/%s", login, scimGroupId))
-                .fetch(SCIMEMUGroup.class);
+                .withUrlPath(String.format("/scim/v2/enterprises/%s/Groups/%s", login, scimGroupId));
+        if (excludedAttributes != null && !excludedAttributes.isEmpty()) {
+            req.with("excludedAttributes", String.join(",", excludedAttributes));
+        }
+        SCIMEMUGroup g = req.fetch(SCIMEMUGroup.class);
         return g;
     }
 
     public SCIMEMUGroup getSCIMEMUGroupByDisplayName(String scimGroupDisplayName) throws IOException {
+        return getSCIMEMUGroupByDisplayName(scimGroupDisplayName, null);
+    }
+
+    public SCIMEMUGroup getSCIMEMUGroupByDisplayName(String scimGroupDisplayName, Collection<String> excludedAttributes) throws IOException {
         List<SCIMEMUGroup> list = searchSCIMGroups()
+                .excludedAttributes(excludedAttributes)
                 .eq("displayName", scimGroupDisplayName)
                 .list()
                 .toList();
@@ -169,6 +221,25 @@ public class GHEnterpriseExt extends GHOrganization {
         return searchSCIMGroups().list().withPageSize(pageSize).withPageOffset(pageOffset);
     }
 
+    public SCIMPagedSearchIterable<SCIMEMUGroup> listSCIMGroups(Collection<String> excludedAttributes, int pageSize, int pageOffset)
+            throws IOException {
+        return ((SCIMPagedSearchIterable<SCIMEMUGroup>) searchSCIMGroups().excludedAttributes(excludedAttributes).list())
+                .withPageSize(pageSize).withPageOffset(pageOffset);
+    }
+
+    public SCIMPagedSearchIterable<SCIMEMUGroup> listSCIMGroups(String attributePath, String value, Collection<String> excludedAttributes,
+                                                         int pageSize, int pageOffset)
+            throws IOException {
+        return ((SCIMPagedSearchIterable<SCIMEMUGroup>) searchSCIMGroups().excludedAttributes(excludedAttributes).eq(attributePath, value).list())
+                .withPageSize(pageSize).withPageOffset(pageOffset);
+    }
+
+    public SCIMPagedSearchIterable<SCIMEMUGroup> listSCIMGroupsModifiedSince(String lastModified, int pageSize)
+            throws IOException {
+        return ((SCIMPagedSearchIterable<SCIMEMUGroup>) searchSCIMGroups().ge("meta.lastModified", lastModified).list())
+                .withPageSize(pageSize);
+    }
+
     public void deleteSCIMGroup(String scimGroupId) throws IOException {
         root.createRequest()
                 .method("DELETE")
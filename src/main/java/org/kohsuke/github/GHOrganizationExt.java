@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -16,11 +17,24 @@ import java.util.Map;
 public class GHOrganizationExt extends GHOrganization {
     private static final ObjectMapper mapper = new ObjectMapper();
 
+    private transient boolean selectGraphQLRateLimit;
+
     @Override
     GHOrganizationExt wrapUp(GitHub root) {
         return (GHOrganizationExt) super.wrapUp(root);
     }
 
+    /**
+     * Selects the rateLimit field in the GraphQL queries, so the cost of each page is reported.
+     *
+     * @param selectGraphQLRateLimit true if selecting the rateLimit field
+     * @return this
+     */
+    public GHOrganizationExt selectGraphQLRateLimit(boolean selectGraphQLRateLimit) {
+        this.selectGraphQLRateLimit = selectGraphQLRateLimit;
+        return this;
+    }
+
     public GHUser createInvitation(String email, String role) throws IOException {
         return root.createRequest()
                 .method("POST")
@@ -129,7 +143,9 @@ public class GHOrganizationExt extends GHOrganization {
      * @return the gh user search builder
      */
     public GraphQLOrganizationExternalIdentitySearchBuilder searchExternalIdentities() {
-        return new GraphQLOrganizationExternalIdentitySearchBuilder(root, this);
+        GraphQLOrganizationExternalIdentitySearchBuilder builder = new GraphQLOrganizationExternalIdentitySearchBuilder(root, this);
+        builder.rateLimit(selectGraphQLRateLimit);
+        return builder;
     }
 
     public GraphQLPagedSearchIterable<GraphQLOrganization, GraphQLExternalIdentityEdge> listExternalIdentities(int pageSize)
@@ -137,6 +153,30 @@ public class GHOrganizationExt extends GHOrganization {
         return searchExternalIdentities().list().withPageSize(pageSize);
     }
 
+    public GraphQLPagedSearchIterable<GraphQLOrganization, GraphQLExternalIdentityEdge> listExternalIdentities(int pageSize,
+                                                                                                          Collection<GraphQLExternalIdentityField> fields)
+            throws IOException {
+        return searchExternalIdentities().fields(fields).list().withPageSize(pageSize);
+    }
+
+    public GraphQLPagedSearchIterable<GraphQLOrganization, GraphQLExternalIdentityEdge> findExternalIdentity(String userLogin, int pageSize)
+            throws IOException {
+        return new GraphQLExternalIdentityByLoginSearchBuilder(root, this, userLogin)
+                .rateLimit(selectGraphQLRateLimit)
+                .list()
+                .withPageSize(pageSize);
+    }
+
+    public GraphQLPagedSearchIterable<GraphQLOrganization, GraphQLExternalIdentityEdge> findExternalIdentity(String userLogin, int pageSize,
+                                                                                                         Collection<GraphQLExternalIdentityField> fields)
+            throws IOException {
+        return new GraphQLExternalIdentityByLoginSearchBuilder(root, this, userLogin)
+                .fields(fields)
+                .rateLimit(selectGraphQLRateLimit)
+                .list()
+                .withPageSize(pageSize);
+    }
+
     public void deleteSCIMUser(String scimUserId) throws IOException {
         root.createRequest()
                 .method("DELETE")
@@ -158,13 +198,20 @@ public class GHOrganizationExt extends GHOrganization {
                 .fetch(GHTeamExt.class);
     }
 
+    public GHTeamExt getTeamBySlug(String slug) throws IOException {
+        return root.createRequest()
+                .withUrlPath(String.format("/orgs/%s/teams/%s", login, slug))
+                .fetch(GHTeamExt.class)
+                .wrapUp(this);
+    }
+
     public PagedIterable<GHTeamExt> listTeamsExt() throws IOException {
         return root.createRequest()
                 .withUrlPath(String.format("/orgs/%s/teams", login))
                 .toIterable(GHTeamExt[].class, item -> item.wrapUp(this));
     }
 
-    public GHTeam updateTeam(long teamId, String name, String description, GHTeam.Privacy privacy, Long parentTeamId,
+    public GHTeamExt updateTeam(long teamId, String name, String description, GHTeam.Privacy privacy, Long parentTeamId,
                              boolean clearParent) throws IOException {
         Requester req = root.createRequest().method("PATCH");
 
@@ -183,8 +230,8 @@ public class GHOrganizationExt extends GHOrganization {
             req.withNullable("parent_team_id", null);
         }
 
-        GHTeam updated = req.withUrlPath(String.format("/organizations/%d/team/%d", getId(), teamId))
-                .fetch(GHTeam.class);
+        GHTeamExt updated = req.withUrlPath(String.format("/organizations/%d/team/%d", getId(), teamId))
+                .fetch(GHTeamExt.class);
 
         return updated;
     }
@@ -197,12 +244,15 @@ public class GHOrganizationExt extends GHOrganization {
 
     public GraphQLPagedSearchIterable<GraphQLOrganization, GraphQLTeamEdge> findTeam(String teamName, int pageSize) throws IOException {
         return new GraphQLTeamSearchBuilder(root, this, teamName)
+                .rateLimit(selectGraphQLRateLimit)
                 .list()
                 .withPageSize(pageSize);
     }
 
     public GraphQLTeamByMemberSearchBuilder searchTeams(String userLogin) {
-        return new GraphQLTeamByMemberSearchBuilder(root, this, userLogin);
+        GraphQLTeamByMemberSearchBuilder builder = new GraphQLTeamByMemberSearchBuilder(root, this, userLogin);
+        builder.rateLimit(selectGraphQLRateLimit);
+        return builder;
     }
 
     public GraphQLPagedSearchIterable<GraphQLOrganization, GraphQLTeamEdge> listTeams(String userLogin, int pageSize)
@@ -210,6 +260,21 @@ public class GHOrganizationExt extends GHOrganization {
         return searchTeams(userLogin).list().withPageSize(pageSize);
     }
 
+    public GraphQLTeamByMembersBatchBuilder searchTeams(Collection<String> userLogins) {
+        return new GraphQLTeamByMembersBatchBuilder(root, this, userLogins);
+    }
+
+    public Map<String, List<GraphQLTeamEdge>> listTeamsByMembers(Collection<String> userLogins, int pageSize)
+            throws IOException {
+        return searchTeams(userLogins).pageSize(pageSize).fetch();
+    }
+
+    public void crawlTeamMemberships(int pageSize, GraphQLTeamMembershipCrawler.Visitor visitor) throws IOException {
+        new GraphQLTeamMembershipCrawler(root, this)
+                .pageSize(pageSize)
+                .crawl(visitor);
+    }
+
     public void addTeamMembership(long teamId, String userLogin, GHTeam.Role teamRole) throws IOException {
         root.createRequest().method("PUT")
                 .with("role", teamRole.name().toLowerCase())
@@ -223,6 +288,25 @@ public class GHOrganizationExt extends GHOrganization {
                 .send();
     }
 
+    /**
+     * List the events of the organization audit log.
+     * https://docs.github.com/en/enterprise-cloud@latest/rest/orgs/orgs#get-the-audit-log-for-an-organization
+     *
+     * @param phrase search phrase, or null for all events
+     * @param order  "asc" or "desc"
+     * @return the events
+     */
+    public PagedIterable<GHAuditLogEvent> listAuditLog(String phrase, String order) {
+        Requester req = root.createRequest()
+                .with("include", "web")
+                .with("order", order)
+                .withUrlPath(String.format("/orgs/%s/audit-log", login));
+        if (phrase != null) {
+            req.with("phrase", phrase);
+        }
+        return req.toIterable(GHAuditLogEvent[].class, null);
+    }
+
     public boolean isMember(String userLogin) {
         try {
             root.createRequest()
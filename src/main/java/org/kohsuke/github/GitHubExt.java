@@ -66,4 +66,17 @@ public class GitHubExt extends GitHub {
         enterprise.login = name;
         return enterprise;
     }
+
+    /**
+     * Creates an access token for the app installation without fetching the installation itself.
+     * The client must be authenticated by JWT of the GitHub App.
+     *
+     * @param installationId GitHub App installation ID
+     * @return the app installation token
+     * @throws IOException the io exception
+     */
+    public GHAppInstallationToken createAppInstallationToken(long installationId) throws IOException {
+        return new GHAppCreateTokenBuilder(this, String.format("/app/installations/%d/access_tokens", installationId))
+                .create();
+    }
 }
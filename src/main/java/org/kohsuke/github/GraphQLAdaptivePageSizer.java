@@ -0,0 +1,82 @@
+package org.kohsuke.github;
+
+import java.util.function.IntFunction;
+
+/**
+ * Adapts the page size of GraphQL cursor paging by the observed cost and latency.
+ * <p>
+ * It grows the page size while the responses are fast and the estimated point cost doesn't increase,
+ * and shrinks it when the response time gets close to the query timeout of GitHub (10 seconds).
+ * <p>
+ * This class is not thread-safe. Any one instance should only be used by a single iterator.
+ *
+ * @author Hiroyuki Wada
+ */
+public class GraphQLAdaptivePageSizer {
+    public static final int MIN_PAGE_SIZE = 1;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Keep enough margin from GitHub's 10 seconds timeout
+    static final long TARGET_LATENCY_MILLIS = 3000;
+    static final long MAX_LATENCY_MILLIS = 6000;
+
+    private final IntFunction<GraphQLQueryCost> costEstimator;
+
+    public GraphQLAdaptivePageSizer(IntFunction<GraphQLQueryCost> costEstimator) {
+        this.costEstimator = costEstimator;
+    }
+
+    /**
+     * Decides the page size of the next page.
+     *
+     * @param current       the page size of the last page
+     * @param latencyMillis the response time of the last page
+     * @param rateLimit     the rateLimit of the last response if selected
+     * @return the page size of the next page
+     */
+    public int next(int current, long latencyMillis, GraphQLRateLimit rateLimit) {
+        current = clamp(current);
+
+        if (latencyMillis > MAX_LATENCY_MILLIS) {
+            return clamp(current / 2);
+        }
+        if (latencyMillis > TARGET_LATENCY_MILLIS) {
+            return clamp((int) (current * TARGET_LATENCY_MILLIS / latencyMillis));
+        }
+
+        if (rateLimit != null && rateLimit.remaining < rateLimit.cost * 10) {
+            // Don't spend the budget faster when it's about to run out
+            return current;
+        }
+
+        // Grow it, but not more than what the latency allows
+        int candidate = current * 2;
+        if (latencyMillis > 0) {
+            candidate = (int) Math.min(candidate, current * TARGET_LATENCY_MILLIS / latencyMillis);
+        }
+        candidate = clamp(Math.max(candidate, current));
+
+        // Don't increase the point cost of a query
+        long points = observedPoints(current, rateLimit);
+        while (candidate > current) {
+            GraphQLQueryCost cost = costEstimator.apply(candidate);
+            if (cost.getPoints() <= points && cost.nodes <= GraphQLQueryCost.MAX_NODES) {
+                break;
+            }
+            candidate--;
+        }
+        return candidate;
+    }
+
+    private long observedPoints(int current, GraphQLRateLimit rateLimit) {
+        long estimated = costEstimator.apply(current).getPoints();
+        if (rateLimit != null && rateLimit.cost > 0) {
+            return Math.max(estimated, rateLimit.cost);
+        }
+        return estimated;
+    }
+
+    private static int clamp(int size) {
+        return Math.max(MIN_PAGE_SIZE, Math.min(MAX_PAGE_SIZE, size));
+    }
+}
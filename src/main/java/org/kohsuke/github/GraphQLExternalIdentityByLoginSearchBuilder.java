@@ -0,0 +1,67 @@
+package org.kohsuke.github;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Search organization external identities by the user's login name with GitHub GraphQL API.
+ *
+ * @author Hiroyuki Wada
+ */
+public class GraphQLExternalIdentityByLoginSearchBuilder extends GraphQLSearchBuilder<GraphQLOrganization, GraphQLExternalIdentityEdge, GraphQLExternalIdentityByLoginSearchVariables> {
+    private static final String VARIABLE_DEFINITIONS = ", $userLogin: String!";
+    private static final String ARGUMENTS = "login: $userLogin, ";
+
+    GraphQLExternalIdentityByLoginSearchBuilder(GitHub root, GHOrganization org, String userLogin) {
+        super(root, org, GraphQLOrganizationSearchResult.class);
+        this.variables.login = org.login;
+        this.variables.userLogin = userLogin;
+    }
+
+    /**
+     * Selects the given optional fields only instead of all fields.
+     *
+     * @param fields the optional fields to select
+     * @return the search builder
+     */
+    public GraphQLExternalIdentityByLoginSearchBuilder fields(Collection<GraphQLExternalIdentityField> fields) {
+        setQuery(GraphQLExternalIdentityQuery.get(VARIABLE_DEFINITIONS, ARGUMENTS, fields));
+        return this;
+    }
+
+    private static class GraphQLOrganizationSearchResult extends GraphQLSearchResult<GraphQLOrganization> {
+        public GraphQLOrganization organization;
+
+        @Override
+        public void setData(Map<String, GraphQLOrganization> data) {
+            this.organization = data.get("organization");
+        }
+
+        @Override
+        public GraphQLOrganization getData() {
+            return organization;
+        }
+    }
+
+    @Override
+    public String getQuery() {
+        return GraphQLExternalIdentityQuery.get(VARIABLE_DEFINITIONS, ARGUMENTS, EnumSet.allOf(GraphQLExternalIdentityField.class));
+    }
+
+    @Override
+    protected GraphQLExternalIdentityByLoginSearchVariables initSearchVariables() {
+        return new GraphQLExternalIdentityByLoginSearchVariables();
+    }
+
+    @Override
+    protected Function<GraphQLSearchResult<GraphQLOrganization>, GraphQLPageInfo> getPageInfo() {
+        return (result) -> result.getData().samlIdentityProvider.externalIdentities.pageInfo;
+    }
+
+    @Override
+    protected Function<GraphQLSearchResult<GraphQLOrganization>, GraphQLExternalIdentityEdge[]> getEdges() {
+        return (result) -> result.getData().samlIdentityProvider.externalIdentities.edges;
+    }
+}
@@ -0,0 +1,18 @@
+package org.kohsuke.github;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+public class GraphQLExternalIdentityByLoginSearchVariables extends GraphQLSearchVariables {
+    public String userLogin;
+
+    @JsonIgnore
+    public GraphQLExternalIdentityByLoginSearchVariables next(GraphQLPageInfo pageInfo) {
+        GraphQLExternalIdentityByLoginSearchVariables nextVariables = new GraphQLExternalIdentityByLoginSearchVariables();
+        nextVariables.login = this.login;
+        nextVariables.first = this.first;
+        nextVariables.userLogin = this.userLogin;
+        nextVariables.after = pageInfo.endCursor;
+
+        return nextVariables;
+    }
+}
@@ -0,0 +1,15 @@
+package org.kohsuke.github;
+
+/**
+ * Optional fields of the external identity which can be selected in GraphQL queries.
+ * <p>
+ * The guid, the user's login, the SCIM user name and the organization membership are always selected
+ * because they are needed to identify the user and to detect dropped accounts.
+ *
+ * @author Hiroyuki Wada
+ */
+public enum GraphQLExternalIdentityField {
+    SCIM_EMAILS,
+    SCIM_GIVEN_NAME,
+    SCIM_FAMILY_NAME
+}
@@ -0,0 +1,88 @@
+package org.kohsuke.github;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Generates the GraphQL queries of the external identities which select the requested fields only.
+ * <p>
+ * The generated queries are cached per combination of the query shape and the fields.
+ *
+ * @author Hiroyuki Wada
+ */
+final class GraphQLExternalIdentityQuery {
+
+    private static final Map<String, String> QUERIES = new ConcurrentHashMap<>();
+
+    private GraphQLExternalIdentityQuery() {
+    }
+
+    /**
+     * Returns the query.
+     *
+     * @param variableDefinitions the variable definitions of the query without "$login", "$first" and "$after"
+     * @param arguments           the arguments of the externalIdentities connection without "first" and "after"
+     * @param fields              the optional fields to select
+     * @return the query
+     */
+    static String get(String variableDefinitions, String arguments, Collection<GraphQLExternalIdentityField> fields) {
+        Set<GraphQLExternalIdentityField> selected = fields.isEmpty() ?
+                EnumSet.noneOf(GraphQLExternalIdentityField.class) : EnumSet.copyOf(fields);
+        String key = variableDefinitions + "|" + arguments + "|" + selected;
+
+        return QUERIES.computeIfAbsent(key, k -> build(variableDefinitions, arguments, selected));
+    }
+
+    static String build(String variableDefinitions, String arguments, Set<GraphQLExternalIdentityField> fields) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("query($login: String!").append(variableDefinitions).append(", $first: Int!, $after: String) {\n");
+        sb.append("  organization(login: $login) {\n");
+        sb.append("    id\n");
+        sb.append("    login\n");
+        sb.append("    databaseId\n");
+        sb.append("    samlIdentityProvider {\n");
+        sb.append("      externalIdentities(").append(arguments).append("first: $first, after: $after) {\n");
+        sb.append("        totalCount\n");
+        sb.append("        pageInfo {\n");
+        sb.append("          endCursor\n");
+        sb.append("          hasNextPage\n");
+        sb.append("          hasPreviousPage\n");
+        sb.append("          startCursor\n");
+        sb.append("        }\n");
+        sb.append("        edges {\n");
+        sb.append("          cursor\n");
+        sb.append("          node {\n");
+        sb.append("            guid\n");
+        sb.append("            user {\n");
+        sb.append("              login\n");
+        sb.append("              organization(login: $login) {\n");
+        sb.append("                id\n");
+        sb.append("              }\n");
+        sb.append("            }\n");
+        sb.append("            scimIdentity {\n");
+        sb.append("              username\n");
+        if (fields.contains(GraphQLExternalIdentityField.SCIM_EMAILS)) {
+            sb.append("              emails {\n");
+            sb.append("                value\n");
+            sb.append("                primary\n");
+            sb.append("              }\n");
+        }
+        if (fields.contains(GraphQLExternalIdentityField.SCIM_GIVEN_NAME)) {
+            sb.append("              givenName\n");
+        }
+        if (fields.contains(GraphQLExternalIdentityField.SCIM_FAMILY_NAME)) {
+            sb.append("              familyName\n");
+        }
+        sb.append("            }\n");
+        sb.append("          }\n");
+        sb.append("        }\n");
+        sb.append("      }\n");
+        sb.append("    }\n");
+        sb.append("  }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+}
@@ -1,5 +1,7 @@
 package org.kohsuke.github;
 
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -9,60 +11,22 @@ import java.util.function.Function;
  * @author Hiroyuki Wada
  */
 public class GraphQLOrganizationExternalIdentitySearchBuilder extends GraphQLSearchBuilder<GraphQLOrganization, GraphQLExternalIdentityEdge, GraphQLSearchVariables> {
-    private final String query = "query($login: String!, $first: Int!, $after: String) {\n" +
-            "  organization(login: $login) {\n" +
-            "    id\n" +
-            "    login\n" +
-            "    databaseId\n" +
-            "    samlIdentityProvider {\n" +
-            "      externalIdentities(first: $first, after: $after) {\n" +
-            "        totalCount\n" +
-            "        pageInfo {\n" +
-            "          endCursor\n" +
-            "          hasNextPage\n" +
-            "          hasPreviousPage\n" +
-            "          startCursor\n" +
-            "        }\n" +
-            "        edges {\n" +
-            "          cursor\n" +
-            "          node {\n" +
-            "            id\n" +
-            "            guid\n" +
-            "            organizationInvitation {\n" +
-            "              id\n" +
-            "              email\n" +
-            "            }\n" +
-            "            user {\n" +
-            "              id\n" +
-            "              login\n" +
-            "              databaseId\n" +
-            "              organization(login: $login) {\n" +
-            "                id\n" +
-            "                login\n" +
-            "                databaseId\n" +
-            "              }\n" +
-            "            }\n" +
-            "            scimIdentity {\n" +
-            "              username\n" +
-            "              emails {\n" +
-            "                value\n" +
-            "                primary\n" +
-            "              }\n" +
-            "              givenName\n" +
-            "              familyName\n" +
-            "            }\n" +
-            "          }\n" +
-            "        }\n" +
-            "      }\n" +
-            "    }\n" +
-            "  }\n" +
-            "}\n";
-
     GraphQLOrganizationExternalIdentitySearchBuilder(GitHub root, GHOrganization org) {
         super(root, org, GraphQLOrganizationSearchResult.class);
         this.variables.login = org.login;
     }
 
+    /**
+     * Selects the given optional fields only instead of all fields.
+     *
+     * @param fields the optional fields to select
+     * @return the search builder
+     */
+    public GraphQLOrganizationExternalIdentitySearchBuilder fields(Collection<GraphQLExternalIdentityField> fields) {
+        setQuery(GraphQLExternalIdentityQuery.get("", "", fields));
+        return this;
+    }
+
     private static class GraphQLOrganizationSearchResult extends GraphQLSearchResult<GraphQLOrganization> {
         public GraphQLOrganization organization;
 
@@ -79,7 +43,7 @@ public class GraphQLOrganizationExternalIdentitySearchBuilder extends GraphQLSea
 
     @Override
     public String getQuery() {
-        return query;
+        return GraphQLExternalIdentityQuery.get("", "", EnumSet.allOf(GraphQLExternalIdentityField.class));
     }
 
     @Override
@@ -1,7 +1,9 @@
 package org.kohsuke.github;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 import java.io.IOException;
 import java.net.MalformedURLException;
@@ -25,15 +27,19 @@ public class GraphQLPageIterator<T extends GraphQLSearchResult<U>, U> implements
     private final Class<T> type;
     private final GraphQLSearchVariables variables;
     private Function<GraphQLSearchResult<U>, GraphQLPageInfo> findNext;
+    private final GraphQLAdaptivePageSizer pageSizer;
 
     private T next;
 
     private GitHubRequest nextRequest;
 
+    private GraphQLSearchVariables nextVariables;
+
     private GitHubResponse<T> finalResponse = null;
 
     private GraphQLPageIterator(GitHubClient client, Class<T> type, GitHubRequest request, GraphQLSearchVariables variables,
-                                Function<GraphQLSearchResult<U>, GraphQLPageInfo> nextFinder) {
+                                Function<GraphQLSearchResult<U>, GraphQLPageInfo> nextFinder,
+                                GraphQLAdaptivePageSizer pageSizer) {
         if (!"POST".equals(request.method())) {
             throw new IllegalStateException("Request method \"POST\" is required for GraphQL page iterator.");
         }
@@ -42,18 +48,27 @@ public class GraphQLPageIterator<T extends GraphQLSearchResult<U>, U> implements
         this.type = type;
         this.nextRequest = request;
         this.variables = variables;
+        this.nextVariables = variables;
         this.findNext = nextFinder;
+        this.pageSizer = pageSizer;
     }
 
-    static <T extends GraphQLSearchResult<U>, U> GraphQLPageIterator create(GitHubClient client, Class<T> type,
+    static <T extends GraphQLSearchResult<U>, U> GraphQLPageIterator<T, U> create(GitHubClient client, Class<T> type,
                                                                             GitHubRequest request, GraphQLSearchVariables variables,
                                                                             Function<GraphQLSearchResult<U>, GraphQLPageInfo> nextFinder) {
+        return create(client, type, request, variables, nextFinder, null);
+    }
+
+    static <T extends GraphQLSearchResult<U>, U> GraphQLPageIterator<T, U> create(GitHubClient client, Class<T> type,
+                                                                            GitHubRequest request, GraphQLSearchVariables variables,
+                                                                            Function<GraphQLSearchResult<U>, GraphQLPageInfo> nextFinder,
+                                                                            GraphQLAdaptivePageSizer pageSizer) {
 
         try {
             GitHubRequest.Builder<?> builder = request.toBuilder().set("variables", mapper.writeValueAsString(variables));
             request = builder.build();
 
-            return new GraphQLPageIterator<>(client, type, request, variables, nextFinder);
+            return new GraphQLPageIterator<>(client, type, request, variables, nextFinder, pageSizer);
         } catch (MalformedURLException | JsonProcessingException e) {
             throw new GHException("Unable to build GitHub GraphQL API URL", e);
         }
@@ -89,8 +104,11 @@ public class GraphQLPageIterator<T extends GraphQLSearchResult<U>, U> implements
 
         URL url = nextRequest.url();
         try {
+            long start = System.currentTimeMillis();
             GitHubResponse<T> nextResponse = client.sendRequest(nextRequest,
-                    (responseInfo) -> GitHubResponse.parseBody(responseInfo, type));
+                    (responseInfo) -> parse(responseInfo));
+            long latency = System.currentTimeMillis() - start;
+
             assert nextResponse.body() != null;
             next = nextResponse.body();
 
@@ -105,7 +123,12 @@ public class GraphQLPageIterator<T extends GraphQLSearchResult<U>, U> implements
                 return;
             }
 
-            GraphQLSearchVariables nextVariables = variables.next(pageInfo);
+            GraphQLSearchVariables currentVariables = nextVariables;
+            nextVariables = currentVariables.next(pageInfo);
+
+            if (pageSizer != null) {
+                nextVariables.first = pageSizer.next(currentVariables.first, latency, next.rateLimit);
+            }
 
             nextRequest = nextResponse.request().toBuilder()
                     .set("variables", mapper.writeValueAsString(nextVariables))
@@ -117,4 +140,22 @@ public class GraphQLPageIterator<T extends GraphQLSearchResult<U>, U> implements
             throw new GHException("Failed to retrieve " + url, e);
         }
     }
+
+    private T parse(GitHubResponse.ResponseInfo responseInfo) throws IOException {
+        JsonNode tree = GitHubResponse.parseBody(responseInfo, JsonNode.class);
+        if (tree == null) {
+            return null;
+        }
+
+        ObjectReader reader = GitHubClient.getMappingObjectReader(responseInfo);
+        T result = reader.forType(type).readValue(tree);
+
+        if (result != null) {
+            JsonNode rateLimit = tree.path("data").path("rateLimit");
+            if (rateLimit.isObject()) {
+                result.rateLimit = reader.forType(GraphQLRateLimit.class).readValue(rateLimit);
+            }
+        }
+        return result;
+    }
 }
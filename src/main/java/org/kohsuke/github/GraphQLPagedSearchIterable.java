@@ -1,7 +1,10 @@
 package org.kohsuke.github;
 
+import java.io.Closeable;
 import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
+import java.util.function.IntFunction;
 
 /**
  * {@link PagedIterable} enhanced to report search result specific information.
@@ -9,7 +12,7 @@ import java.util.function.Function;
  * @param <T> the type parameter
  * @author Hiroyuki Wada
  */
-public class GraphQLPagedSearchIterable<T, U extends GraphQLEdge> extends PagedIterable<U> {
+public class GraphQLPagedSearchIterable<T, U extends GraphQLEdge> extends PagedIterable<U> implements Closeable {
     private final transient GitHub root;
 
     private final GitHubRequest request;
@@ -25,6 +28,13 @@ public class GraphQLPagedSearchIterable<T, U extends GraphQLEdge> extends PagedI
     private final Function<GraphQLSearchResult<T>, U[]> adaptor;
     private final Function<GraphQLSearchResult<T>, GraphQLPageInfo> nextFinder;
 
+    private ExecutorService readAheadExecutor;
+    private int readAheadPages;
+    private GraphQLReadAheadPageIterator<GraphQLSearchResult<T>> readAheadIterator;
+
+    private IntFunction<GraphQLQueryCost> costEstimator = GraphQLQueryCost::connection;
+    private boolean adaptivePageSize;
+
     public GraphQLPagedSearchIterable(GitHub root, GitHubRequest request, Class<? extends GraphQLSearchResult<T>> receiverType,
                                       GraphQLSearchVariables variables,
                                       Function<GraphQLSearchResult<T>, U[]> adaptor,
@@ -42,11 +52,59 @@ public class GraphQLPagedSearchIterable<T, U extends GraphQLEdge> extends PagedI
         return (GraphQLPagedSearchIterable<T, U>) super.withPageSize(size);
     }
 
+    GraphQLPagedSearchIterable<T, U> withCostEstimator(IntFunction<GraphQLQueryCost> costEstimator) {
+        this.costEstimator = costEstimator;
+        return this;
+    }
+
+    /**
+     * Adapts the page size of the following pages by the observed cost and latency.
+     * The page size given by {@link #withPageSize(int)} is used for the first page.
+     *
+     * @param adaptivePageSize true if adapting the page size
+     * @return this
+     */
+    public GraphQLPagedSearchIterable<T, U> withAdaptivePageSize(boolean adaptivePageSize) {
+        this.adaptivePageSize = adaptivePageSize;
+        return this;
+    }
+
+    /**
+     * Fetches the next pages in background while the caller processes the current page.
+     *
+     * @param executor the executor which fetches the pages
+     * @param pages    the max number of buffered pages, 0 means no read-ahead
+     * @return this
+     */
+    public GraphQLPagedSearchIterable<T, U> withReadAhead(ExecutorService executor, int pages) {
+        this.readAheadExecutor = executor;
+        this.readAheadPages = pages;
+        return this;
+    }
+
+    /**
+     * Stops the read-ahead when the caller stops iterating.
+     */
+    @Override
+    public void close() {
+        if (readAheadIterator != null) {
+            readAheadIterator.close();
+        }
+    }
+
     @Override
     public PagedIterator<U> _iterator(int pageSize) {
         variables.first = pageSize;
-        final Iterator<U[]> adapter = adapt(
-                GraphQLPageIterator.create(root.getClient(), receiverType, request, variables, nextFinder));
+        Iterator<? extends GraphQLSearchResult<T>> base = GraphQLPageIterator.create(root.getClient(), receiverType, request, variables, nextFinder,
+                adaptivePageSize ? new GraphQLAdaptivePageSizer(costEstimator) : null);
+
+        if (readAheadExecutor != null && readAheadPages > 0) {
+            close();
+            readAheadIterator = new GraphQLReadAheadPageIterator<GraphQLSearchResult<T>>(base, readAheadExecutor, readAheadPages);
+            base = readAheadIterator;
+        }
+
+        final Iterator<U[]> adapter = adapt(base);
         return new PagedIterator<U>(adapter, null);
     }
 
@@ -56,13 +114,13 @@ public class GraphQLPagedSearchIterable<T, U extends GraphQLEdge> extends PagedI
      * @param base the base
      * @return the iterator
      */
-    protected Iterator<GraphQLEdge<U>[]> adapt(final Iterator<? extends GraphQLSearchResult<T>> base) {
-        return new Iterator<GraphQLEdge<U>[]>() {
+    protected Iterator<U[]> adapt(final Iterator<? extends GraphQLSearchResult<T>> base) {
+        return new Iterator<U[]>() {
             public boolean hasNext() {
                 return base.hasNext();
             }
 
-            public GraphQLEdge<U>[] next() {
+            public U[] next() {
                 GraphQLSearchResult<T> v = base.next();
                 if (result == null)
                     result = v;
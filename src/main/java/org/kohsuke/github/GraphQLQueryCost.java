@@ -0,0 +1,56 @@
+package org.kohsuke.github;
+
+/**
+ * Estimated cost of a GraphQL query.
+ * <p>
+ * It follows the calculation of GitHub: the node count is the sum of the max number of nodes of each connection
+ * (multiplied by the size of the parent connections), and the point is the number of requests needed to fulfill
+ * the connections divided by 100 (minimum 1).
+ * <a href="https://docs.github.com/en/graphql/overview/resource-limitations">See the GitHub document.</a>
+ *
+ * @author Hiroyuki Wada
+ */
+public class GraphQLQueryCost {
+    /**
+     * GitHub rejects a query which may return more than 500,000 nodes.
+     */
+    public static final long MAX_NODES = 500000;
+
+    public final long nodes;
+    public final long requests;
+
+    private GraphQLQueryCost(long nodes, long requests) {
+        this.nodes = nodes;
+        this.requests = requests;
+    }
+
+    /**
+     * Cost of a query with one connection.
+     *
+     * @param first the page size of the connection
+     * @return the cost
+     */
+    public static GraphQLQueryCost connection(int first) {
+        return new GraphQLQueryCost(first, 1);
+    }
+
+    /**
+     * Adds a connection nested in each node of the outermost connection.
+     *
+     * @param first      the page size of the outermost connection
+     * @param childFirst the max number of nodes of the nested connection
+     * @return the cost
+     */
+    public GraphQLQueryCost nested(int first, int childFirst) {
+        return new GraphQLQueryCost(nodes + (long) first * childFirst, requests + first);
+    }
+
+    public long getPoints() {
+        return Math.max(1, (requests + 99) / 100);
+    }
+
+    @Override
+    public String toString() {
+        return "nodes=" + nodes + ", points=" + getPoints();
+    }
+}
@@ -0,0 +1,47 @@
+package org.kohsuke.github;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Represents the rateLimit field of GitHub GraphQL API.
+ *
+ * @author Hiroyuki Wada
+ */
+public class GraphQLRateLimit {
+    static final String SELECTION = "  rateLimit {\n" +
+            "    cost\n" +
+            "    limit\n" +
+            "    remaining\n" +
+            "    nodeCount\n" +
+            "  }\n";
+
+    @JsonProperty("cost")
+    public int cost;
+
+    @JsonProperty("limit")
+    public int limit;
+
+    @JsonProperty("remaining")
+    public int remaining;
+
+    @JsonProperty("nodeCount")
+    public int nodeCount;
+
+    @JsonProperty("resetAt")
+    public String resetAt;
+
+    /**
+     * Adds the rateLimit field as the first selection of the query,
+     * so it's found at the head of the response.
+     *
+     * @param query the query
+     * @return the query which selects the rateLimit field
+     */
+    static String select(String query) {
+        int start = query.indexOf("{\n");
+        if (start < 0) {
+            return query;
+        }
+        return query.substring(0, start + 2) + SELECTION + query.substring(start + 2);
+    }
+}
@@ -0,0 +1,151 @@
+package org.kohsuke.github;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Wraps a GraphQL page iterator to fetch the next pages in background.
+ * <p>
+ * The request for page N+1 is issued with the endCursor as soon as page N is parsed, so the network time
+ * overlaps the processing time of the consumer. The number of buffered pages is bounded, the background fetch
+ * waits when the buffer is full.
+ * <p>
+ * This class is not thread-safe. Any one instance should only be consumed from a single thread.
+ *
+ * @param <T> the type parameter
+ * @author Hiroyuki Wada
+ */
+public class GraphQLReadAheadPageIterator<T> implements Iterator<T>, Closeable {
+
+    private static final Object END = new Object();
+
+    private final Iterator<? extends T> base;
+    private final ExecutorService executor;
+    private final BlockingQueue<Object> buffer;
+
+    private Future<?> producer;
+    private volatile boolean cancelled;
+    private Object next;
+    private boolean finished;
+
+    private static class Failure {
+        // RuntimeException or Error
+        final Throwable e;
+
+        Failure(Throwable e) {
+            this.e = e;
+        }
+    }
+
+    GraphQLReadAheadPageIterator(Iterator<? extends T> base, ExecutorService executor, int bufferPages) {
+        this.base = base;
+        this.executor = executor;
+        this.buffer = new ArrayBlockingQueue<>(Math.max(bufferPages, 1));
+    }
+
+    public boolean hasNext() {
+        fetch();
+        return next != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T next() {
+        fetch();
+        Object result = next;
+        if (result == null)
+            throw new NoSuchElementException();
+        next = null;
+        return (T) result;
+    }
+
+    /**
+     * Stops fetching the pages in background. No more pages are returned after closing.
+     */
+    @Override
+    public void close() {
+        cancelled = true;
+        // Unblock the producer waiting for the space of the buffer
+        buffer.clear();
+        if (producer != null) {
+            producer.cancel(true);
+        }
+        // Wake up the consumer waiting for the next page
+        buffer.offer(END);
+    }
+
+    private void fetch() {
+        if (next != null || finished)
+            return;
+
+        if (cancelled) {
+            finished = true;
+            return;
+        }
+
+        if (producer == null) {
+            producer = executor.submit(this::produce);
+        }
+
+        Object item;
+        try {
+            item = buffer.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new GHException("Interrupted while fetching GraphQL pages", e);
+        }
+
+        if (cancelled || item == END) {
+            finished = true;
+            return;
+        }
+        if (item instanceof Failure) {
+            finished = true;
+            close();
+            Throwable e = ((Failure) item).e;
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
+            throw (RuntimeException) e;
+        }
+        next = item;
+    }
+
+    private void produce() {
+        Object last = END;
+        boolean interrupted = false;
+        try {
+            while (!cancelled && base.hasNext()) {
+                // Block if the buffer is full (back-pressure)
+                buffer.put(base.next());
+            }
+        } catch (InterruptedException e) {
+            interrupted = true;
+            if (!cancelled) {
+                last = new Failure(new GHException("Interrupted while fetching GraphQL pages", e));
+            }
+        } catch (RuntimeException | Error e) {
+            last = new Failure(e);
+        } finally {
+            // Always terminate the pages, so the consumer never waits forever.
+            // When cancelled, close() has already woken up the consumer.
+            interrupted |= Thread.interrupted();
+            try {
+                if (!cancelled) {
+                    buffer.put(last);
+                }
+            } catch (InterruptedException e) {
+                // Cancelled while waiting for the space of the buffer
+                interrupted = true;
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -14,6 +14,9 @@ public abstract class GraphQLSearchBuilder<T, U extends GraphQLEdge, V extends G
 
     protected final GHOrganization organization;
 
+    private String query;
+    private boolean selectRateLimit;
+
     GraphQLSearchBuilder(GitHub root, GHOrganization org, Class<? extends GraphQLSearchResult<T>> receiverType) {
         super(root);
         this.organization = org;
@@ -21,16 +24,30 @@ public abstract class GraphQLSearchBuilder<T, U extends GraphQLEdge, V extends G
         req.withUrlPath(getApiUrl());
         req.rateLimit(RateLimitTarget.GRAPHQL);
         req.method("POST");
-        req.set("query", getQuery());
+        this.query = getQuery();
         this.variables = initSearchVariables();
     }
 
+    /**
+     * Selects the rateLimit field, so the cost of each page is reported.
+     * It's needed by the adaptive page size and the rate limit pacing only.
+     *
+     * @param selectRateLimit true if selecting the rateLimit field
+     * @return the search builder
+     */
+    public GraphQLSearchBuilder<T, U, V> rateLimit(boolean selectRateLimit) {
+        this.selectRateLimit = selectRateLimit;
+        return this;
+    }
+
     /**
      * Performs the search.
      */
     public GraphQLPagedSearchIterable list() {
+        req.set("query", selectRateLimit ? GraphQLRateLimit.select(query) : query);
         try {
-            return new GraphQLPagedSearchIterable(root, req.build(), receiverType, variables, getEdges(), getPageInfo());
+            return new GraphQLPagedSearchIterable(root, req.build(), receiverType, variables, getEdges(), getPageInfo())
+                    .withCostEstimator(this::estimateCost);
         } catch (MalformedURLException e) {
             throw new GHException("", e);
         }
@@ -47,6 +64,25 @@ public abstract class GraphQLSearchBuilder<T, U extends GraphQLEdge, V extends G
 
     protected abstract String getQuery();
 
+    /**
+     * Replaces the query given by {@link #getQuery()}.
+     *
+     * @param query the query
+     */
+    protected void setQuery(String query) {
+        this.query = query;
+    }
+
+    /**
+     * Estimates the cost of the query with the page size.
+     *
+     * @param first the page size
+     * @return the estimated cost
+     */
+    protected GraphQLQueryCost estimateCost(int first) {
+        return GraphQLQueryCost.connection(first);
+    }
+
     protected abstract Function<GraphQLSearchResult<T>, GraphQLPageInfo> getPageInfo();
 
     protected abstract Function<GraphQLSearchResult<T>, U[]> getEdges();
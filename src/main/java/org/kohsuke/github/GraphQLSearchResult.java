@@ -1,5 +1,6 @@
 package org.kohsuke.github;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.Map;
@@ -11,6 +12,12 @@ import java.util.Map;
  * @author Hiroyuki Wada
  */
 public abstract class GraphQLSearchResult<T> {
+    /**
+     * The rateLimit field of the response if the query selects it.
+     */
+    @JsonIgnore
+    public GraphQLRateLimit rateLimit;
+
     @JsonProperty("data")
     public abstract void setData(Map<String, T> data);
 
@@ -65,6 +65,12 @@ public class GraphQLTeamByMemberSearchBuilder extends GraphQLSearchBuilder<Graph
         return query;
     }
 
+    @Override
+    protected GraphQLQueryCost estimateCost(int first) {
+        // members(query:) is requested for each team, but it matches one member
+        return GraphQLQueryCost.connection(first).nested(first, 1);
+    }
+
     @Override
     protected GraphQLTeamByMemberSearchVariables initSearchVariables() {
         return new GraphQLTeamByMemberSearchVariables();
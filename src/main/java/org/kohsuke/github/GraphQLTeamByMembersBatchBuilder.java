@@ -0,0 +1,158 @@
+package org.kohsuke.github;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Search organization's teams by multiple members' login names in one GitHub GraphQL request.
+ * <p>
+ * Each member is queried by an aliased teams connection, and the members which have more teams than the page size
+ * are continued with their own cursor in the following requests.
+ *
+ * @author Hiroyuki Wada
+ */
+public class GraphQLTeamByMembersBatchBuilder {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final GitHub root;
+    private final GHOrganization organization;
+    private final List<String> userLogins;
+    private int pageSize = 30;
+
+    GraphQLTeamByMembersBatchBuilder(GitHub root, GHOrganization org, Collection<String> userLogins) {
+        this.root = root;
+        this.organization = org;
+        // Remove duplicates while keeping the order
+        this.userLogins = new ArrayList<>(new LinkedHashSet<>(userLogins));
+    }
+
+    public GraphQLTeamByMembersBatchBuilder pageSize(int pageSize) {
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    /**
+     * Fetches all teams of the members.
+     * <p>
+     * The members whose aliased connection failed or is missing in the response are not contained in the result
+     * so that the caller can fall back to fetching their teams one by one.
+     *
+     * @return the teams keyed by the member's login name
+     * @throws IOException the io exception
+     */
+    public Map<String, List<GraphQLTeamEdge>> fetch() throws IOException {
+        Map<String, List<GraphQLTeamEdge>> teams = new HashMap<>();
+        // Pending member index => cursor
+        Map<Integer, String> pending = new LinkedHashMap<>();
+        for (int i = 0; i < userLogins.size(); i++) {
+            teams.put(userLogins.get(i), new ArrayList<>());
+            pending.put(i, null);
+        }
+
+        ObjectReader reader = GitHubClient.getMappingObjectReader(root).forType(GraphQLTeamConnection.class);
+
+        while (!pending.isEmpty()) {
+            JsonNode result = root.createRequest()
+                    .method("POST")
+                    .withUrlPath("/graphql")
+                    .rateLimit(RateLimitTarget.GRAPHQL)
+                    .set("query", getQuery(pending.keySet()))
+                    .set("variables", mapper.writeValueAsString(getVariables(pending)))
+                    .fetch(JsonNode.class);
+
+            JsonNode org = result.path("data").path("organization");
+            if (!org.isObject()) {
+                throw new GHException("GraphQL API returns error: " + result.path("errors"));
+            }
+            Set<String> failedAliases = getFailedAliases(result.path("errors"));
+
+            Map<Integer, String> next = new LinkedHashMap<>();
+            for (Integer i : pending.keySet()) {
+                JsonNode node = org.path(alias(i));
+                if (failedAliases.contains(alias(i)) || !node.isObject()) {
+                    // Drop the partial result, the caller fetches the teams of this member by itself
+                    teams.remove(userLogins.get(i));
+                    continue;
+                }
+                GraphQLTeamConnection conn = reader.readValue(node);
+                if (conn.edges != null) {
+                    teams.get(userLogins.get(i)).addAll(Arrays.asList(conn.edges));
+                }
+                if (conn.pageInfo != null && conn.pageInfo.hasNextPage) {
+                    next.put(i, conn.pageInfo.endCursor);
+                }
+            }
+            pending = next;
+        }
+
+        return teams;
+    }
+
+    private static Set<String> getFailedAliases(JsonNode errors) {
+        Set<String> aliases = new HashSet<>();
+        for (JsonNode error : errors) {
+            // e.g. "path": ["organization", "t3", "edges", 0]
+            JsonNode path = error.path("path");
+            if (!path.path(1).isTextual()) {
+                // Not belonging to any member, we can't trust the whole result
+                throw new GHException("GraphQL API returns error: " + errors);
+            }
+            aliases.add(path.path(1).asText());
+        }
+        return aliases;
+    }
+
+    String getQuery(Collection<Integer> indexes) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("query($login: String!, $first: Int!");
+        for (Integer i : indexes) {
+            sb.append(", $u").append(i).append(": String!, $a").append(i).append(": String");
+        }
+        sb.append(") {\n");
+        sb.append("  organization(login: $login) {\n");
+        for (Integer i : indexes) {
+            sb.append("    ").append(alias(i)).append(": teams(userLogins: [$u").append(i)
+                    .append("], first: $first, after: $a").append(i).append(") {\n");
+            sb.append("      pageInfo {\n");
+            sb.append("        endCursor\n");
+            sb.append("        hasNextPage\n");
+            sb.append("      }\n");
+            sb.append("      edges {\n");
+            sb.append("        node {\n");
+            sb.append("          id\n");
+            sb.append("          databaseId\n");
+            sb.append("          slug\n");
+            sb.append("          members(query: $u").append(i).append(") {\n");
+            sb.append("            totalCount\n");
+            sb.append("            edges {\n");
+            sb.append("              role\n");
+            sb.append("            }\n");
+            sb.append("          }\n");
+            sb.append("        }\n");
+            sb.append("      }\n");
+            sb.append("    }\n");
+        }
+        sb.append("  }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private Map<String, Object> getVariables(Map<Integer, String> pending) {
+        Map<String, Object> variables = new LinkedHashMap<>();
+        variables.put("login", organization.login);
+        variables.put("first", pageSize);
+        for (Map.Entry<Integer, String> entry : pending.entrySet()) {
+            variables.put("u" + entry.getKey(), userLogins.get(entry.getKey()));
+            variables.put("a" + entry.getKey(), entry.getValue());
+        }
+        return variables;
+    }
+
+    private static String alias(int i) {
+        return "t" + i;
+    }
+}
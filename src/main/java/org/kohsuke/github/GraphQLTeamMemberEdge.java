@@ -7,7 +7,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
  *
  * @author Hiroyuki Wada
  */
-public class GraphQLTeamMemberEdge extends GraphQLEdge {
+public class GraphQLTeamMemberEdge extends GraphQLEdge<GraphQLUser> {
     @JsonProperty("role")
     public GraphQLTeamMemberRole role;
 }
@@ -0,0 +1,217 @@
+package org.kohsuke.github;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Walks all teams of the organization and their members with GitHub GraphQL API.
+ * <p>
+ * The teams are fetched page by page with the first page of their members. The teams which have more members
+ * than the page size are continued with their own cursor, multiple teams are continued in one request by aliases.
+ *
+ * @author Hiroyuki Wada
+ */
+public class GraphQLTeamMembershipCrawler {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    // GitHub allows up to 100 nodes per connection
+    static final int MEMBERS_PAGE_SIZE = 100;
+    // The number of teams continued in one request
+    static final int CONTINUATION_BATCH_SIZE = 10;
+
+    private static final String TEAMS_QUERY = "query($login: String!, $first: Int!, $membersFirst: Int!, $after: String) {\n" +
+            "  organization(login: $login) {\n" +
+            "    teams(first: $first, after: $after) {\n" +
+            "      pageInfo {\n" +
+            "        endCursor\n" +
+            "        hasNextPage\n" +
+            "      }\n" +
+            "      edges {\n" +
+            "        node {\n" +
+            "          id\n" +
+            "          databaseId\n" +
+            "          slug\n" +
+            "          members(first: $membersFirst) {\n" +
+            "            pageInfo {\n" +
+            "              endCursor\n" +
+            "              hasNextPage\n" +
+            "            }\n" +
+            "            edges {\n" +
+            "              role\n" +
+            "              node {\n" +
+            "                login\n" +
+            "              }\n" +
+            "            }\n" +
+            "          }\n" +
+            "        }\n" +
+            "      }\n" +
+            "    }\n" +
+            "  }\n" +
+            "}\n";
+
+    /**
+     * Receives a membership found by the crawler.
+     */
+    public interface Visitor {
+        void visit(GraphQLTeam team, GraphQLTeamMemberEdge member);
+    }
+
+    private final GitHub root;
+    private final GHOrganization organization;
+    private int pageSize = 30;
+
+    GraphQLTeamMembershipCrawler(GitHub root, GHOrganization org) {
+        this.root = root;
+        this.organization = org;
+    }
+
+    public GraphQLTeamMembershipCrawler pageSize(int pageSize) {
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    /**
+     * Walks all memberships of the organization's teams.
+     *
+     * @param visitor the visitor
+     * @throws IOException the io exception
+     */
+    public void crawl(Visitor visitor) throws IOException {
+        ObjectReader teamsReader = GitHubClient.getMappingObjectReader(root).forType(GraphQLTeamConnection.class);
+        ObjectReader membersReader = GitHubClient.getMappingObjectReader(root).forType(GraphQLTeamMemberConnection.class);
+
+        String after = null;
+        do {
+            Map<String, Object> variables = new LinkedHashMap<>();
+            variables.put("login", organization.login);
+            variables.put("first", pageSize);
+            variables.put("membersFirst", MEMBERS_PAGE_SIZE);
+            variables.put("after", after);
+
+            JsonNode org = send(TEAMS_QUERY, variables);
+            GraphQLTeamConnection teams = teamsReader.readValue(org.path("teams"));
+            if (teams == null) {
+                break;
+            }
+
+            // Team => members cursor
+            Map<GraphQLTeam, String> pending = new LinkedHashMap<>();
+            if (teams.edges != null) {
+                for (GraphQLTeamEdge edge : teams.edges) {
+                    GraphQLTeamMemberConnection members = edge.node.members;
+                    if (members == null) {
+                        continue;
+                    }
+                    visitAll(visitor, edge.node, members);
+                    if (members.pageInfo != null && members.pageInfo.hasNextPage) {
+                        pending.put(edge.node, members.pageInfo.endCursor);
+                    }
+                }
+            }
+
+            while (!pending.isEmpty()) {
+                pending = continueMembers(visitor, membersReader, pending);
+            }
+
+            after = teams.pageInfo != null && teams.pageInfo.hasNextPage ? teams.pageInfo.endCursor : null;
+        } while (after != null);
+    }
+
+    private Map<GraphQLTeam, String> continueMembers(Visitor visitor, ObjectReader membersReader,
+                                                     Map<GraphQLTeam, String> pending) throws IOException {
+        List<GraphQLTeam> targets = new ArrayList<>();
+        for (GraphQLTeam team : pending.keySet()) {
+            targets.add(team);
+            if (targets.size() >= CONTINUATION_BATCH_SIZE) {
+                break;
+            }
+        }
+
+        Map<String, Object> variables = new LinkedHashMap<>();
+        variables.put("login", organization.login);
+        variables.put("membersFirst", MEMBERS_PAGE_SIZE);
+        for (int i = 0; i < targets.size(); i++) {
+            variables.put("s" + i, targets.get(i).slug);
+            variables.put("a" + i, pending.get(targets.get(i)));
+        }
+
+        JsonNode org = send(getMembersQuery(targets.size()), variables);
+
+        Map<GraphQLTeam, String> next = new LinkedHashMap<>(pending);
+        for (int i = 0; i < targets.size(); i++) {
+            GraphQLTeam team = targets.get(i);
+            next.remove(team);
+
+            GraphQLTeamMemberConnection members = membersReader.readValue(org.path("m" + i).path("members"));
+            if (members == null) {
+                // The team was deleted while crawling
+                continue;
+            }
+            visitAll(visitor, team, members);
+            if (members.pageInfo != null && members.pageInfo.hasNextPage) {
+                next.put(team, members.pageInfo.endCursor);
+            }
+        }
+        return next;
+    }
+
+    private static void visitAll(Visitor visitor, GraphQLTeam team, GraphQLTeamMemberConnection members) {
+        if (members.edges == null) {
+            return;
+        }
+        for (GraphQLTeamMemberEdge member : members.edges) {
+            if (member.node != null) {
+                visitor.visit(team, member);
+            }
+        }
+    }
+
+    private JsonNode send(String query, Map<String, Object> variables) throws IOException {
+        JsonNode result = root.createRequest()
+                .method("POST")
+                .withUrlPath("/graphql")
+                .rateLimit(RateLimitTarget.GRAPHQL)
+                .set("query", query)
+                .set("variables", mapper.writeValueAsString(variables))
+                .fetch(JsonNode.class);
+
+        JsonNode org = result.path("data").path("organization");
+        if (!org.isObject()) {
+            throw new GHException("GraphQL API returns error: " + result.path("errors"));
+        }
+        return org;
+    }
+
+    static String getMembersQuery(int size) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("query($login: String!, $membersFirst: Int!");
+        for (int i = 0; i < size; i++) {
+            sb.append(", $s").append(i).append(": String!, $a").append(i).append(": String");
+        }
+        sb.append(") {\n");
+        sb.append("  organization(login: $login) {\n");
+        for (int i = 0; i < size; i++) {
+            sb.append("    m").append(i).append(": team(slug: $s").append(i).append(") {\n");
+            sb.append("      members(first: $membersFirst, after: $a").append(i).append(") {\n");
+            sb.append("        pageInfo {\n");
+            sb.append("          endCursor\n");
+            sb.append("          hasNextPage\n");
+            sb.append("        }\n");
+            sb.append("        edges {\n");
+            sb.append("          role\n");
+            sb.append("          node {\n");
+            sb.append("            login\n");
+            sb.append("          }\n");
+            sb.append("        }\n");
+            sb.append("      }\n");
+            sb.append("    }\n");
+        }
+        sb.append("  }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+}
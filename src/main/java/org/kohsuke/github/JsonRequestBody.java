@@ -0,0 +1,93 @@
+package org.kohsuke.github;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Serializes a request body into a per-thread reusable buffer as UTF-8 JSON.
+ * <p>
+ * The returned stream reads the buffer directly without copying it, and closing the stream releases the buffer
+ * for the next request of the thread. The buffer which grew larger than {@link #MAX_RETAINED_SIZE} isn't retained
+ * to avoid keeping a large group patch in each thread.
+ *
+ * @author Hiroyuki Wada
+ */
+class JsonRequestBody {
+
+    static final int INITIAL_SIZE = 8 * 1024;
+    static final int MAX_RETAINED_SIZE = 1024 * 1024;
+
+    private static final ThreadLocal<Buffer> BUFFER = ThreadLocal.withInitial(() -> new Buffer(INITIAL_SIZE));
+
+    private JsonRequestBody() {
+    }
+
+    /**
+     * Serializes the value into the buffer.
+     *
+     * @param mapper object mapper
+     * @param value  the request body
+     * @return the stream of the serialized value. It must be closed after sending the request
+     * @throws IOException serialization error
+     */
+    static InputStream of(ObjectMapper mapper, Object value) throws IOException {
+        Buffer buffer = BUFFER.get();
+        if (buffer.inUse) {
+            // Nested use in the same thread, don't share the buffer
+            buffer = new Buffer(INITIAL_SIZE);
+        }
+        buffer.reset();
+        buffer.inUse = true;
+
+        try {
+            // Jackson always encodes the output stream with UTF-8
+            mapper.writeValue(buffer, value);
+        } catch (IOException | RuntimeException e) {
+            release(buffer);
+            throw e;
+        }
+        return buffer.toInputStream();
+    }
+
+    private static void release(Buffer buffer) {
+        buffer.inUse = false;
+        if (buffer.capacity() > MAX_RETAINED_SIZE && BUFFER.get() == buffer) {
+            BUFFER.remove();
+        }
+    }
+
+    static class Buffer extends ByteArrayOutputStream {
+        boolean inUse;
+
+        Buffer(int size) {
+            super(size);
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+
+        InputStream toInputStream() {
+            return new ByteArrayInputStream(buf, 0, count) {
+                private boolean closed;
+
+                @Override
+                public void close() {
+                    if (!closed) {
+                        closed = true;
+                        release(Buffer.this);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            // Jackson closes the target stream after writing, but keep the buffer open for reuse
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.kohsuke.github;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Represents an operation of SCIM bulk request and response.
+ *
+ * @author Hiroyuki Wada
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SCIMBulkOperation {
+    @JsonProperty("method")
+    public String method;
+
+    @JsonProperty("bulkId")
+    public String bulkId;
+
+    @JsonProperty("path")
+    public String path;
+
+    @JsonProperty("data")
+    public Object data;
+
+    // Response only
+    @JsonProperty("location")
+    public String location;
+
+    @JsonProperty("status")
+    public String status;
+
+    @JsonProperty("response")
+    public JsonNode response;
+
+    public static SCIMBulkOperation of(String method, String path, Object data) {
+        SCIMBulkOperation op = new SCIMBulkOperation();
+        op.method = method;
+        op.path = path;
+        op.data = data;
+        return op;
+    }
+
+    @JsonIgnore
+    public int getStatusCode() {
+        if (status == null) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(status.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @JsonIgnore
+    public boolean isSuccess() {
+        int code = getStatusCode();
+        return code >= 200 && code < 300;
+    }
+
+    /**
+     * Returns the id of the resource from the location.
+     *
+     * @return the resource id or null if the location isn't returned
+     */
+    @JsonIgnore
+    public String getLocationId() {
+        if (location == null) {
+            return null;
+        }
+        String trimmed = location.endsWith("/") ? location.substring(0, location.length() - 1) : location;
+        return trimmed.substring(trimmed.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * Returns the error detail of the failed operation.
+     *
+     * @return the error detail
+     */
+    @JsonIgnore
+    public String getErrorDetail() {
+        if (response == null) {
+            return "status: " + status;
+        }
+        String detail = response.path("detail").asText(null);
+        return detail != null ? detail : response.toString();
+    }
+}
@@ -0,0 +1,25 @@
+package org.kohsuke.github;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents the SCIM bulk request.
+ *
+ * @author Hiroyuki Wada
+ */
+public class SCIMBulkRequest {
+    private static final String BULK_REQUEST = "urn:ietf:params:scim:api:messages:2.0:BulkRequest";
+
+    @JsonProperty("schemas")
+    public List<String> schemas = Collections.singletonList(BULK_REQUEST);
+
+    @JsonProperty("Operations")
+    public List<SCIMBulkOperation> operations;
+
+    public SCIMBulkRequest(List<SCIMBulkOperation> operations) {
+        this.operations = operations;
+    }
+}
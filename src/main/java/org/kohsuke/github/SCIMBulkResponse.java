@@ -0,0 +1,20 @@
+package org.kohsuke.github;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Represents the SCIM bulk response.
+ *
+ * @author Hiroyuki Wada
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SCIMBulkResponse {
+    @JsonProperty("schemas")
+    public List<String> schemas;
+
+    @JsonProperty("Operations")
+    public List<SCIMBulkOperation> operations;
+}
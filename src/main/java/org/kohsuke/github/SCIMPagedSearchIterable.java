@@ -1,6 +1,10 @@
 package org.kohsuke.github;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Predicate;
 
 /**
  * {@link PagedIterable} enhanced to report search result specific information.
@@ -8,7 +12,7 @@ import java.util.Iterator;
  * @param <T> the type parameter
  * @author Hiroyuki Wada
  */
-public class SCIMPagedSearchIterable<T> extends PagedIterable<T> {
+public class SCIMPagedSearchIterable<T> extends PagedIterable<T> implements Closeable {
     private final transient GitHub root;
 
     private final GitHubRequest request;
@@ -20,8 +24,13 @@ public class SCIMPagedSearchIterable<T> extends PagedIterable<T> {
      */
     private SCIMSearchResult<T> result;
     
+    private int pageSize;
     private int pageOffset;
 
+    private ExecutorService prefetchExecutor;
+    private int prefetchConcurrency;
+    private SCIMParallelPageIterator<? extends SCIMSearchResult<T>> parallelIterator;
+
     public SCIMPagedSearchIterable(GitHub root, GitHubRequest request, Class<? extends SCIMSearchResult<T>> receiverType) {
         this.root = root;
         this.request = request;
@@ -30,6 +39,7 @@ public class SCIMPagedSearchIterable<T> extends PagedIterable<T> {
 
     @Override
     public SCIMPagedSearchIterable<T> withPageSize(int size) {
+        this.pageSize = size;
         return (SCIMPagedSearchIterable<T>) super.withPageSize(size);
     }
 
@@ -38,6 +48,43 @@ public class SCIMPagedSearchIterable<T> extends PagedIterable<T> {
         return this;
     }
 
+    /**
+     * Fetches the pages after the first page concurrently.
+     * It's used only when fetching all pages (no page offset).
+     *
+     * @param executor    the executor which fetches the pages
+     * @param concurrency the max number of pages in flight
+     * @return this
+     */
+    public SCIMPagedSearchIterable<T> withPrefetch(ExecutorService executor, int concurrency) {
+        this.prefetchExecutor = executor;
+        this.prefetchConcurrency = concurrency;
+        return this;
+    }
+
+    /**
+     * Reads all resources with the streaming parser instead of iterating the parsed pages.
+     * Each resource is passed to the handler as soon as it's parsed, so large pages aren't held in memory.
+     *
+     * @param handler the handler of the resource. Return false to stop reading
+     * @return the total count
+     * @throws IOException API error
+     */
+    public int stream(Predicate<T> handler) throws IOException {
+        result = new SCIMStreamingPageReader<>(root, receiverType).read(request, pageSize, pageOffset, handler);
+        return result.totalResults;
+    }
+
+    /**
+     * Cancels the prefetched pages still in flight when the caller stops iterating.
+     */
+    @Override
+    public void close() {
+        if (parallelIterator != null) {
+            parallelIterator.close();
+        }
+    }
+
     /**
      * Returns the total number of hit, including the results that's not yet fetched.
      *
@@ -65,6 +112,13 @@ public class SCIMPagedSearchIterable<T> extends PagedIterable<T> {
 
     @Override
     public PagedIterator<T> _iterator(int pageSize) {
+        if (prefetchExecutor != null && prefetchConcurrency > 1 && pageOffset < 1) {
+            close();
+            parallelIterator = SCIMParallelPageIterator.create(root.getClient(), receiverType, request, pageSize,
+                    prefetchExecutor, prefetchConcurrency);
+            return new PagedIterator<T>(adapt(parallelIterator), null);
+        }
+
         final Iterator<T[]> adapter = adapt(
                 SCIMPageIterator.create(root.getClient(), receiverType, request, pageSize, pageOffset));
         return new PagedIterator<T>(adapter, null);
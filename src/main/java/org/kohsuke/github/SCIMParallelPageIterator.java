@@ -0,0 +1,170 @@
+package org.kohsuke.github;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Used for any SCIM resource that has pagination information.
+ * <p>
+ * Unlike {@link SCIMPageIterator}, after the first page is fetched, it computes the following pages
+ * by startIndex arithmetic and fetches them concurrently with bounded number of requests in flight.
+ * The pages are returned in order.
+ * <p>
+ * This class is not thread-safe. Any one instance should only be called from a single thread.
+ *
+ * @param <T> the type parameter
+ * @author Hiroyuki Wada
+ */
+public class SCIMParallelPageIterator<T extends SCIMSearchResult> implements Iterator<T>, Closeable {
+
+    private final GitHubClient client;
+    private final Class<T> type;
+    private final ExecutorService executor;
+    private final int concurrency;
+
+    private GitHubRequest firstRequest;
+    private final Deque<Future<T>> pending = new ArrayDeque<>();
+
+    private T next;
+
+    private GitHubRequest baseRequest;
+    private long nextStartIndex;
+    private long step;
+    private long totalResults;
+    private boolean closed;
+
+    private SCIMParallelPageIterator(GitHubClient client, Class<T> type, GitHubRequest request,
+                                     ExecutorService executor, int concurrency) {
+        if (!"GET".equals(request.method())) {
+            throw new IllegalStateException("Request method \"GET\" is required for page iterator.");
+        }
+
+        this.client = client;
+        this.type = type;
+        this.firstRequest = request;
+        this.executor = executor;
+        this.concurrency = Math.max(concurrency, 1);
+    }
+
+    static <T extends SCIMSearchResult> SCIMParallelPageIterator<T> create(GitHubClient client, Class<T> type, GitHubRequest request,
+                                                                           int pageSize, ExecutorService executor, int concurrency) {
+        try {
+            if (pageSize > 0) {
+                request = request.toBuilder().with("count", pageSize).build();
+            }
+
+            return new SCIMParallelPageIterator<>(client, type, request, executor, concurrency);
+        } catch (MalformedURLException e) {
+            throw new GHException("Unable to build GitHub SCIM API URL", e);
+        }
+    }
+
+    public boolean hasNext() {
+        fetch();
+        return next != null;
+    }
+
+    public T next() {
+        fetch();
+        T result = next;
+        if (result == null)
+            throw new NoSuchElementException();
+        next = null;
+        return result;
+    }
+
+    /**
+     * Cancels the pages which are still in flight.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Future<T> f;
+        while ((f = pending.poll()) != null) {
+            f.cancel(true);
+        }
+    }
+
+    private void fetch() {
+        if (next != null || closed)
+            return;
+
+        if (firstRequest != null) {
+            GitHubRequest request = firstRequest;
+            firstRequest = null;
+
+            GitHubResponse<T> firstResponse = send(request);
+            next = firstResponse.body();
+
+            if (next.itemsPerPage > 0) {
+                // Compute the remaining pages from the first page
+                baseRequest = firstResponse.request();
+                step = next.itemsPerPage;
+                nextStartIndex = next.startIndex + next.itemsPerPage;
+                totalResults = next.totalResults;
+            }
+            submit();
+            return;
+        }
+
+        Future<T> head = pending.poll();
+        if (head == null) {
+            return; // no more data to fetch
+        }
+
+        try {
+            next = head.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new GHException("Interrupted while fetching SCIM pages", e);
+        } catch (CancellationException e) {
+            close();
+            throw new GHException("Cancelled fetching SCIM pages", e);
+        } catch (ExecutionException e) {
+            close();
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new GHException("Failed to fetch SCIM pages", cause);
+        }
+
+        submit();
+    }
+
+    private void submit() {
+        while (baseRequest != null && pending.size() < concurrency && nextStartIndex <= totalResults) {
+            final GitHubRequest request;
+            try {
+                request = baseRequest.toBuilder().set("startIndex", nextStartIndex).build();
+            } catch (MalformedURLException e) {
+                throw new GHException("Unable to build GitHub SCIM API URL", e);
+            }
+            pending.add(executor.submit(() -> send(request).body()));
+            nextStartIndex += step;
+        }
+    }
+
+    private GitHubResponse<T> send(GitHubRequest request) {
+        try {
+            GitHubResponse<T> response = client.sendRequest(request,
+                    (responseInfo) -> GitHubResponse.parseBody(responseInfo, type));
+            assert response.body() != null;
+            return response;
+        } catch (IOException e) {
+            // Iterators do not throw IOExceptions, so we wrap any IOException
+            // in a runtime GHException to bubble out if needed.
+            throw new GHException("Failed to retrieve " + request.url(), e);
+        }
+    }
+}
@@ -132,6 +132,72 @@ public class SCIMPatchOperations {
         operations.add(op);
     }
 
+    /**
+     * Splits the operations so that each PATCH request has at most the max number of members.
+     * The first one has all operations except the members. Splitting doesn't change the result because
+     * the member values of adding and removing are disjoint.
+     *
+     * @param maxMembers the max number of members per request. 0 or less means no splitting
+     * @return the split operations
+     */
+    @SuppressWarnings("unchecked")
+    public List<SCIMPatchOperations> split(int maxMembers) {
+        if (maxMembers <= 0 || countMembers() <= maxMembers) {
+            return Collections.singletonList(this);
+        }
+
+        List<SCIMPatchOperations> chunks = new ArrayList<>();
+        SCIMPatchOperations current = new SCIMPatchOperations();
+        int size = 0;
+
+        for (Operation op : operations) {
+            if (!isMembersOp(op)) {
+                // Keep the other operations in the first request
+                (chunks.isEmpty() ? current : chunks.get(0)).operations.add(op);
+                continue;
+            }
+
+            List<Member> members = (List<Member>) op.value;
+            for (int i = 0; i < members.size(); ) {
+                if (size == maxMembers) {
+                    chunks.add(current);
+                    current = new SCIMPatchOperations();
+                    size = 0;
+                }
+                int end = Math.min(members.size(), i + maxMembers - size);
+
+                Operation chunk = new Operation();
+                chunk.op = op.op;
+                chunk.path = op.path;
+                chunk.value = new ArrayList<>(members.subList(i, end));
+                current.operations.add(chunk);
+
+                size += end - i;
+                i = end;
+            }
+        }
+        if (current.hasAttributesChange()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    /**
+     * Returns the number of the member values in the operations.
+     *
+     * @return the number of the member values
+     */
+    public int countMembers() {
+        return operations.stream()
+                .filter(SCIMPatchOperations::isMembersOp)
+                .mapToInt(op -> ((List<?>) op.value).size())
+                .sum();
+    }
+
+    private static boolean isMembersOp(Operation op) {
+        return "members".equals(op.path) && op.value instanceof List;
+    }
+
     public static class Operation {
         public String op;
         public String path;
@@ -1,6 +1,8 @@
 package org.kohsuke.github;
 
 import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -8,6 +10,8 @@ import java.util.stream.Collectors;
 
 public abstract class SCIMSearchBuilder<T> extends GHQueryBuilder<T> {
     protected final Map<String, String> filter = new HashMap<>();
+    protected final List<String> conditions = new ArrayList<>();
+    protected final List<String> excludedAttributes = new ArrayList<>();
 
     /**
      * Data transfer object that receives the result of search.
@@ -51,6 +55,31 @@ public abstract class SCIMSearchBuilder<T> extends GHQueryBuilder<T> {
         return this;
     }
 
+    /**
+     * Search filter by "greater than or equal to".
+     *
+     * @param key   the filter key
+     * @param value the filter value
+     * @return the gh query builder
+     */
+    public GHQueryBuilder<T> ge(String key, String value) {
+        conditions.add(key + " ge \"" + escape(value) + "\"");
+        return this;
+    }
+
+    /**
+     * Excludes the attributes from the search result.
+     *
+     * @param attributes the attribute names, or null
+     * @return the search builder
+     */
+    public SCIMSearchBuilder<T> excludedAttributes(Collection<String> attributes) {
+        if (attributes != null) {
+            excludedAttributes.addAll(attributes);
+        }
+        return this;
+    }
+
     /**
      * Performs the search.
      */
@@ -59,11 +88,15 @@ public abstract class SCIMSearchBuilder<T> extends GHQueryBuilder<T> {
         List<String> f = filter.entrySet().stream()
                 .map(entry -> entry.getKey() + " eq \"" + escape(entry.getValue()) + "\"")
                 .collect(Collectors.toList());
+        f.addAll(conditions);
 
         if (!f.isEmpty()) {
             String filterStr = String.join(" and ", f);
             req.set("filter", filterStr);
         }
+        if (!excludedAttributes.isEmpty()) {
+            req.set("excludedAttributes", String.join(",", excludedAttributes));
+        }
 
         try {
             return new SCIMPagedSearchIterable<>(root, req.build(), receiverType);
@@ -73,7 +106,7 @@ public abstract class SCIMSearchBuilder<T> extends GHQueryBuilder<T> {
     }
 
     private String escape(String value) {
-        return value.replace("\"", "\\\"");
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
     }
 
     /**
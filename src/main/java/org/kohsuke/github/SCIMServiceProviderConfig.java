@@ -0,0 +1,31 @@
+package org.kohsuke.github;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Represents the SCIM service provider configuration. Only the bulk support is mapped currently.
+ *
+ * @author Hiroyuki Wada
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SCIMServiceProviderConfig {
+    @JsonProperty("bulk")
+    public Bulk bulk;
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Bulk {
+        @JsonProperty("supported")
+        public boolean supported;
+
+        @JsonProperty("maxOperations")
+        public int maxOperations;
+
+        @JsonProperty("maxPayloadSize")
+        public int maxPayloadSize;
+    }
+
+    public boolean isBulkSupported() {
+        return bulk != null && bulk.supported && bulk.maxOperations > 1;
+    }
+}
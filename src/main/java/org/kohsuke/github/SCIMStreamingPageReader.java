@@ -0,0 +1,137 @@
+package org.kohsuke.github;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.util.function.Predicate;
+
+/**
+ * Reads all pages of SCIM search result with Jackson's streaming parser.
+ * <p>
+ * Each element of "Resources" is passed to the handler as soon as it's parsed instead of parsing the whole page,
+ * so only one resource is held in memory at a time. The pagination fields are read from the envelope.
+ *
+ * @param <T> the type of the resource
+ * @author Hiroyuki Wada
+ */
+class SCIMStreamingPageReader<T> {
+
+    private final GitHub root;
+    private final ObjectReader reader;
+
+    SCIMStreamingPageReader(GitHub root, Class<? extends SCIMSearchResult<T>> receiverType) {
+        this.root = root;
+
+        ObjectReader base = GitHubClient.getMappingObjectReader(root);
+        JavaType resultType = base.getTypeFactory().constructType(receiverType);
+        JavaType[] params = resultType.findTypeParameters(SCIMSearchResult.class);
+        this.reader = base.forType(params[0]);
+    }
+
+    /**
+     * Reads all pages from the request.
+     *
+     * @param request    the first page request
+     * @param pageSize   the page size
+     * @param pageOffset the start index, or 0 to read from the beginning
+     * @param handler    the handler of the resource. Return false to stop reading
+     * @return the envelope of the last read page without the resources
+     * @throws IOException API error
+     */
+    SCIMSearchResult<T> read(GitHubRequest request, int pageSize, int pageOffset, Predicate<T> handler) throws IOException {
+        GitHubRequest.Builder<?> builder = request.toBuilder();
+        if (pageSize > 0) {
+            builder.with("count", pageSize);
+        }
+        if (pageOffset > 0) {
+            builder.with("startIndex", pageOffset);
+        }
+        GitHubRequest next = builder.build();
+
+        while (true) {
+            Page page = new Page(handler);
+            root.getClient().sendRequest(next, (responseInfo) -> {
+                page.parse(responseInfo.bodyStream());
+                return null;
+            });
+
+            if (page.stopped) {
+                return page.result;
+            }
+            next = nextRequest(next, page.result);
+            if (next == null) {
+                return page.result;
+            }
+        }
+    }
+
+    private GitHubRequest nextRequest(GitHubRequest request, SCIMSearchResult<T> result) throws MalformedURLException {
+        long endIndex = result.startIndex + result.itemsPerPage;
+        if (result.itemsPerPage < 1 || endIndex > result.totalResults) {
+            // No more pages
+            return null;
+        }
+        return request.toBuilder().set("startIndex", endIndex).build();
+    }
+
+    class Page {
+        final Predicate<T> handler;
+        final SCIMSearchResult<T> result = new SCIMSearchResult<>();
+        // The number of resources passed to the handler, they are skipped when the request is retried
+        int handled;
+        boolean stopped;
+
+        Page(Predicate<T> handler) {
+            this.handler = handler;
+        }
+
+        void parse(InputStream in) throws IOException {
+            int index = 0;
+            try (JsonParser parser = reader.getFactory().createParser(in)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new GHException("Unexpected SCIM search result: " + parser.currentToken());
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    JsonToken value = parser.nextToken();
+
+                    switch (field) {
+                        case "totalResults":
+                            result.totalResults = parser.getValueAsInt();
+                            break;
+                        case "itemsPerPage":
+                            result.itemsPerPage = parser.getValueAsInt();
+                            break;
+                        case "startIndex":
+                            result.startIndex = parser.getValueAsInt();
+                            break;
+                        case "Resources":
+                            if (value != JsonToken.START_ARRAY) {
+                                parser.skipChildren();
+                                break;
+                            }
+                            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                                T resource = reader.readValue(parser);
+                                if (index++ < handled) {
+                                    continue;
+                                }
+                                handled++;
+                                if (!handler.test(resource)) {
+                                    stopped = true;
+                                    return;
+                                }
+                            }
+                            break;
+                        default:
+                            parser.skipChildren();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package jp.openstandia.connector.github;
+
+import jp.openstandia.connector.github.rest.AuditLogCursor;
+import org.identityconnectors.framework.common.objects.SyncToken;
+import org.junit.jupiter.api.Test;
+import org.kohsuke.github.GHAuditLogEvent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogCursorTest {
+
+    @Test
+    void token() {
+        AuditLogCursor cursor = AuditLogCursor.of(new SyncToken("1704067200000:abc"));
+
+        assertEquals("1704067200000:abc", cursor.toSyncToken().getValue());
+        assertEquals("created:>=2024-01-01", cursor.toCreatedQualifier());
+    }
+
+    @Test
+    void isBefore() {
+        AuditLogCursor cursor = AuditLogCursor.of(new SyncToken("1704067200000:b"));
+
+        assertFalse(cursor.isBefore(event(1704067100000L, "z")));
+        assertFalse(cursor.isBefore(event(1704067200000L, "a")));
+        // The event of the cursor itself was already processed
+        assertFalse(cursor.isBefore(event(1704067200000L, "b")));
+        assertTrue(cursor.isBefore(event(1704067200000L, "c")));
+        assertTrue(cursor.isBefore(event(1704067300000L, "a")));
+    }
+
+    private static GHAuditLogEvent event(long timestamp, String documentId) {
+        GHAuditLogEvent event = new GHAuditLogEvent();
+        event.timestamp = timestamp;
+        event.documentId = documentId;
+        return event;
+    }
+}
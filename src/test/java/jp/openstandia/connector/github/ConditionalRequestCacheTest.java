@@ -0,0 +1,183 @@
+package jp.openstandia.connector.github;
+
+import okhttp3.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConditionalRequestCacheTest {
+
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    @Test
+    void notModified() throws IOException {
+        ConditionalRequestCache cache = new ConditionalRequestCache(10);
+        StubChain chain = new StubChain();
+
+        chain.next = (req) -> response(req, 200, "\"v1\"", "{\"id\":1}");
+        assertEquals("{\"id\":1}", cache.intercept(chain.with(get("/orgs/test/teams/a", "token1"))).body().string());
+        assertNull(chain.requests.get(0).header("If-None-Match"));
+
+        chain.next = (req) -> response(req, 304, "\"v1\"", "");
+        Response response = cache.intercept(chain.with(get("/orgs/test/teams/a", "token1")));
+        assertEquals("\"v1\"", chain.requests.get(1).header("If-None-Match"));
+        assertEquals(200, response.code());
+        assertEquals("{\"id\":1}", response.body().string());
+    }
+
+    @Test
+    void keyedByCredential() throws IOException {
+        ConditionalRequestCache cache = new ConditionalRequestCache(10);
+        StubChain chain = new StubChain();
+
+        chain.next = (req) -> response(req, 200, "\"v1\"", "{}");
+        cache.intercept(chain.with(get("/orgs/test/teams/a", "token1"))).close();
+        cache.intercept(chain.with(get("/orgs/test/teams/a", "token2"))).close();
+
+        assertNull(chain.requests.get(1).header("If-None-Match"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void invalidateByWrite() throws IOException {
+        ConditionalRequestCache cache = new ConditionalRequestCache(10);
+        StubChain chain = new StubChain();
+
+        chain.next = (req) -> response(req, 200, "\"v1\"", "{}");
+        cache.intercept(chain.with(get("/orgs/test/teams/a", "token1"))).close();
+        cache.intercept(chain.with(get("/orgs/test/teams/a/members", "token1"))).close();
+        cache.intercept(chain.with(get("/orgs/test/teams/ab", "token1"))).close();
+        assertEquals(3, cache.size());
+
+        Request patch = get("/orgs/test/teams/a", "token1").newBuilder()
+                .patch(RequestBody.create("{}", JSON))
+                .build();
+        cache.intercept(chain.with(patch)).close();
+
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void notInvalidateByGraphQL() throws IOException {
+        ConditionalRequestCache cache = new ConditionalRequestCache(10);
+        StubChain chain = new StubChain();
+
+        chain.next = (req) -> response(req, 200, "\"v1\"", "{}");
+        cache.intercept(chain.with(get("/graphql", "token1"))).close();
+        cache.intercept(chain.with(get("/orgs/test/teams/a", "token1"))).close();
+        assertEquals(2, cache.size());
+
+        Request query = get("/graphql", "token1").newBuilder()
+                .post(RequestBody.create("{\"query\":\"{}\"}", JSON))
+                .build();
+        cache.intercept(chain.with(query)).close();
+
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void evictLeastRecentlyUsed() throws IOException {
+        ConditionalRequestCache cache = new ConditionalRequestCache(2);
+        StubChain chain = new StubChain();
+
+        chain.next = (req) -> response(req, 200, "\"v1\"", "{}");
+        cache.intercept(chain.with(get("/a", "token1"))).close();
+        cache.intercept(chain.with(get("/b", "token1"))).close();
+        cache.intercept(chain.with(get("/a", "token1"))).close();
+        cache.intercept(chain.with(get("/c", "token1"))).close();
+        cache.intercept(chain.with(get("/a", "token1"))).close();
+        cache.intercept(chain.with(get("/b", "token1"))).close();
+
+        assertNotNull(chain.requests.get(4).header("If-None-Match"));
+        assertNull(chain.requests.get(5).header("If-None-Match"));
+    }
+
+    private static Request get(String path, String token) {
+        return new Request.Builder()
+                .url("https://api.github.com" + path)
+                .header("Authorization", "token " + token)
+                .build();
+    }
+
+    private static Response response(Request request, int code, String etag, String body) {
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("")
+                .header("ETag", etag)
+                .body(ResponseBody.create(body, JSON))
+                .build();
+    }
+
+    interface Responder {
+        Response respond(Request request);
+    }
+
+    static class StubChain implements Interceptor.Chain {
+        final List<Request> requests = new ArrayList<>();
+        Responder next;
+        Request request;
+
+        StubChain with(Request request) {
+            this.request = request;
+            return this;
+        }
+
+        @Override
+        public Request request() {
+            return request;
+        }
+
+        @Override
+        public Response proceed(Request request) {
+            requests.add(request);
+            return next.respond(request);
+        }
+
+        @Override
+        public Connection connection() {
+            return null;
+        }
+
+        @Override
+        public Call call() {
+            return null;
+        }
+
+        @Override
+        public int connectTimeoutMillis() {
+            return 0;
+        }
+
+        @Override
+        public Interceptor.Chain withConnectTimeout(int timeout, TimeUnit unit) {
+            return this;
+        }
+
+        @Override
+        public int readTimeoutMillis() {
+            return 0;
+        }
+
+        @Override
+        public Interceptor.Chain withReadTimeout(int timeout, TimeUnit unit) {
+            return this;
+        }
+
+        @Override
+        public int writeTimeoutMillis() {
+            return 0;
+        }
+
+        @Override
+        public Interceptor.Chain withWriteTimeout(int timeout, TimeUnit unit) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package jp.openstandia.connector.github;
+
+import org.identityconnectors.framework.common.objects.AttributeBuilder;
+import org.identityconnectors.framework.common.objects.Name;
+import org.identityconnectors.framework.common.objects.OperationOptionsBuilder;
+import org.identityconnectors.framework.common.objects.Uid;
+import org.identityconnectors.framework.common.objects.filter.Filter;
+import org.identityconnectors.framework.common.objects.filter.FilterBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GitHubFilterTranslatorTest {
+
+    private List<GitHubFilter> translateUser(Filter filter) {
+        return new GitHubFilterTranslator(GitHubEMUUserHandler.USER_OBJECT_CLASS, new OperationOptionsBuilder().build())
+                .translate(filter);
+    }
+
+    @Test
+    void equals() {
+        List<GitHubFilter> filters = translateUser(FilterBuilder.equalTo(AttributeBuilder.build("externalId", "ext-1")));
+
+        assertEquals(1, filters.size());
+        assertTrue(filters.get(0).isBySCIMFilter());
+        assertEquals("externalId", filters.get(0).scimAttributePath);
+        assertEquals("ext-1", filters.get(0).scimAttributeValue);
+    }
+
+    @Test
+    void unsupportedOperators() {
+        // GitHub EMU rejects them, so they are evaluated by the framework after fetching all
+        assertTrue(translateUser(FilterBuilder.startsWith(new Name("foo"))).isEmpty());
+        assertTrue(translateUser(FilterBuilder.endsWith(AttributeBuilder.build("displayName", "bar"))).isEmpty());
+        assertTrue(translateUser(FilterBuilder.contains(AttributeBuilder.build("displayName", "ba"))).isEmpty());
+        assertTrue(translateUser(FilterBuilder.not(FilterBuilder.equalTo(AttributeBuilder.build("externalId", "a")))).isEmpty());
+    }
+
+    @Test
+    void andOr() {
+        Filter a = FilterBuilder.equalTo(AttributeBuilder.build("externalId", "a"));
+        Filter b = FilterBuilder.equalTo(AttributeBuilder.build("displayName", "b"));
+        Filter c = FilterBuilder.startsWith(new Name("c"));
+
+        // One side of "and" is enough because the framework filters the result again
+        List<GitHubFilter> filters = translateUser(FilterBuilder.and(c, a));
+        assertEquals(1, filters.size());
+        assertEquals("externalId", filters.get(0).scimAttributePath);
+        assertEquals("a", filters.get(0).scimAttributeValue);
+
+        // "or" is sent as separated queries
+        filters = translateUser(FilterBuilder.or(a, b));
+        assertEquals(2, filters.size());
+        assertEquals("externalId", filters.get(0).scimAttributePath);
+        assertEquals("displayName", filters.get(1).scimAttributePath);
+
+        assertTrue(translateUser(FilterBuilder.or(a, c)).isEmpty());
+    }
+
+    @Test
+    void preferUid() {
+        List<GitHubFilter> filters = translateUser(FilterBuilder.and(
+                FilterBuilder.equalTo(AttributeBuilder.build("externalId", "a")),
+                FilterBuilder.equalTo(new Uid("123"))));
+
+        assertEquals(1, filters.size());
+        assertTrue(filters.get(0).isByUid());
+    }
+
+    @Test
+    void unsupported() {
+        // Not a SCIM attribute
+        assertTrue(translateUser(FilterBuilder.equalTo(AttributeBuilder.build("active", true))).isEmpty());
+        // Not supported in SCIM filter by GitHub EMU
+        assertTrue(translateUser(FilterBuilder.equalTo(AttributeBuilder.build("primaryEmail", "foo@example.com"))).isEmpty());
+        // Not an EMU object class
+        assertTrue(new GitHubFilterTranslator(GitHubUserHandler.USER_OBJECT_CLASS, new OperationOptionsBuilder().build())
+                .translate(FilterBuilder.equalTo(AttributeBuilder.build("externalId", "a"))).isEmpty());
+    }
+}
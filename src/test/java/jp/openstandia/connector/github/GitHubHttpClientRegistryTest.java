@@ -0,0 +1,69 @@
+package jp.openstandia.connector.github;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GitHubHttpClientRegistryTest {
+
+    @Test
+    void share() {
+        try (GitHubHttpClientRegistry.Lease a = GitHubHttpClientRegistry.acquire(configuration(1001));
+             GitHubHttpClientRegistry.Lease b = GitHubHttpClientRegistry.acquire(configuration(1001));
+             GitHubHttpClientRegistry.Lease c = GitHubHttpClientRegistry.acquire(configuration(1002))) {
+
+            assertSame(a.getClient(), b.getClient());
+            assertSame(a.getConnector(), b.getConnector());
+            assertNotSame(a.getClient(), c.getClient());
+        }
+    }
+
+    @Test
+    void release() {
+        GitHubHttpClientRegistry.Lease a = GitHubHttpClientRegistry.acquire(configuration(2001));
+        GitHubHttpClientRegistry.Lease b = GitHubHttpClientRegistry.acquire(configuration(2001));
+
+        // Still used by the other lease
+        a.close();
+        // Closing twice doesn't release the other lease's reference
+        a.close();
+        GitHubHttpClientRegistry.Lease c = GitHubHttpClientRegistry.acquire(configuration(2001));
+        assertSame(b.getClient(), c.getClient());
+
+        b.close();
+        c.close();
+
+        // Discarded when no one uses it
+        try (GitHubHttpClientRegistry.Lease d = GitHubHttpClientRegistry.acquire(configuration(2001))) {
+            assertNotSame(b.getClient(), d.getClient());
+        }
+    }
+
+    @Test
+    void shareCache(@TempDir Path dir) {
+        GitHubConfiguration conf1 = configuration(3001);
+        conf1.setHttpCacheDirectory(dir.toString());
+        GitHubConfiguration conf2 = configuration(3002);
+        conf2.setHttpCacheDirectory(dir.resolve("sub").resolve("..").toString());
+
+        try (GitHubHttpClientRegistry.Lease a = GitHubHttpClientRegistry.acquire(conf1)) {
+            GitHubHttpClientRegistry.Lease b = GitHubHttpClientRegistry.acquire(conf2);
+
+            assertNotSame(a.getClient(), b.getClient());
+            assertSame(a.getClient().cache(), b.getClient().cache());
+
+            // Still used by the other client
+            b.close();
+            assertFalse(a.getClient().cache().isClosed());
+        }
+    }
+
+    private static GitHubConfiguration configuration(int connectionTimeout) {
+        GitHubConfiguration conf = new GitHubConfiguration();
+        conf.setConnectionTimeoutInMilliseconds(connectionTimeout);
+        return conf;
+    }
+}
@@ -0,0 +1,140 @@
+package jp.openstandia.connector.github;
+
+import org.junit.jupiter.api.Test;
+import org.kohsuke.github.SCIMEMUGroup;
+import org.kohsuke.github.SCIMMember;
+import org.kohsuke.github.SCIMPatchOperations;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupMemberIndexTest {
+
+    @Test
+    void findGroups() {
+        GroupMemberIndex index = new GroupMemberIndex(1000, 0);
+        index.add(group("g1", "u1", "u2"));
+        index.add(group("g2", "u2", "u3", "u2"));
+        index.add(group("g3"));
+        index.add(group("g4", "u1", "u2", "u3"));
+        index.trim();
+
+        assertEquals(4, index.size());
+        assertEquals(Arrays.asList("g1", "g4"), ids(index.findGroups(Collections.singleton("u1"))));
+        assertEquals(Arrays.asList("g1", "g2", "g4"), ids(index.findGroups(Collections.singleton("u2"))));
+        assertEquals(Arrays.asList("g2", "g4"), ids(index.findGroups(new HashSet<>(Arrays.asList("u2", "u3")))));
+        assertEquals(Collections.singletonList("g4"), ids(index.findGroups(new HashSet<>(Arrays.asList("u1", "u3")))));
+        // The group data is returned from the index
+        SCIMEMUGroup g2 = index.findGroups(Collections.singleton("u3")).get(0);
+        assertEquals("group-g2", g2.displayName);
+        assertEquals(Arrays.asList("u2", "u3"), members(g2));
+        assertEquals("https://api.github.com/scim/v2/enterprises/test/Users/u2", g2.members.get(0).ref);
+        assertTrue(index.findGroups(Collections.singleton("unknown")).isEmpty());
+        assertTrue(index.findGroups(Collections.emptySet()).isEmpty());
+    }
+
+    @Test
+    void ignoreGroupMembers() {
+        SCIMEMUGroup group = group("g1", "u1");
+        SCIMMember nested = new SCIMMember();
+        nested.value = "g0";
+        nested.ref = "https://api.github.com/scim/v2/enterprises/test/Groups/g0";
+        group.members.add(nested);
+
+        GroupMemberIndex index = new GroupMemberIndex(1000, 0);
+        index.add(group);
+        index.trim();
+
+        assertTrue(index.findGroups(Collections.singleton("g0")).isEmpty());
+    }
+
+    @Test
+    void applyChanges() {
+        GroupMemberIndex index = new GroupMemberIndex(1000, 0);
+        index.add(group("g1", "u1", "u2"));
+        index.add(group("g2", "u2"));
+        index.trim();
+
+        SCIMPatchOperations operations = new SCIMPatchOperations();
+        operations.replace("displayName", "renamed");
+        operations.addMembers(Arrays.asList("u3", "u1"));
+        operations.removeMembers(Collections.singletonList("u2"));
+        assertTrue(index.apply("g1", operations));
+        index.put("g3", "group-g3", null, null, Arrays.asList("u1", "u2"));
+        index.remove("g2");
+
+        assertEquals(Arrays.asList("g1", "g3"), ids(index.findGroups(Collections.singleton("u1"))));
+        assertEquals(Collections.singletonList("g3"), ids(index.findGroups(Collections.singleton("u2"))));
+        SCIMEMUGroup g1 = index.findGroups(Collections.singleton("u3")).get(0);
+        assertEquals("renamed", g1.displayName);
+        assertEquals(Arrays.asList("u1", "u3"), members(g1));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void applyChangesWhileBuilding() {
+        GroupMemberIndex index = new GroupMemberIndex(1000, 0);
+        index.add(group("g1", "u1"));
+
+        // Changed before the group is enumerated
+        SCIMPatchOperations operations = new SCIMPatchOperations();
+        operations.addMembers(Collections.singletonList("u1"));
+        assertTrue(index.apply("g2", operations));
+        index.remove("g1");
+        index.add(group("g2"));
+        index.trim();
+
+        assertEquals(Collections.singletonList("g2"), ids(index.findGroups(Collections.singleton("u1"))));
+    }
+
+    @Test
+    void rejectUnsupportedChanges() {
+        GroupMemberIndex index = new GroupMemberIndex(1000, 0);
+        index.add(group("g1", "u1"));
+        index.trim();
+
+        SCIMPatchOperations operations = new SCIMPatchOperations();
+        operations.replace("members", "");
+
+        assertFalse(index.apply("g1", operations));
+    }
+
+    @Test
+    void expire() {
+        GroupMemberIndex index = new GroupMemberIndex(1000, 0);
+
+        assertFalse(index.isExpired(999));
+        assertTrue(index.isExpired(1000));
+    }
+
+    private static SCIMEMUGroup group(String id, String... members) {
+        SCIMEMUGroup group = new SCIMEMUGroup();
+        group.id = id;
+        group.displayName = "group-" + id;
+        group.members = new ArrayList<>();
+        for (String member : members) {
+            SCIMMember m = new SCIMMember();
+            m.value = member;
+            m.ref = "https://api.github.com/scim/v2/enterprises/test/Users/" + member;
+            group.members.add(m);
+        }
+        return group;
+    }
+
+    private static List<String> ids(List<SCIMEMUGroup> groups) {
+        List<String> ids = new ArrayList<>();
+        for (SCIMEMUGroup group : groups) {
+            ids.add(group.id);
+        }
+        return ids;
+    }
+
+    private static List<String> members(SCIMEMUGroup group) {
+        List<String> members = new ArrayList<>();
+        for (SCIMMember member : group.members) {
+            members.add(member.value);
+        }
+        return members;
+    }
+}
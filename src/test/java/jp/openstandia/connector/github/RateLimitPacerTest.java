@@ -0,0 +1,105 @@
+package jp.openstandia.connector.github;
+
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitPacerTest {
+
+    @Test
+    void burstIsNotDelayed() {
+        RateLimitPacer.TokenBucket bucket = new RateLimitPacer.TokenBucket(false);
+        long now = 1_000_000L;
+        bucket.update(5000, 5000, now + TimeUnit.HOURS.toMillis(1), now);
+
+        // 2% of the limit is allowed as burst
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, bucket.reserve(now));
+        }
+        assertTrue(bucket.reserve(now) > 0);
+    }
+
+    @Test
+    void spreadAcrossResetWindow() {
+        RateLimitPacer.TokenBucket bucket = new RateLimitPacer.TokenBucket(false);
+        long now = 1_000_000L;
+        // 100 requests are available for 100 seconds except the reserve
+        bucket.update(2000, 200, now + TimeUnit.SECONDS.toMillis(100), now);
+
+        for (int i = 0; i < 40; i++) {
+            bucket.reserve(now);
+        }
+        long wait = bucket.reserve(now);
+        // (200 - 2000 * 5%) / 100s = 1 request per second
+        assertEquals(1000, wait);
+    }
+
+    @Test
+    void waitUntilResetIfNoBudget() {
+        RateLimitPacer.TokenBucket bucket = new RateLimitPacer.TokenBucket(false);
+        long now = 1_000_000L;
+        bucket.update(5000, 0, now + 5000, now);
+
+        bucket.reserve(now);
+        assertEquals(5000, bucket.reserve(now));
+        assertEquals(0, bucket.reserve(now + 5000));
+    }
+
+    @Test
+    void learnGraphQLCost() {
+        RateLimitPacer.TokenBucket bucket = new RateLimitPacer.TokenBucket(true);
+        long now = 1_000_000L;
+        long reset = now + TimeUnit.HOURS.toMillis(1);
+        bucket.update(5000, 5000, reset, now, 50);
+
+        // Burst is 100 points, a query costs 50 points
+        assertEquals(0, bucket.reserve(now));
+        assertEquals(0, bucket.reserve(now));
+        assertTrue(bucket.reserve(now) > 0);
+    }
+
+    @Test
+    void notInferGraphQLCostFromConcurrentRequests() {
+        RateLimitPacer.TokenBucket bucket = new RateLimitPacer.TokenBucket(true);
+        long now = 1_000_000L;
+        long reset = now + TimeUnit.HOURS.toMillis(1);
+        bucket.update(5000, 5000, reset, now, 1);
+        // Concurrent queries consumed 50 points in total
+        bucket.update(5000, 4950, reset, now, 1);
+
+        // Still a query costs 1 point
+        for (int i = 0; i < 98; i++) {
+            assertEquals(0, bucket.reserve(now));
+        }
+    }
+
+    @Test
+    void readGraphQLCost() {
+        assertEquals(3, RateLimitPacer.readGraphQLCost(response(
+                "{\"data\":{\"rateLimit\":{\"cost\":3,\"limit\":5000,\"remaining\":4990},\"organization\":{}}}")));
+        // Not selected
+        assertEquals(0, RateLimitPacer.readGraphQLCost(response(
+                "{\"data\":{\"organization\":{\"rateLimit\":{\"cost\":3}}}}")));
+        // Truncated
+        assertEquals(0, RateLimitPacer.readGraphQLCost(response("{\"data\":{\"rateLimit\":{\"co")));
+    }
+
+    private static Response response(String body) {
+        Request request = new Request.Builder().url("https://api.github.com/graphql").build();
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .body(ResponseBody.create(body, MediaType.get("application/json")))
+                .build();
+    }
+}
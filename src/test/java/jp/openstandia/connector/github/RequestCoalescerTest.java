@@ -0,0 +1,173 @@
+package jp.openstandia.connector.github;
+
+import okhttp3.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescerTest {
+
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    @Test
+    void coalesce() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        CountDownLatch sent = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ConditionalRequestCacheTest.StubChain leaderChain = new ConditionalRequestCacheTest.StubChain();
+        leaderChain.next = (req) -> {
+            sent.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return response(req, "{\"id\":1}");
+        };
+        ConditionalRequestCacheTest.StubChain followerChain = new ConditionalRequestCacheTest.StubChain();
+        followerChain.next = (req) -> response(req, "{\"id\":2}");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> body(coalescer.intercept(leaderChain.with(get("/orgs/test/teams/a", "token1")))));
+            sent.await();
+            Future<String> follower = executor.submit(() -> body(coalescer.intercept(followerChain.with(get("/orgs/test/teams/a", "token1")))));
+            while (coalescer.waiting() == 0) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertEquals("{\"id\":1}", leader.get(10, TimeUnit.SECONDS));
+            assertEquals("{\"id\":1}", follower.get(10, TimeUnit.SECONDS));
+            assertTrue(followerChain.requests.isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void notShareErrorResponse() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        CountDownLatch sent = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ConditionalRequestCacheTest.StubChain leaderChain = new ConditionalRequestCacheTest.StubChain();
+        leaderChain.next = (req) -> {
+            sent.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return response(req, 502, "{\"message\":\"Server Error\"}");
+        };
+        ConditionalRequestCacheTest.StubChain followerChain = new ConditionalRequestCacheTest.StubChain();
+        followerChain.next = (req) -> response(req, "{\"id\":2}");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> leader = executor.submit(() -> {
+                try (Response r = coalescer.intercept(leaderChain.with(get("/orgs/test/teams/a", "token1")))) {
+                    return r.code();
+                }
+            });
+            sent.await();
+            Future<String> follower = executor.submit(() -> body(coalescer.intercept(followerChain.with(get("/orgs/test/teams/a", "token1")))));
+            while (coalescer.waiting() == 0) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertEquals(502, leader.get(10, TimeUnit.SECONDS));
+            // The waiting request is sent by itself instead of receiving the error
+            assertEquals("{\"id\":2}", follower.get(10, TimeUnit.SECONDS));
+            assertEquals(1, followerChain.requests.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void readOwnWrite() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        CountDownLatch sent = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ConditionalRequestCacheTest.StubChain leaderChain = new ConditionalRequestCacheTest.StubChain();
+        leaderChain.next = (req) -> {
+            sent.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return response(req, "{\"name\":\"old\"}");
+        };
+        ConditionalRequestCacheTest.StubChain chain = new ConditionalRequestCacheTest.StubChain();
+        chain.next = (req) -> response(req, "{\"name\":\"new\"}");
+
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        try {
+            Future<String> leader = executor.submit(() -> body(coalescer.intercept(leaderChain.with(get("/orgs/test/teams/a", "token1")))));
+            sent.await();
+
+            // The GET after the write doesn't join the GET which started before it
+            Request patch = get("/orgs/test/teams/a", "token1").newBuilder()
+                    .patch(RequestBody.create("{\"name\":\"new\"}", JSON))
+                    .build();
+            body(coalescer.intercept(chain.with(patch)));
+            assertEquals("{\"name\":\"new\"}", body(coalescer.intercept(chain.with(get("/orgs/test/teams/a", "token1")))));
+            assertEquals(2, chain.requests.size());
+
+            release.countDown();
+            assertEquals("{\"name\":\"old\"}", leader.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void notCoalesceSequentialRequests() throws IOException {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        ConditionalRequestCacheTest.StubChain chain = new ConditionalRequestCacheTest.StubChain();
+
+        chain.next = (req) -> response(req, "{\"id\":1}");
+        assertEquals("{\"id\":1}", body(coalescer.intercept(chain.with(get("/orgs/test/teams/a", "token1")))));
+        chain.next = (req) -> response(req, "{\"id\":2}");
+        assertEquals("{\"id\":2}", body(coalescer.intercept(chain.with(get("/orgs/test/teams/a", "token1")))));
+
+        assertEquals(2, chain.requests.size());
+        assertEquals(0, coalescer.waiting());
+    }
+
+    private static String body(Response response) throws IOException {
+        try (Response r = response) {
+            return r.body().string();
+        }
+    }
+
+    private static Request get(String path, String token) {
+        return new Request.Builder()
+                .url("https://api.github.com" + path)
+                .header("Authorization", "token " + token)
+                .build();
+    }
+
+    private static Response response(Request request, String body) {
+        return response(request, 200, body);
+    }
+
+    private static Response response(Request request, int code, String body) {
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message(code == 200 ? "OK" : "Error")
+                .body(ResponseBody.create(body, JSON))
+                .build();
+    }
+}
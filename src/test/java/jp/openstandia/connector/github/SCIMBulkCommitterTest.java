@@ -0,0 +1,108 @@
+package jp.openstandia.connector.github;
+
+import jp.openstandia.connector.github.rest.SCIMBulkCommitter;
+import org.junit.jupiter.api.Test;
+import org.kohsuke.github.SCIMBulkOperation;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SCIMBulkCommitterTest {
+
+    @Test
+    void single() throws IOException {
+        SCIMBulkCommitter committer = new SCIMBulkCommitter(10, 0);
+
+        SCIMBulkOperation result = committer.submit(SCIMBulkOperation.of("POST", "/Users", null), this::created);
+
+        assertTrue(result.isSuccess());
+        assertEquals("op0", result.getLocationId());
+    }
+
+    @Test
+    void groupCommit() throws Exception {
+        // Long linger, so the request is sent when the queue is full
+        SCIMBulkCommitter committer = new SCIMBulkCommitter(3, TimeUnit.MINUTES.toMillis(1));
+        AtomicInteger requests = new AtomicInteger();
+        SCIMBulkCommitter.Sender sender = ops -> {
+            requests.incrementAndGet();
+            List<SCIMBulkOperation> results = created(ops);
+            // The results may be returned in any order
+            Collections.reverse(results);
+            return results;
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<SCIMBulkOperation>> futures = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                String path = "/Users/u" + i;
+                futures.add(executor.submit(() -> committer.submit(SCIMBulkOperation.of("PATCH", path, null), sender)));
+            }
+
+            for (int i = 0; i < 3; i++) {
+                assertEquals("/Users/u" + i, futures.get(i).get(10, TimeUnit.SECONDS).path);
+            }
+            assertEquals(1, requests.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void error() {
+        SCIMBulkCommitter committer = new SCIMBulkCommitter(10, 0);
+
+        assertThrows(IOException.class, () -> committer.submit(SCIMBulkOperation.of("DELETE", "/Users/u1", null), ops -> {
+            throw new IOException("Bad Gateway");
+        }));
+        // The next operation is sent again
+        assertDoesNotThrow(() -> committer.submit(SCIMBulkOperation.of("DELETE", "/Users/u1", null), this::created));
+    }
+
+    @Test
+    void releaseFollowersOnError() throws Exception {
+        SCIMBulkCommitter committer = new SCIMBulkCommitter(2, TimeUnit.MINUTES.toMillis(1));
+        SCIMBulkCommitter.Sender sender = ops -> {
+            throw new OutOfMemoryError("Test");
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<SCIMBulkOperation>> futures = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                String path = "/Users/u" + i;
+                futures.add(executor.submit(() -> committer.submit(SCIMBulkOperation.of("DELETE", path, null), sender)));
+            }
+
+            // The leader throws the Error and the follower fails instead of waiting forever
+            List<Class<?>> errors = new ArrayList<>();
+            for (Future<SCIMBulkOperation> future : futures) {
+                ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+                errors.add(e.getCause().getClass());
+            }
+            assertTrue(errors.contains(OutOfMemoryError.class));
+            assertTrue(errors.contains(IOException.class));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<SCIMBulkOperation> created(List<SCIMBulkOperation> ops) {
+        List<SCIMBulkOperation> results = new ArrayList<>();
+        for (SCIMBulkOperation op : ops) {
+            SCIMBulkOperation result = new SCIMBulkOperation();
+            result.method = op.method;
+            result.bulkId = op.bulkId;
+            result.path = op.path;
+            result.status = "201";
+            result.location = "https://api.github.com/scim/v2/enterprises/test/Users/" + op.bulkId;
+            results.add(result);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,111 @@
+package jp.openstandia.connector.github;
+
+import jp.openstandia.connector.util.MemorySnapshotStore;
+import org.identityconnectors.framework.common.objects.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SCIMSyncProcessorTest {
+
+    private static final ObjectClass OBJECT_CLASS = new ObjectClass("test");
+
+    // id => lastModified
+    private final Map<String, String> resources = new LinkedHashMap<>();
+    private int listAllCalls;
+
+    private SCIMSyncProcessor<String> newProcessor(String key, boolean serverFilter) {
+        return new SCIMSyncProcessor<String>(OBJECT_CLASS, key, MemorySnapshotStore.getInstance(),
+                (id) -> id,
+                (id) -> resources.get(id),
+                (h) -> {
+                    listAllCalls++;
+                    new ArrayList<>(resources.keySet()).forEach(h::handle);
+                },
+                serverFilter ? (since, h) -> resources.keySet().stream()
+                        .filter(id -> resources.get(id).compareTo(since) >= 0)
+                        .forEach(h::handle) : null,
+                resources::size);
+    }
+
+    private static ConnectorObject toConnectorObject(String id) {
+        return new ConnectorObjectBuilder()
+                .setObjectClass(OBJECT_CLASS)
+                .setUid(id)
+                .setName(id)
+                .build();
+    }
+
+    private List<SyncDelta> sync(SCIMSyncProcessor<String> processor, SyncToken token) {
+        List<SyncDelta> deltas = new ArrayList<>();
+        processor.sync(token, deltas::add, SCIMSyncProcessorTest::toConnectorObject);
+        return deltas;
+    }
+
+    @Test
+    void detectChangesBySnapshot() {
+        resources.put("a", "2024-01-01T00:00:00Z");
+        resources.put("b", "2024-01-02T00:00:00Z");
+
+        SCIMSyncProcessor<String> processor = newProcessor("snapshot", false);
+        SyncToken token = processor.getLatestSyncToken();
+        assertEquals("2024-01-02T00:00:00Z", token.getValue());
+
+        resources.put("b", "2024-01-03T00:00:00Z");
+        resources.remove("a");
+        resources.put("c", "2024-01-03T00:00:00Z");
+
+        List<SyncDelta> deltas = sync(processor, token);
+
+        assertEquals(3, deltas.size());
+        assertEquals(SyncDeltaType.CREATE_OR_UPDATE, deltas.get(0).getDeltaType());
+        assertEquals("b", deltas.get(0).getUid().getUidValue());
+        assertEquals("c", deltas.get(1).getUid().getUidValue());
+        assertEquals(SyncDeltaType.DELETE, deltas.get(2).getDeltaType());
+        assertEquals("a", deltas.get(2).getUid().getUidValue());
+    }
+
+    @Test
+    void serverFilterWithoutDeletion() {
+        resources.put("a", "2024-01-01T00:00:00Z");
+        resources.put("b", "2024-01-02T00:00:00Z");
+
+        SCIMSyncProcessor<String> processor = newProcessor("filter", true);
+        SyncToken token = processor.getLatestSyncToken();
+        listAllCalls = 0;
+
+        resources.put("a", "2024-01-03T00:00:00Z");
+        resources.put("c", "2024-01-04T00:00:00Z");
+
+        List<SyncDelta> deltas = sync(processor, token);
+
+        // "b" is at the token but not changed
+        assertEquals(2, deltas.size());
+        assertEquals("a", deltas.get(0).getUid().getUidValue());
+        assertEquals("c", deltas.get(1).getUid().getUidValue());
+        assertEquals(0, listAllCalls);
+    }
+
+    @Test
+    void serverFilterWithDeletion() {
+        resources.put("a", "2024-01-01T00:00:00Z");
+        resources.put("b", "2024-01-02T00:00:00Z");
+
+        SCIMSyncProcessor<String> processor = newProcessor("filter-deletion", true);
+        SyncToken token = processor.getLatestSyncToken();
+        listAllCalls = 0;
+
+        resources.remove("a");
+        resources.put("c", "2024-01-04T00:00:00Z");
+
+        List<SyncDelta> deltas = sync(processor, token);
+
+        assertEquals(2, deltas.size());
+        assertEquals("c", deltas.get(0).getUid().getUidValue());
+        assertEquals(SyncDeltaType.DELETE, deltas.get(1).getDeltaType());
+        assertEquals("a", deltas.get(1).getUid().getUidValue());
+        assertEquals(1, listAllCalls);
+    }
+}
@@ -0,0 +1,53 @@
+package jp.openstandia.connector.github;
+
+import jp.openstandia.connector.github.rest.TeamDirectory;
+import org.junit.jupiter.api.Test;
+import org.kohsuke.github.GraphQLTeamPrivacy;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TeamDirectoryTest {
+
+    @Test
+    void lookup() {
+        TeamDirectory directory = new TeamDirectory(Collections.emptyList(), 1000, 0);
+        directory.put(entry(1, "Dev Team", "dev-team", null));
+
+        assertEquals(1, directory.findByName("dev team").databaseId);
+        assertEquals(1, directory.findBySlug("DEV-TEAM").databaseId);
+        assertEquals(1, directory.findByDatabaseId(1).databaseId);
+        assertEquals(1, directory.findByUid("1:T_1").databaseId);
+        assertNull(directory.findByUid("1:T_2"));
+
+        assertFalse(directory.isExpired(999));
+        assertTrue(directory.isExpired(1000));
+    }
+
+    @Test
+    void update() {
+        TeamDirectory directory = new TeamDirectory(Collections.emptyList(), 1000, 0);
+        directory.put(entry(1, "parent", "parent", null));
+        directory.put(entry(2, "child", "child", "1:T_1"));
+
+        // Rename
+        directory.put(entry(1, "renamed", "renamed", null));
+        assertNull(directory.findByName("parent"));
+        assertNull(directory.findBySlug("parent"));
+        assertEquals(1, directory.findByName("renamed").databaseId);
+        assertEquals("1:T_1", directory.findByName("child").parentUid);
+
+        // Delete the parent
+        directory.remove(1);
+        assertNull(directory.findByName("renamed"));
+        assertNull(directory.findByUid("1:T_1"));
+        assertNull(directory.findByName("child").parentUid);
+        assertEquals(1, directory.size());
+    }
+
+    private static TeamDirectory.Entry entry(long id, String name, String slug, String parentUid) {
+        return new TeamDirectory.Entry(id + ":T_" + id, id, "T_" + id, name, slug, null,
+                GraphQLTeamPrivacy.VISIBLE, parentUid);
+    }
+}
@@ -0,0 +1,48 @@
+package jp.openstandia.connector.github;
+
+import jp.openstandia.connector.github.rest.TeamMembershipIndex;
+import org.junit.jupiter.api.Test;
+import org.kohsuke.github.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TeamMembershipIndexTest {
+
+    @Test
+    void ofTeamsByLogin() {
+        Map<String, List<GraphQLTeamEdge>> teamsByLogin = new HashMap<>();
+        teamsByLogin.put("foo", Arrays.asList(
+                team(1, "T1", 1, GraphQLTeamMemberRole.MEMBER),
+                team(2, "T2", 1, GraphQLTeamMemberRole.MAINTAINER),
+                // Not a member (the user is not found in the organization)
+                team(3, "T3", 0, null)));
+        teamsByLogin.put("bar", Collections.emptyList());
+
+        TeamMembershipIndex index = TeamMembershipIndex.of(teamsByLogin);
+
+        assertTrue(index.covers("foo"));
+        assertTrue(index.covers("bar"));
+        assertFalse(index.covers("hoge"));
+
+        assertEquals(Collections.singletonList("1:T1"), index.getTeams("foo", GraphQLTeamMemberRole.MEMBER));
+        assertEquals(Collections.singletonList("2:T2"), index.getTeams("foo", GraphQLTeamMemberRole.MAINTAINER));
+        assertTrue(index.getTeams("bar", GraphQLTeamMemberRole.MEMBER).isEmpty());
+    }
+
+    private static GraphQLTeamEdge team(int databaseId, String id, int totalCount, GraphQLTeamMemberRole role) {
+        GraphQLTeamEdge edge = new GraphQLTeamEdge();
+        edge.node = new GraphQLTeam();
+        edge.node.databaseId = databaseId;
+        edge.node.id = id;
+        edge.node.members = new GraphQLTeamMemberConnection();
+        edge.node.members.totalCount = totalCount;
+        if (role != null) {
+            GraphQLTeamMemberEdge member = new GraphQLTeamMemberEdge();
+            member.role = role;
+            edge.node.members.edges = new GraphQLTeamMemberEdge[]{member};
+        }
+        return edge;
+    }
+}
@@ -0,0 +1,44 @@
+package jp.openstandia.connector.github.rest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GitHubAppKeyHolderTest {
+
+    @Test
+    void reuseJWT() throws Exception {
+        GitHubAppKeyHolder holder = GitHubAppKeyHolder.acquire(GitHubAppInstallationTokenManagerTest.newPrivateKeyPEM());
+        try {
+            String jwt = holder.getJWT("12345", 60000);
+            assertEquals(jwt, holder.getJWT("12345", 60000));
+            assertNotEquals(jwt, holder.getJWT("67890", 60000));
+        } finally {
+            holder.release();
+        }
+    }
+
+    @Test
+    void release() throws Exception {
+        String pem = GitHubAppInstallationTokenManagerTest.newPrivateKeyPEM();
+        GitHubAppKeyHolder a = GitHubAppKeyHolder.acquire(pem);
+        GitHubAppKeyHolder b = GitHubAppKeyHolder.acquire(pem);
+        assertSame(a, b);
+        assertSame(a.getPrivateKey(), b.getPrivateKey());
+
+        // Still used by the other token manager
+        a.release();
+        GitHubAppKeyHolder c = GitHubAppKeyHolder.acquire(pem);
+        assertSame(a, c);
+
+        b.release();
+        c.release();
+
+        GitHubAppKeyHolder d = GitHubAppKeyHolder.acquire(pem);
+        try {
+            assertNotSame(a, d);
+        } finally {
+            d.release();
+        }
+    }
+}
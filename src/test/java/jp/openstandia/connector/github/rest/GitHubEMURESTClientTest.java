@@ -0,0 +1,238 @@
+package jp.openstandia.connector.github.rest;
+
+import jp.openstandia.connector.github.GitHubEMUConfiguration;
+import jp.openstandia.connector.github.testutil.StubGitHubServer;
+import org.identityconnectors.common.security.GuardedString;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.identityconnectors.framework.common.exceptions.ConnectorIOException;
+import org.identityconnectors.framework.common.objects.Uid;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kohsuke.github.GitHubExt;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GitHubEMURESTClientTest {
+
+    private StubGitHubServer server;
+    private GitHubEMURESTClient client;
+
+    @BeforeEach
+    void before() throws Exception {
+        server = new StubGitHubServer();
+        server.handler = (req) -> apiInfo();
+    }
+
+    @AfterEach
+    void after() {
+        if (client != null) {
+            client.close();
+        }
+        server.close();
+    }
+
+    @Test
+    void reuseSession() {
+        client = new GitHubEMURESTClient(newConfiguration());
+
+        GitHubExt apiClient = client.getApiClient();
+        assertSame(apiClient, client.getApiClient());
+
+        client.test();
+        client.test();
+        assertSame(apiClient, client.getApiClient());
+    }
+
+    @Test
+    void rebuildSessionAfterUnauthorized() {
+        client = new GitHubEMURESTClient(newConfiguration());
+        GitHubExt apiClient = client.getApiClient();
+
+        server.handler = (req) -> new StubGitHubServer.Response(401, "{\"message\":\"Bad credentials\"}");
+        assertThrows(ConnectorException.class, () -> client.test());
+
+        server.handler = (req) -> apiInfo();
+        assertNotSame(apiClient, client.getApiClient());
+    }
+
+    @Test
+    void prefetchPages() {
+        GitHubEMUConfiguration conf = newConfiguration();
+        conf.setScimPageFetchConcurrency(3);
+        client = new GitHubEMURESTClient(conf);
+
+        int total = 7;
+        server.handler = (req) -> {
+            int startIndex = Integer.parseInt(queryParameter(req.uri, "startIndex", "1"));
+            int count = Integer.parseInt(queryParameter(req.uri, "count", "2"));
+            StringBuilder resources = new StringBuilder();
+            for (int i = startIndex; i < startIndex + count && i <= total; i++) {
+                if (resources.length() > 0) {
+                    resources.append(",");
+                }
+                resources.append("{\"id\":\"u" + i + "\",\"userName\":\"user" + i + "\"}");
+            }
+            return new StubGitHubServer.Response(200, "{\"totalResults\":" + total + ",\"itemsPerPage\":" + count +
+                    ",\"startIndex\":" + startIndex + ",\"Resources\":[" + resources + "]}");
+        };
+
+        List<String> ids = new ArrayList<>();
+        int count = client.getEMUUsers(user -> ids.add(user.id), null, null, 2, 0);
+
+        assertEquals(total, count);
+        // Returned in order even if the pages are fetched concurrently
+        assertEquals(Arrays.asList("u1", "u2", "u3", "u4", "u5", "u6", "u7"), ids);
+        assertEquals(4, server.requests("GET", "/scim/v2/enterprises/localEnt/Users").size());
+    }
+
+    @Test
+    void excludeUserGroups() {
+        client = new GitHubEMURESTClient(newConfiguration());
+        server.handler = (req) -> emptyList();
+
+        // The groups aren't fetched
+        client.getEMUUsers(user -> true, null, new HashSet<>(Arrays.asList("userName", "externalId")), 10, 1);
+        // The groups are fetched
+        client.getEMUUsers(user -> true, null, new HashSet<>(Arrays.asList("userName", "groups")), 10, 1);
+        // All fields are fetched
+        client.getEMUUsers(user -> true, null, null, 10, 1);
+
+        List<StubGitHubServer.Request> requests = server.requests("GET", "/scim/v2/enterprises/localEnt/Users");
+        assertEquals(3, requests.size());
+        assertEquals("groups", queryParameter(requests.get(0).uri, "excludedAttributes", null));
+        assertNull(queryParameter(requests.get(1).uri, "excludedAttributes", null));
+        assertNull(queryParameter(requests.get(2).uri, "excludedAttributes", null));
+    }
+
+    @Test
+    void excludeGroupMembers() {
+        client = new GitHubEMURESTClient(newConfiguration());
+        server.handler = (req) -> emptyList();
+
+        // The members aren't fetched
+        client.getEMUGroups(group -> true, null, new HashSet<>(Arrays.asList("displayName", "externalId")), 10, 1);
+        // The members are fetched
+        client.getEMUGroups(group -> true, null, new HashSet<>(Arrays.asList("displayName", "members.User.value")), 10, 1);
+        // All fields are fetched
+        client.getEMUGroups(group -> true, null, null, 10, 1);
+
+        List<StubGitHubServer.Request> requests = server.requests("GET", "/scim/v2/enterprises/localEnt/Groups");
+        assertEquals(3, requests.size());
+        assertEquals("members", queryParameter(requests.get(0).uri, "excludedAttributes", null));
+        assertNull(queryParameter(requests.get(1).uri, "excludedAttributes", null));
+        assertNull(queryParameter(requests.get(2).uri, "excludedAttributes", null));
+    }
+
+    @Test
+    void filterByEq() {
+        client = new GitHubEMURESTClient(newConfiguration());
+        server.handler = (req) -> emptyList();
+
+        client.getEMUUsers("externalId", "a\"b\\c", user -> true, null, 10, 1);
+
+        List<StubGitHubServer.Request> requests = server.requests("GET", "/scim/v2/enterprises/localEnt/Users");
+        assertEquals(1, requests.size());
+        assertEquals("externalId eq \"a\\\"b\\\\c\"", queryParameter(requests.get(0).uri, "filter", null));
+    }
+
+    @Test
+    void chunkRetryDelay() {
+        ConnectorIOException e = new ConnectorIOException("Failed to call GitHub EMU API");
+
+        assertEquals(1000, GitHubEMURESTClient.getRetryDelayMillis(e, 1));
+        assertEquals(2000, GitHubEMURESTClient.getRetryDelayMillis(e, 2));
+        assertEquals(4000, GitHubEMURESTClient.getRetryDelayMillis(e, 3));
+        assertEquals(GitHubEMURESTClient.MAX_CHUNK_RETRY_DELAY_MILLIS, GitHubEMURESTClient.getRetryDelayMillis(e, 100));
+    }
+
+    @Test
+    void notReplayFailedBulk() {
+        GitHubEMUConfiguration conf = newConfiguration();
+        conf.setScimBulkMaxOperations(10);
+        conf.setScimBulkLingerMilliseconds(0);
+        client = new GitHubEMURESTClient(conf);
+        server.handler = (req) -> {
+            if (req.uri.contains("/ServiceProviderConfig")) {
+                return bulkSupported();
+            }
+            if (req.uri.contains("/Bulk")) {
+                return new StubGitHubServer.Response(500, "{\"message\":\"Server Error\"}");
+            }
+            return new StubGitHubServer.Response(204, "");
+        };
+
+        assertThrows(ConnectorException.class, () -> client.deleteEMUUser(new Uid("u1"), null));
+        int bulkRequests = server.requests("POST", "/scim/v2/enterprises/localEnt/Bulk").size();
+        assertThrows(ConnectorException.class, () -> client.deleteEMUUser(new Uid("u1"), null));
+
+        // The bulk request isn't disabled and the operation isn't sent again by itself
+        assertTrue(server.requests("POST", "/scim/v2/enterprises/localEnt/Bulk").size() > bulkRequests);
+        assertTrue(server.requests("DELETE", "/scim/v2/enterprises/localEnt/Users").isEmpty());
+    }
+
+    @Test
+    void fallbackWithoutBulk() {
+        GitHubEMUConfiguration conf = newConfiguration();
+        conf.setScimBulkMaxOperations(10);
+        conf.setScimBulkLingerMilliseconds(0);
+        client = new GitHubEMURESTClient(conf);
+        server.handler = (req) -> {
+            if (req.uri.contains("/ServiceProviderConfig")) {
+                return bulkSupported();
+            }
+            if (req.uri.contains("/Bulk")) {
+                return new StubGitHubServer.Response(404, "{\"message\":\"Not Found\"}");
+            }
+            return new StubGitHubServer.Response(204, "");
+        };
+
+        client.deleteEMUUser(new Uid("u1"), null);
+        client.deleteEMUUser(new Uid("u2"), null);
+
+        // Disabled after the first failure
+        assertEquals(1, server.requests("POST", "/scim/v2/enterprises/localEnt/Bulk").size());
+        assertEquals(2, server.requests("DELETE", "/scim/v2/enterprises/localEnt/Users").size());
+    }
+
+    static String queryParameter(String uri, String name, String defaultValue) {
+        int q = uri.indexOf('?');
+        if (q < 0) {
+            return defaultValue;
+        }
+        for (String param : uri.substring(q + 1).split("&")) {
+            int eq = param.indexOf('=');
+            if (eq > 0 && param.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(param.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return defaultValue;
+    }
+
+    private static StubGitHubServer.Response emptyList() {
+        return new StubGitHubServer.Response(200, "{\"totalResults\":0,\"itemsPerPage\":0,\"startIndex\":1,\"Resources\":[]}");
+    }
+
+    private static StubGitHubServer.Response bulkSupported() {
+        return new StubGitHubServer.Response(200, "{\"bulk\":{\"supported\":true,\"maxOperations\":100}}");
+    }
+
+    private StubGitHubServer.Response apiInfo() {
+        return new StubGitHubServer.Response(200, "{\"rate_limit_url\":\"" + server.getEndpointURL() + "/rate_limit\"}");
+    }
+
+    private GitHubEMUConfiguration newConfiguration() {
+        GitHubEMUConfiguration conf = new GitHubEMUConfiguration();
+        conf.setEnterpriseSlug("localEnt");
+        conf.setAccessToken(new GuardedString("token".toCharArray()));
+        conf.setEndpointURL(server.getEndpointURL());
+        return conf;
+    }
+}
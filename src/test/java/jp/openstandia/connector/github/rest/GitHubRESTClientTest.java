@@ -0,0 +1,96 @@
+package jp.openstandia.connector.github.rest;
+
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.identityconnectors.framework.common.exceptions.UnknownUidException;
+import org.junit.jupiter.api.Test;
+import org.kohsuke.github.GHTeam;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GitHubRESTClientTest {
+
+    @Test
+    void updateTeamMembershipsConcurrently() {
+        List<GitHubRESTClient.TeamMembershipChange> changes = changes(6);
+        Set<String> updated = ConcurrentHashMap.newKeySet();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        // Each request waits for the other one, so they must run at the same time
+        CountDownLatch together = new CountDownLatch(2);
+
+        GitHubRESTClient.applyTeamMembershipChanges("test", "user1", changes, 3, change -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            together.countDown();
+            assertTrue(together.await(10, TimeUnit.SECONDS));
+            Thread.sleep(10);
+            updated.add(change.team);
+            running.decrementAndGet();
+        });
+
+        assertEquals(6, updated.size());
+        assertTrue(maxRunning.get() >= 2);
+        assertTrue(maxRunning.get() <= 3);
+    }
+
+    @Test
+    void reportPartialFailure() {
+        List<GitHubRESTClient.TeamMembershipChange> changes = changes(5);
+        Set<String> updated = ConcurrentHashMap.newKeySet();
+
+        ConnectorException e = assertThrows(ConnectorException.class, () ->
+                GitHubRESTClient.applyTeamMembershipChanges("test", "user1", changes, 3, change -> {
+                    if (change.team.equals("2:T_2") || change.team.equals("4:T_4")) {
+                        throw new ConnectorException("Server error");
+                    }
+                    updated.add(change.team);
+                }));
+
+        // The other teams are still updated
+        assertEquals(3, updated.size());
+        assertTrue(e.getMessage().contains("Failed to update 2 of 5 team memberships of user1"));
+        assertTrue(e.getMessage().contains("2:T_2"));
+        assertTrue(e.getMessage().contains("4:T_4"));
+    }
+
+    @Test
+    void rethrowSingleFailure() {
+        List<GitHubRESTClient.TeamMembershipChange> changes = changes(3);
+        UnknownUidException unknown = new UnknownUidException("Not found");
+
+        UnknownUidException e = assertThrows(UnknownUidException.class, () ->
+                GitHubRESTClient.applyTeamMembershipChanges("test", "user1", changes, 3, change -> {
+                    if (change.team.equals("1:T_1")) {
+                        throw unknown;
+                    }
+                }));
+
+        assertSame(unknown, e);
+    }
+
+    @Test
+    void rethrowUnknownUidWhenAllFailed() {
+        List<GitHubRESTClient.TeamMembershipChange> changes = changes(3);
+
+        assertThrows(UnknownUidException.class, () ->
+                GitHubRESTClient.applyTeamMembershipChanges("test", "user1", changes, 3, change -> {
+                    throw new UnknownUidException("Not found");
+                }));
+    }
+
+    private static List<GitHubRESTClient.TeamMembershipChange> changes(int size) {
+        List<GitHubRESTClient.TeamMembershipChange> changes = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            // Remove the first one and add the rest
+            changes.add(new GitHubRESTClient.TeamMembershipChange(i + ":T_" + i, i == 0 ? null : GHTeam.Role.MEMBER));
+        }
+        return changes;
+    }
+}
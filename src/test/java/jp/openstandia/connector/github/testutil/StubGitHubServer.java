@@ -0,0 +1,119 @@
+package jp.openstandia.connector.github.testutil;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local HTTP server which answers GitHub API requests with stubbed responses.
+ */
+public class StubGitHubServer implements AutoCloseable {
+
+    public static class Request {
+        public final String method;
+        // Path with the query string
+        public final String uri;
+        public final String body;
+
+        Request(String method, String uri, String body) {
+            this.method = method;
+            this.uri = uri;
+            this.body = body;
+        }
+    }
+
+    public static class Response {
+        public final int status;
+        public final String body;
+
+        public Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Handler {
+        Response handle(Request request) throws Exception;
+    }
+
+    public final List<Request> requests = new CopyOnWriteArrayList<>();
+    public volatile Handler handler = (req) -> new Response(200, "{}");
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    public StubGitHubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String getEndpointURL() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public List<Request> requests(String method, String pathPrefix) {
+        List<Request> found = new CopyOnWriteArrayList<>();
+        for (Request r : requests) {
+            if (r.method.equals(method) && r.uri.startsWith(pathPrefix)) {
+                found.add(r);
+            }
+        }
+        return found;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            Request request = new Request(exchange.getRequestMethod(), exchange.getRequestURI().toString(),
+                    read(exchange.getRequestBody()));
+            requests.add(request);
+
+            Response response;
+            try {
+                response = handler.handle(request);
+            } catch (Exception e) {
+                response = new Response(500, "{\"message\":\"" + e.getMessage() + "\"}");
+            }
+
+            byte[] body = response.body != null ? response.body.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(response.status, body.length > 0 ? body.length : -1);
+            if (body.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        int n;
+        while ((n = in.read(buf)) != -1) {
+            out.write(buf, 0, n);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
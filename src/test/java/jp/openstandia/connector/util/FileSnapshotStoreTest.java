@@ -0,0 +1,141 @@
+package jp.openstandia.connector.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSnapshotStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void survivesRestart() {
+        Map<String, String> entries = new HashMap<>();
+        entries.put("u1", "2024-01-01T00:00:00Z");
+        entries.put("u2", "2024-01-02T00:00:00Z");
+        FileSnapshotStore.getInstance(dir.resolve("a")).save("key", new SyncSnapshot("t1", entries));
+
+        entries.remove("u1");
+        entries.put("u2", "2024-01-03T00:00:00Z");
+        entries.put("u3", null);
+        FileSnapshotStore.getInstance(dir.resolve("a")).save("key", new SyncSnapshot("t2", entries));
+
+        // Another instance simulates restarting the connector server
+        SyncSnapshot loaded = newStore(dir.resolve("a")).load("key");
+
+        assertEquals("t2", loaded.getToken());
+        assertEquals(entries, loaded.getEntries());
+        assertNull(newStore(dir.resolve("a")).load("other"));
+    }
+
+    @Test
+    void nullToken() {
+        Map<String, String> entries = new HashMap<>();
+        entries.put("u1", "2024-01-01T00:00:00Z");
+        FileSnapshotStore.getInstance(dir.resolve("e")).save("key", new SyncSnapshot(null, entries));
+        assertNull(newStore(dir.resolve("e")).load("key").getToken());
+
+        // Appended commit
+        FileSnapshotStore.getInstance(dir.resolve("e")).save("key", new SyncSnapshot("", entries));
+        assertEquals("", newStore(dir.resolve("e")).load("key").getToken());
+        FileSnapshotStore.getInstance(dir.resolve("e")).save("key", new SyncSnapshot(null, entries));
+        SyncSnapshot loaded = newStore(dir.resolve("e")).load("key");
+
+        assertNull(loaded.getToken());
+        assertEquals(entries, loaded.getEntries());
+    }
+
+    @Test
+    void ignoresUncommittedChanges() throws IOException {
+        Path journalDir = dir.resolve("b");
+        Map<String, String> entries = new HashMap<>();
+        entries.put("u1", "2024-01-01T00:00:00Z");
+        FileSnapshotStore.getInstance(journalDir).save("key", new SyncSnapshot("t1", entries));
+
+        try (Stream<Path> files = Files.list(journalDir)) {
+            Path journal = files.findFirst().get();
+            Files.write(journal, "T\tt2\nD\tu1\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        }
+
+        SyncSnapshot loaded = newStore(journalDir).load("key");
+
+        assertEquals("t1", loaded.getToken());
+        assertEquals(entries, loaded.getEntries());
+    }
+
+    @Test
+    void dropsTruncatedTail() throws IOException {
+        Path journalDir = dir.resolve("d");
+        Map<String, String> entries = new HashMap<>();
+        entries.put("u1", "2024-01-01T00:00:00Z");
+        FileSnapshotStore.getInstance(journalDir).save("key", new SyncSnapshot("t1", entries));
+
+        Path journal;
+        try (Stream<Path> files = Files.list(journalDir)) {
+            journal = files.findFirst().get();
+        }
+        // Killed while writing the next commit
+        Files.write(journal, "T\tt2\nP\tu2".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        FileSnapshotStore store = newStore(journalDir);
+        SyncSnapshot loaded = store.load("key");
+        assertEquals("t1", loaded.getToken());
+        assertEquals(entries, loaded.getEntries());
+
+        entries.put("u3", "2024-01-03T00:00:00Z");
+        store.save("key", new SyncSnapshot("t3", entries));
+
+        loaded = newStore(journalDir).load("key");
+        assertEquals("t3", loaded.getToken());
+        assertEquals(entries, loaded.getEntries());
+    }
+
+    @Test
+    void stopsAtBrokenLine() throws IOException {
+        Path journalDir = dir.resolve("e");
+        Files.createDirectories(journalDir);
+        FileSnapshotStore store = newStore(journalDir);
+        Files.write(store.toJournalPath("key"), ("T\tt1\nP\tu1\t2024-01-01T00:00:00Z\nC\n" +
+                "T\tt2\nP\nC\n").getBytes(StandardCharsets.UTF_8));
+
+        SyncSnapshot loaded = store.load("key");
+
+        assertEquals("t1", loaded.getToken());
+        assertEquals(1, loaded.getEntries().size());
+    }
+
+    @Test
+    void compaction() throws IOException {
+        Path journalDir = dir.resolve("c");
+        FileSnapshotStore store = FileSnapshotStore.getInstance(journalDir);
+        Map<String, String> entries = new HashMap<>();
+        entries.put("u1", "2024-01-01T00:00:00Z");
+        for (int i = 0; i < 100; i++) {
+            entries.put("u2", String.valueOf(i));
+            store.save("key", new SyncSnapshot("t" + i, entries));
+        }
+
+        try (Stream<Path> files = Files.list(journalDir)) {
+            Path journal = files.findFirst().get();
+            assertTrue(Files.readAllLines(journal).size() < 20);
+        }
+        SyncSnapshot loaded = newStore(journalDir).load("key");
+        assertEquals("t99", loaded.getToken());
+        assertEquals(entries, loaded.getEntries());
+    }
+
+    private static FileSnapshotStore newStore(Path dir) {
+        return new FileSnapshotStore(dir);
+    }
+}
@@ -0,0 +1,54 @@
+package jp.openstandia.connector.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelTasksTest {
+
+    @Test
+    void boundedConcurrency() {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            items.add(i);
+        }
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger done = new AtomicInteger();
+
+        Map<Integer, Exception> failures = ParallelTasks.run(items, 3, i -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(10);
+            running.decrementAndGet();
+            done.incrementAndGet();
+        });
+
+        assertTrue(failures.isEmpty());
+        assertEquals(20, done.get());
+        assertTrue(maxRunning.get() <= 3);
+    }
+
+    @Test
+    void collectFailures() {
+        for (int concurrency : new int[]{1, 4}) {
+            AtomicInteger done = new AtomicInteger();
+
+            Map<String, Exception> failures = ParallelTasks.run(Arrays.asList("a", "b", "c", "d"), concurrency, s -> {
+                if (s.equals("b") || s.equals("d")) {
+                    throw new IllegalStateException(s);
+                }
+                done.incrementAndGet();
+            });
+
+            assertEquals(2, done.get());
+            assertEquals(Arrays.asList("b", "d"), new ArrayList<>(failures.keySet()));
+            assertEquals("d", failures.get("d").getMessage());
+        }
+    }
+}
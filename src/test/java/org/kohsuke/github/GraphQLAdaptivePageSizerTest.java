@@ -0,0 +1,84 @@
+package org.kohsuke.github;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphQLAdaptivePageSizerTest {
+
+    @Test
+    void estimateCost() {
+        assertEquals(1, GraphQLQueryCost.connection(100).getPoints());
+        assertEquals(100, GraphQLQueryCost.connection(100).nodes);
+
+        // 1 request for the teams + 100 requests for the nested members
+        GraphQLQueryCost nested = GraphQLQueryCost.connection(100).nested(100, 1);
+        assertEquals(2, nested.getPoints());
+        assertEquals(200, nested.nodes);
+        assertEquals(1, GraphQLQueryCost.connection(99).nested(99, 1).getPoints());
+    }
+
+    @Test
+    void growWhileFast() {
+        GraphQLAdaptivePageSizer sizer = new GraphQLAdaptivePageSizer(GraphQLQueryCost::connection);
+
+        assertEquals(60, sizer.next(30, 500, null));
+        assertEquals(100, sizer.next(60, 500, null));
+        assertEquals(100, sizer.next(100, 500, null));
+    }
+
+    @Test
+    void shrinkWhenSlow() {
+        GraphQLAdaptivePageSizer sizer = new GraphQLAdaptivePageSizer(GraphQLQueryCost::connection);
+
+        assertEquals(50, sizer.next(100, 7000, null));
+        assertEquals(75, sizer.next(100, 4000, null));
+        assertEquals(1, sizer.next(1, 9000, null));
+    }
+
+    @Test
+    void keepPointCost() {
+        GraphQLAdaptivePageSizer sizer = new GraphQLAdaptivePageSizer(first -> GraphQLQueryCost.connection(first).nested(first, 1));
+
+        GraphQLRateLimit rateLimit = new GraphQLRateLimit();
+        rateLimit.cost = 1;
+        rateLimit.remaining = 5000;
+
+        assertEquals(99, sizer.next(60, 500, rateLimit));
+    }
+
+    @Test
+    void keepSizeWhenBudgetIsLow() {
+        GraphQLAdaptivePageSizer sizer = new GraphQLAdaptivePageSizer(GraphQLQueryCost::connection);
+
+        GraphQLRateLimit rateLimit = new GraphQLRateLimit();
+        rateLimit.cost = 1;
+        rateLimit.remaining = 5;
+
+        assertEquals(30, sizer.next(30, 500, rateLimit));
+    }
+
+    @Test
+    void selectRateLimit() {
+        String query = "query($login: String!) {\n" +
+                "  organization(login: $login) {\n" +
+                "    id\n" +
+                "  }\n" +
+                "}\n";
+
+        assertEquals("query($login: String!) {\n" +
+                "  rateLimit {\n" +
+                "    cost\n" +
+                "    limit\n" +
+                "    remaining\n" +
+                "    nodeCount\n" +
+                "  }\n" +
+                "  organization(login: $login) {\n" +
+                "    id\n" +
+                "  }\n" +
+                "}\n", GraphQLRateLimit.select(query));
+        assertFalse(GraphQLExternalIdentityQuery.get("", "", EnumSet.allOf(GraphQLExternalIdentityField.class)).contains("rateLimit"));
+    }
+}
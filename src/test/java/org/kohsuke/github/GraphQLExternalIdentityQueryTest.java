@@ -0,0 +1,44 @@
+package org.kohsuke.github;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphQLExternalIdentityQueryTest {
+
+    @Test
+    void sparse() {
+        String query = GraphQLExternalIdentityQuery.get("", "", Collections.emptySet());
+
+        assertTrue(query.contains("guid"));
+        assertTrue(query.contains("login"));
+        assertTrue(query.contains("organization(login: $login)"));
+        assertTrue(query.contains("username"));
+        assertFalse(query.contains("emails"));
+        assertFalse(query.contains("givenName"));
+        assertFalse(query.contains("familyName"));
+    }
+
+    @Test
+    void full() {
+        String query = GraphQLExternalIdentityQuery.get(", $userLogin: String!", "login: $userLogin, ",
+                EnumSet.allOf(GraphQLExternalIdentityField.class));
+
+        assertTrue(query.startsWith("query($login: String!, $userLogin: String!, $first: Int!, $after: String) {"));
+        assertTrue(query.contains("externalIdentities(login: $userLogin, first: $first, after: $after)"));
+        assertTrue(query.contains("emails"));
+        assertTrue(query.contains("givenName"));
+        assertTrue(query.contains("familyName"));
+    }
+
+    @Test
+    void cache() {
+        String query = GraphQLExternalIdentityQuery.get("", "", EnumSet.of(GraphQLExternalIdentityField.SCIM_EMAILS));
+
+        assertSame(query, GraphQLExternalIdentityQuery.get("", "", Collections.singletonList(GraphQLExternalIdentityField.SCIM_EMAILS)));
+        assertNotSame(query, GraphQLExternalIdentityQuery.get("", "", EnumSet.of(GraphQLExternalIdentityField.SCIM_GIVEN_NAME)));
+    }
+}
@@ -0,0 +1,97 @@
+package org.kohsuke.github;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphQLReadAheadPageIteratorTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void readAhead() {
+        GraphQLReadAheadPageIterator<Integer> iterator =
+                new GraphQLReadAheadPageIterator<>(Arrays.asList(1, 2, 3).iterator(), executor, 1);
+
+        assertEquals(1, iterator.next());
+        assertEquals(2, iterator.next());
+        assertEquals(3, iterator.next());
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    void closeWhilePrefetching() throws InterruptedException {
+        CountDownLatch prefetching = new CountDownLatch(3);
+        // Endless pages, so the producer always waits for the space of the buffer
+        Iterator<Integer> pages = new Iterator<Integer>() {
+            private final AtomicInteger page = new AtomicInteger();
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                prefetching.countDown();
+                return page.incrementAndGet();
+            }
+        };
+        GraphQLReadAheadPageIterator<Integer> iterator = new GraphQLReadAheadPageIterator<>(pages, executor, 1);
+
+        assertEquals(1, iterator.next());
+        assertTrue(prefetching.await(10, TimeUnit.SECONDS));
+
+        iterator.close();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            assertFalse(iterator.hasNext());
+            assertFalse(iterator.hasNext());
+        });
+    }
+
+    @Test
+    void closeBeforeFetching() {
+        GraphQLReadAheadPageIterator<Integer> iterator =
+                new GraphQLReadAheadPageIterator<>(Arrays.asList(1, 2).iterator(), executor, 1);
+        iterator.close();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertFalse(iterator.hasNext()));
+    }
+
+    @Test
+    void error() {
+        Iterator<Integer> pages = new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                throw new AssertionError("failed");
+            }
+        };
+        GraphQLReadAheadPageIterator<Integer> iterator = new GraphQLReadAheadPageIterator<>(pages, executor, 1);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            AssertionError e = assertThrows(AssertionError.class, iterator::hasNext);
+            assertEquals("failed", e.getMessage());
+        });
+    }
+}
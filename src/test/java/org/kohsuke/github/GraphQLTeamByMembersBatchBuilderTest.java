@@ -0,0 +1,121 @@
+package org.kohsuke.github;
+
+import jp.openstandia.connector.github.testutil.StubGitHubServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphQLTeamByMembersBatchBuilderTest {
+
+    private StubGitHubServer server;
+    private GraphQLTeamByMembersBatchBuilder builder;
+
+    @BeforeEach
+    void before() throws Exception {
+        server = new StubGitHubServer();
+
+        GitHub root = new GitHubBuilder().withEndpoint(server.getEndpointURL()).build();
+        GHOrganization org = new GHOrganization();
+        org.login = "test-org";
+
+        builder = new GraphQLTeamByMembersBatchBuilder(root, org, Arrays.asList("user0", "user1", "user2"));
+    }
+
+    @AfterEach
+    void after() {
+        server.close();
+    }
+
+    @Test
+    void mapAliases() throws Exception {
+        server.handler = (req) -> {
+            if (!req.body.contains("$u1")) {
+                // Next page of user0
+                return new StubGitHubServer.Response(200, "{\"data\":{\"organization\":{" +
+                        "\"t0\":" + connection(false, team(3, "team-c")) +
+                        "}}}");
+            }
+            return new StubGitHubServer.Response(200, "{\"data\":{\"organization\":{" +
+                    "\"t0\":" + connection(true, team(1, "team-a")) + "," +
+                    "\"t1\":" + connection(false, team(2, "team-b")) + "," +
+                    "\"t2\":" + connection(false) +
+                    "}}}");
+        };
+
+        Map<String, List<GraphQLTeamEdge>> teams = builder.fetch();
+
+        assertEquals(3, teams.size());
+        assertEquals(Arrays.asList("team-a", "team-c"), slugs(teams.get("user0")));
+        assertEquals(Arrays.asList("team-b"), slugs(teams.get("user1")));
+        assertTrue(teams.get("user2").isEmpty());
+        assertEquals(2, server.requests("POST", "/graphql").size());
+    }
+
+    @Test
+    void dropMissingAlias() throws Exception {
+        server.handler = (req) -> new StubGitHubServer.Response(200, "{\"data\":{\"organization\":{" +
+                "\"t0\":" + connection(false, team(1, "team-a")) + "," +
+                "\"t1\":null" +
+                "}}}");
+
+        Map<String, List<GraphQLTeamEdge>> teams = builder.fetch();
+
+        assertEquals(1, teams.size());
+        assertEquals(Arrays.asList("team-a"), slugs(teams.get("user0")));
+        assertFalse(teams.containsKey("user1"));
+        assertFalse(teams.containsKey("user2"));
+    }
+
+    @Test
+    void dropPartialErrors() throws Exception {
+        server.handler = (req) -> {
+            if (!req.body.contains("$u1")) {
+                return new StubGitHubServer.Response(200, "{\"data\":{\"organization\":{\"t0\":null}}," +
+                        "\"errors\":[{\"message\":\"timeout\",\"path\":[\"organization\",\"t0\"]}]}");
+            }
+            return new StubGitHubServer.Response(200, "{\"data\":{\"organization\":{" +
+                    "\"t0\":" + connection(true, team(1, "team-a")) + "," +
+                    "\"t1\":" + connection(false, team(2, "team-b")) + "," +
+                    "\"t2\":" + connection(false, team(3, "team-c")) +
+                    "}}," +
+                    "\"errors\":[{\"message\":\"timeout\",\"path\":[\"organization\",\"t2\",\"edges\",0]}]}");
+        };
+
+        Map<String, List<GraphQLTeamEdge>> teams = builder.fetch();
+
+        // user0 failed on the next page and user2 failed on the first page
+        assertEquals(1, teams.size());
+        assertEquals(Arrays.asList("team-b"), slugs(teams.get("user1")));
+    }
+
+    @Test
+    void failWithoutAliasPath() {
+        server.handler = (req) -> new StubGitHubServer.Response(200, "{\"data\":{\"organization\":{" +
+                "\"t0\":" + connection(false, team(1, "team-a")) +
+                "}}," +
+                "\"errors\":[{\"message\":\"something went wrong\"}]}");
+
+        assertThrows(GHException.class, () -> builder.fetch());
+    }
+
+    private static String connection(boolean hasNextPage, String... teams) {
+        return "{\"pageInfo\":{\"endCursor\":\"cursor\",\"hasNextPage\":" + hasNextPage + "}," +
+                "\"edges\":[" + String.join(",", teams) + "]}";
+    }
+
+    private static String team(int id, String slug) {
+        return "{\"node\":{\"id\":\"T_" + id + "\",\"databaseId\":" + id + ",\"slug\":\"" + slug + "\"," +
+                "\"members\":{\"totalCount\":1,\"edges\":[{\"role\":\"MEMBER\"}]}}}";
+    }
+
+    private static List<String> slugs(List<GraphQLTeamEdge> edges) {
+        String[] slugs = edges.stream().map(e -> e.node.slug).toArray(String[]::new);
+        return Arrays.asList(slugs);
+    }
+}
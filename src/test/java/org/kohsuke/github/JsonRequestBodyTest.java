@@ -0,0 +1,44 @@
+package org.kohsuke.github;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonRequestBodyTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void utf8() throws IOException {
+        try (InputStream in = JsonRequestBody.of(mapper, Collections.singletonMap("displayName", "開発部"))) {
+            assertEquals("{\"displayName\":\"開発部\"}", new String(readAll(in), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void reuseBuffer() throws IOException {
+        try (InputStream in = JsonRequestBody.of(mapper, Collections.singletonMap("a", "long value"))) {
+            readAll(in);
+        }
+        try (InputStream in = JsonRequestBody.of(mapper, Collections.singletonMap("b", 1))) {
+            assertEquals("{\"b\":1}", new String(readAll(in), StandardCharsets.UTF_8));
+
+            // Not shared while in use
+            try (InputStream nested = JsonRequestBody.of(mapper, Collections.singletonMap("c", 2))) {
+                assertEquals("{\"c\":2}", new String(readAll(nested), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        byte[] bytes = new byte[in.available()];
+        assertEquals(bytes.length, in.read(bytes));
+        return bytes;
+    }
+}
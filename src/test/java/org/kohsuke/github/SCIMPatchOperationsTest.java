@@ -0,0 +1,55 @@
+package org.kohsuke.github;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SCIMPatchOperationsTest {
+
+    @Test
+    void notSplit() {
+        SCIMPatchOperations ops = new SCIMPatchOperations();
+        ops.replace("displayName", "group1");
+        ops.addMembers(Arrays.asList("u1", "u2"));
+
+        assertSame(ops, ops.split(0).get(0));
+        assertSame(ops, ops.split(2).get(0));
+    }
+
+    @Test
+    void split() {
+        SCIMPatchOperations ops = new SCIMPatchOperations();
+        ops.replace("displayName", "group1");
+        ops.addMembers(Arrays.asList("u1", "u2", "u3", "u4", "u5"));
+        ops.removeMembers(Arrays.asList("u6", "u7"));
+
+        List<SCIMPatchOperations> chunks = ops.split(3);
+
+        assertEquals(3, chunks.size());
+        assertEquals(7, ops.countMembers());
+
+        // The first chunk has displayName
+        assertEquals("displayName", chunks.get(0).operations.get(0).path);
+        assertEquals(Arrays.asList("u1", "u2", "u3"), values(chunks.get(0).operations.get(1)));
+
+        assertEquals(2, chunks.get(1).operations.size());
+        assertEquals("add", chunks.get(1).operations.get(0).op);
+        assertEquals(Arrays.asList("u4", "u5"), values(chunks.get(1).operations.get(0)));
+        assertEquals("remove", chunks.get(1).operations.get(1).op);
+        assertEquals(Arrays.asList("u6"), values(chunks.get(1).operations.get(1)));
+
+        assertEquals(1, chunks.get(2).operations.size());
+        assertEquals(Arrays.asList("u7"), values(chunks.get(2).operations.get(0)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> values(SCIMPatchOperations.Operation op) {
+        return ((List<SCIMPatchOperations.Member>) op.value).stream()
+                .map(m -> m.value)
+                .collect(Collectors.toList());
+    }
+}
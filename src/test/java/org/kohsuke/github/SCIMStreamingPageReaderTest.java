@@ -0,0 +1,70 @@
+package org.kohsuke.github;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SCIMStreamingPageReaderTest {
+
+    private static class GroupSearchResult extends SCIMSearchResult<SCIMEMUGroup> {
+    }
+
+    private static final String PAGE = "{\"schemas\":[\"urn:ietf:params:scim:api:messages:2.0:ListResponse\"]," +
+            "\"totalResults\":5,\"Resources\":[" +
+            "{\"id\":\"g1\",\"displayName\":\"group1\",\"members\":[{\"value\":\"u1\"},{\"value\":\"u2\"}]}," +
+            "{\"id\":\"g2\",\"displayName\":\"group2\",\"members\":[]}," +
+            "{\"id\":\"g3\",\"displayName\":\"group3\"}" +
+            "],\"startIndex\":1,\"itemsPerPage\":3}";
+
+    @Test
+    void parse() throws IOException {
+        List<SCIMEMUGroup> groups = new ArrayList<>();
+        SCIMStreamingPageReader<SCIMEMUGroup>.Page page = newReader().new Page(groups::add);
+
+        page.parse(toStream(PAGE));
+
+        assertEquals(3, groups.size());
+        assertEquals("g1", groups.get(0).id);
+        assertEquals(2, groups.get(0).members.size());
+        assertEquals("group3", groups.get(2).displayName);
+        assertEquals(5, page.result.totalResults);
+        assertEquals(1, page.result.startIndex);
+        assertEquals(3, page.result.itemsPerPage);
+        assertNull(page.result.Resources);
+        assertFalse(page.stopped);
+    }
+
+    @Test
+    void stopAndRetry() throws IOException {
+        List<SCIMEMUGroup> groups = new ArrayList<>();
+        SCIMStreamingPageReader<SCIMEMUGroup>.Page page = newReader().new Page(g -> {
+            groups.add(g);
+            if (groups.size() == 2) {
+                throw new IllegalStateException("connection reset");
+            }
+            return true;
+        });
+
+        assertThrows(IllegalStateException.class, () -> page.parse(toStream(PAGE)));
+        // The retried response doesn't emit the handled resources again
+        page.parse(toStream(PAGE));
+
+        assertEquals(3, groups.size());
+        assertEquals("g3", groups.get(2).id);
+    }
+
+    private static SCIMStreamingPageReader<SCIMEMUGroup> newReader() throws IOException {
+        GitHub root = new GitHubBuilder().withEndpoint("https://localhost").build();
+        return new SCIMStreamingPageReader<>(root, GroupSearchResult.class);
+    }
+
+    private static ByteArrayInputStream toStream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}